@@ -0,0 +1,33 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the allocation profiler, taking the usual JMH command line options.
+ *
+ * <p>Without a benchmark pattern every benchmark runs, and without a profiler the GC profiler is added, so that the
+ * allocation rate and bytes allocated per operation are reported alongside the times.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class BenchmarkMain {
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include("bench\\..*Benchmark");
+        }
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks comparing and hashing addresses and residents.
+ *
+ * <p>Each invocation compares every one of <code>rows</code> values with the next one in input order, so about half
+ * of the comparisons are within a household and half across households.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class ComparisonBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    private Comparable<Object>[] residents;
+    private Comparable<Object>[] addresses;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Throwable {
+        String[] lines = InputData.lines(this.rows);
+        this.residents = (Comparable<Object>[]) new Comparable<?>[this.rows];
+        this.addresses = (Comparable<Object>[]) new Comparable<?>[this.rows];
+        for (int i = 0; i < this.rows; i++) {
+            Object resident = (Object) Targets.CONSTRUCT_RESIDENT.invokeExact(lines[i]);
+            this.residents[i] = (Comparable<Object>) resident;
+            this.addresses[i] = (Comparable<Object>) (Object) Targets.GET_ADDRESS.invokeExact(resident);
+        }
+    }
+
+    @Benchmark
+    public void addressCompareTo(Blackhole blackhole) {
+        for (int i = 1; i < this.rows; i++) {
+            blackhole.consume(this.addresses[i - 1].compareTo(this.addresses[i]));
+        }
+    }
+
+    @Benchmark
+    public void addressHashCode(Blackhole blackhole) {
+        for (Comparable<Object> address : this.addresses) {
+            blackhole.consume(address.hashCode());
+        }
+    }
+
+    @Benchmark
+    public void residentCompareTo(Blackhole blackhole) {
+        for (int i = 1; i < this.rows; i++) {
+            blackhole.consume(this.residents[i - 1].compareTo(this.residents[i]));
+        }
+    }
+}
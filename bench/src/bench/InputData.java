@@ -0,0 +1,67 @@
+package bench;
+
+import java.util.Random;
+
+/**
+ * Deterministic input lines for the benchmarks, with the spelling variety of real input.
+ *
+ * <p>Residents are generated household by household, one to six to a household, with street suffixes, unit markers,
+ * capitalization and punctuation varying between lines of the same household so that normalization has work to do.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+final class InputData {
+    private static final String[] FIRST_NAMES = {"Alice", "Bob", "Carol", "Dave", "Eve", "Frank", "Grace", "Heidi",
+            "Ivan", "Judy", "Mallory", "Niaj", "Olivia", "Peggy", "Rupert", "Sybil", "Trent", "Victor", "Walter"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas"};
+    private static final String[] STREET_NAMES = {"Main", "Oak", "Pine", "Maple", "Cedar", "Elm", "2nd", "3rd",
+            "Lake", "Hill", "Park", "Washington", "Lincoln", "Jefferson"};
+    private static final String[][] SUFFIX_SPELLINGS = {{"St", "St.", "Street", "street"},
+            {"Ave", "Ave.", "Avenue", "AVENUE"}, {"Blvd", "Blvd.", "Boulevard"}, {"Rd", "Rd.", "Road"}};
+    private static final String[] UNIT_SPELLINGS = {"Apt", "Apt.", "Apartment", "#"};
+    private static final String[] CITIES = {"Seattle", "Tacoma", "Spokane", "Portland", "Boise", "Miami", "Austin",
+            "Denver", "Phoenix", "Chicago"};
+    private static final String[] STATES = {"WA", "OR", "ID", "FL", "TX", "CO", "AZ", "IL"};
+    private static final long SEED = 20221027L;
+
+    private InputData() {
+    }
+
+    /**
+     * Returns the same input lines for the same number of rows on every call.
+     *
+     * @param rows the number of lines
+     * @return the input lines
+     */
+    static String[] lines(int rows) {
+        Random random = new Random(SEED);
+        String[] res = new String[rows];
+        int row = 0;
+        while (row < rows) {
+            int number = 1 + random.nextInt(9999);
+            String streetName = STREET_NAMES[random.nextInt(STREET_NAMES.length)];
+            String[] suffixes = SUFFIX_SPELLINGS[random.nextInt(SUFFIX_SPELLINGS.length)];
+            String unit = random.nextInt(4) == 0 ? Integer.toString(1 + random.nextInt(400)) : null;
+            String city = CITIES[random.nextInt(CITIES.length)];
+            String state = STATES[random.nextInt(STATES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+
+            int occupants = 1 + random.nextInt(6);
+            for (int i = 0; i < occupants && row < rows; i++) {
+                String street = number + " " + streetName + " " + suffixes[random.nextInt(suffixes.length)];
+                if (unit != null) {
+                    street += " " + UNIT_SPELLINGS[random.nextInt(UNIT_SPELLINGS.length)] + " " + unit;
+                }
+                res[row++] = "\"" + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + "\",\""
+                        + (random.nextInt(5) == 0 ? LAST_NAMES[random.nextInt(LAST_NAMES.length)] : lastName)
+                        + "\",\"" + street + "\",\""
+                        + (random.nextBoolean() ? city : city.toLowerCase()) + "\",\""
+                        + (random.nextBoolean() ? state : state.toLowerCase() + ".") + "\",\""
+                        + random.nextInt(95) + "\"";
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,69 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks parsing input lines into residents, and creating and normalizing addresses.
+ *
+ * <p>Each invocation processes every one of <code>rows</code> inputs.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class ParsingBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    private String[] lines;
+    private String[] streets;
+    private String[] cities;
+    private String[] states;
+
+    @Setup
+    public void setUp() {
+        this.lines = InputData.lines(this.rows);
+        this.streets = new String[this.rows];
+        this.cities = new String[this.rows];
+        this.states = new String[this.rows];
+        for (int i = 0; i < this.rows; i++) {
+            String[] fields = this.lines[i].substring(1, this.lines[i].length() - 1).split("\",\"");
+            this.streets[i] = fields[2];
+            this.cities[i] = fields[3];
+            this.states[i] = fields[4];
+        }
+    }
+
+    @Benchmark
+    public void constructResident(Blackhole blackhole) throws Throwable {
+        for (String line : this.lines) {
+            blackhole.consume((Object) Targets.CONSTRUCT_RESIDENT.invokeExact(line));
+        }
+    }
+
+    @Benchmark
+    public void newAddress(Blackhole blackhole) throws Throwable {
+        for (int i = 0; i < this.rows; i++) {
+            blackhole.consume((Object) Targets.NEW_ADDRESS.invokeExact(this.streets[i], this.cities[i],
+                    this.states[i]));
+        }
+    }
+}
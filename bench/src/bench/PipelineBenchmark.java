@@ -0,0 +1,70 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the stages of producing the report: grouping residents into households, rendering the households, and
+ * the whole of <code>Solution.start</code> from input text to report.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class PipelineBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    private byte[] input;
+    private List<Object> residents;
+    private SortedMap<?, ?> households;
+
+    @Setup
+    public void setUp() throws Throwable {
+        String[] lines = InputData.lines(this.rows);
+        this.input = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+        this.residents = new ArrayList<>(this.rows);
+        for (String line : lines) {
+            this.residents.add((Object) Targets.CONSTRUCT_RESIDENT.invokeExact(line));
+        }
+        this.households = (SortedMap<?, ?>) Targets.GET_HOUSEHOLDS.invokeExact((List<?>) this.residents);
+    }
+
+    @Benchmark
+    public SortedMap<?, ?> getHouseholds() throws Throwable {
+        return (SortedMap<?, ?>) Targets.GET_HOUSEHOLDS.invokeExact((List<?>) this.residents);
+    }
+
+    @Benchmark
+    public String getHouseholdsDisplay() throws Throwable {
+        return (String) Targets.GET_HOUSEHOLDS_DISPLAY.invokeExact(this.households);
+    }
+
+    @Benchmark
+    public String start() throws Throwable {
+        Scanner scanner = new Scanner(new ByteArrayInputStream(this.input), StandardCharsets.UTF_8);
+        return (String) Targets.START.invokeExact(scanner);
+    }
+}
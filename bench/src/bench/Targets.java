@@ -0,0 +1,78 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Scanner;
+import java.util.SortedMap;
+
+/**
+ * Handles to the benchmarked methods of the application.
+ *
+ * <p>The application's classes are in the default package, which cannot be imported, while JMH requires benchmarks
+ * to be in a named package. The methods are therefore looked up reflectively once, and called through constant
+ * method handles, which the JIT inlines like direct calls.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+final class Targets {
+    /**
+     * <code>Solution.constructResident(String)</code>, returning a <code>Resident</code>.
+     */
+    static final MethodHandle CONSTRUCT_RESIDENT;
+    /**
+     * <code>new Address(String, String, String)</code>.
+     */
+    static final MethodHandle NEW_ADDRESS;
+    /**
+     * <code>Resident.getAddress()</code>, taking a <code>Resident</code> and returning an <code>Address</code>.
+     */
+    static final MethodHandle GET_ADDRESS;
+    /**
+     * <code>Solution.getHouseholds(List)</code>, returning a <code>SortedMap</code>.
+     */
+    static final MethodHandle GET_HOUSEHOLDS;
+    /**
+     * <code>Solution.getHouseholdsDisplay(SortedMap)</code>.
+     */
+    static final MethodHandle GET_HOUSEHOLDS_DISPLAY;
+    /**
+     * <code>Solution.start(Scanner)</code>.
+     */
+    static final MethodHandle START;
+
+    static {
+        try {
+            Class<?> solution = Class.forName("Solution");
+            Class<?> address = Class.forName("Address");
+            Class<?> resident = Class.forName("Resident");
+
+            CONSTRUCT_RESIDENT = unreflect(solution.getDeclaredMethod("constructResident", String.class))
+                    .asType(MethodType.methodType(Object.class, String.class));
+            Constructor<?> addressConstructor = address.getConstructor(String.class, String.class, String.class);
+            NEW_ADDRESS = MethodHandles.lookup().unreflectConstructor(addressConstructor)
+                    .asType(MethodType.methodType(Object.class, String.class, String.class, String.class));
+            GET_ADDRESS = unreflect(resident.getMethod("getAddress"))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            GET_HOUSEHOLDS = unreflect(solution.getDeclaredMethod("getHouseholds", List.class))
+                    .asType(MethodType.methodType(SortedMap.class, List.class));
+            GET_HOUSEHOLDS_DISPLAY = unreflect(solution.getDeclaredMethod("getHouseholdsDisplay", SortedMap.class));
+            START = unreflect(solution.getMethod("start", Scanner.class));
+        } catch (ReflectiveOperationException roe) {
+            throw new ExceptionInInitializerError(roe);
+        }
+    }
+
+    private Targets() {
+    }
+
+    private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+        // Package-private methods are only reachable across packages once made accessible
+        method.setAccessible(true);
+        return MethodHandles.lookup().unreflect(method);
+    }
+}
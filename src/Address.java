@@ -1,3 +1,7 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Represents an address (street address, city, and state) for the US.
  *
@@ -15,7 +19,8 @@ public class Address implements Comparable<Address> {
     /**
      * Apartment portion of the street address (optional).
      *
-     * <p>Set to <code>null</code> if not present.
+     * <p>Unit marker (for example, Apt.) followed by the identifier in all caps.
+     * Set to <code>null</code> if not present.
      */
     private final String apartment;
     /**
@@ -28,35 +33,33 @@ public class Address implements Comparable<Address> {
     private final String state;
 
     /**
-     * Creates an address without an apartment or unit number.
+     * Creates an address, normalized with the {@linkplain AddressNormalizer#standard() standard rules}.
+     *
+     * <p>If the street has a unit marker (for example Apt, Unit, Suite or #) after its first word, the marker and
+     * everything after it become the apartment portion of the address.
      *
      * @param street the street portion of the address
      * @param city   the city portion of the address
      * @param state  the state portion of the address
      */
     public Address(String street, String city, String state) {
-        String normalizedStreet = street;
-        String normalizedApartment = null;
-        String normalizedCity = city;
-        String normalizedState = state;
-
-        if (normalizedStreet.contains("Apt.")) {
-            int aptIdx = normalizedStreet.indexOf("Apt.");
-            normalizedApartment = normalizedStreet.substring(aptIdx);
-            normalizedStreet = normalizedStreet.substring(0, aptIdx);
-        }
-
-        normalizedStreet = toStandardizedFormat(normalizedStreet);
-        if (normalizedApartment != null) {
-            normalizedApartment = normalizedApartment.trim();
-        }
-        normalizedCity = toStandardizedFormat(normalizedCity);
-        normalizedState = normalizedState.toUpperCase().replaceAll("\\.", "");
+        this(street, city, state, AddressNormalizer.standard());
+    }
 
-        this.street = normalizedStreet;
-        this.apartment = normalizedApartment;
-        this.city = normalizedCity;
-        this.state = normalizedState;
+    /**
+     * Creates an address, normalized with the given rules.
+     *
+     * @param street     the street portion of the address
+     * @param city       the city portion of the address
+     * @param state      the state portion of the address
+     * @param normalizer the rules to normalize the address with
+     */
+    public Address(String street, String city, String state, AddressNormalizer normalizer) {
+        String[] streetParts = normalizer.normalizeStreet(street);
+        this.street = streetParts[0];
+        this.apartment = streetParts[1];
+        this.city = normalizer.normalizeWords(city);
+        this.state = normalizer.normalizeState(state);
     }
 
     /**
@@ -71,6 +74,93 @@ public class Address implements Comparable<Address> {
         this.state = address.state;
     }
 
+    private Address(String street, String apartment, String city, String state) {
+        this.street = street;
+        this.apartment = apartment;
+        this.city = city;
+        this.state = state;
+    }
+
+    /**
+     * Creates an address from portions that are already normalized.
+     *
+     * @param street    the normalized street portion of the address
+     * @param apartment the normalized apartment portion of the address, or <code>null</code> if there is none
+     * @param city      the normalized city portion of the address
+     * @param state     the normalized state portion of the address
+     * @return the address
+     */
+    static Address ofNormalized(String street, String apartment, String city, String state) {
+        return new Address(street, apartment, city, state);
+    }
+
+    /**
+     * Returns the street portion of the address.
+     *
+     * @return the normalized street portion of the address
+     */
+    String getStreet() {
+        return this.street;
+    }
+
+    /**
+     * Returns the apartment portion of the address.
+     *
+     * @return the normalized apartment portion of the address, or <code>null</code> if there is none
+     */
+    String getApartment() {
+        return this.apartment;
+    }
+
+    /**
+     * Returns the city of the address.
+     *
+     * @return the normalized city of the address
+     */
+    String getCity() {
+        return this.city;
+    }
+
+    /**
+     * Returns the state of the address.
+     *
+     * @return the state code of the address
+     */
+    String getState() {
+        return this.state;
+    }
+
+    /**
+     * Writes the normalized portions of the address, to be read back by {@link #read(DataInput)}.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeUTF(this.street);
+        out.writeBoolean(this.apartment != null);
+        if (this.apartment != null) {
+            out.writeUTF(this.apartment);
+        }
+        out.writeUTF(this.city);
+        out.writeUTF(this.state);
+    }
+
+    /**
+     * Reads an address written by {@link #write(DataOutput)}, without normalizing it again.
+     *
+     * @param in the input to read from
+     * @return the address read
+     * @throws IOException if the input cannot be read
+     */
+    static Address read(DataInput in) throws IOException {
+        String street = in.readUTF();
+        String apartment = in.readBoolean() ? in.readUTF() : null;
+        String city = in.readUTF();
+        String state = in.readUTF();
+        return new Address(street, apartment, city, state);
+    }
+
     /**
      * Indicates whether some other object is "equal to" this one.
      *
@@ -159,29 +249,9 @@ public class Address implements Comparable<Address> {
         if (this.apartment == null) {
             return 0;
         }
-        return this.apartment.compareTo(other.apartment);
-    }
-
-    /**
-     * Returns a string meeting the standardized form.
-     *
-     * <p>Standardized form for this class is initial caps, no punctuation, no trailing or leading white space
-     *
-     * @param s the string to standardize
-     * @return the standardized string
-     */
-    private String toStandardizedFormat(String s) {
-        String res = s.trim();
-        res = res.replaceAll("\\.", "");
-        res = res.replaceAll(",", "");
-
-        String[] words = res.split(" ");
-        for (int i = 0; i < words.length; i++) {
-            words[i] = words[i].trim();
-            String firstLetter = words[i].substring(0, 1).toUpperCase();
-            String remaining = words[i].substring(1).toLowerCase();
-            words[i] = firstLetter + remaining;
+        if (other.apartment == null) {
+            return 1;
         }
-        return String.join(" ", words);
+        return this.apartment.compareTo(other.apartment);
     }
 }
@@ -0,0 +1,272 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache from raw street, city and state spellings to their normalized {@link Address}.
+ *
+ * <p>Input data repeats the same few address spellings many times, so caching them saves normalizing each one again
+ * and lets every resident of a household share one <code>Address</code> instance. The least recently used entries
+ * are evicted once the cache is full.
+ *
+ * <p>The cache is split into independently locked segments, so it may be shared by several parsing threads. The
+ * capacity is divided exactly between the segments, so the cache never holds more entries than its capacity, but
+ * recency is tracked within each segment: the entry evicted is the least recently used of its segment, which is not
+ * always the least recently used of the whole cache.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class AddressCache {
+    /**
+     * Capacity used when none is configured.
+     */
+    static final int DEFAULT_CAPACITY = 1 << 16;
+    /**
+     * Most independently locked segments; a power of two. Caches with a smaller capacity have fewer segments, so that
+     * each holds at least one entry.
+     */
+    private static final int SEGMENTS = 16;
+
+    /**
+     * Maximum number of entries held by the cache, or 0 if caching is disabled.
+     */
+    private final int capacity;
+    /**
+     * Rules used to normalize addresses that are not cached.
+     */
+    private final AddressNormalizer normalizer;
+    /**
+     * Segments of the cache, chosen by key hash.
+     */
+    private final Segment[] segments;
+    /**
+     * Number of lookups answered from the cache.
+     */
+    private final LongAdder hits;
+    /**
+     * Number of lookups that had to normalize the address.
+     */
+    private final LongAdder misses;
+    /**
+     * Time spent normalizing addresses, in nanoseconds, while normalization is timed.
+     */
+    private final LongAdder normalizationNanos;
+    /**
+     * Whether the time spent normalizing addresses is measured.
+     */
+    private volatile boolean normalizationTimed;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity the maximum number of entries to hold; 0 disables caching, so every lookup creates a new
+     *                 address and is not counted
+     */
+    public AddressCache(int capacity) {
+        this(capacity, AddressNormalizer.standard());
+    }
+
+    /**
+     * Creates an empty cache of addresses normalized with the given rules.
+     *
+     * @param capacity   the maximum number of entries to hold; 0 disables caching, so every lookup creates a new
+     *                   address and is not counted
+     * @param normalizer the rules to normalize addresses with
+     */
+    public AddressCache(int capacity, AddressNormalizer normalizer) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative");
+        }
+        this.capacity = capacity;
+        this.normalizer = normalizer;
+        this.segments = new Segment[capacity == 0 ? 0 : Integer.highestOneBit(Math.min(capacity, SEGMENTS))];
+        // The first segments take one entry more than the others, for the capacities to add up
+        int remainder = capacity == 0 ? 0 : capacity % this.segments.length;
+        for (int i = 0; i < this.segments.length; i++) {
+            this.segments[i] = new Segment(capacity / this.segments.length + (i < remainder ? 1 : 0));
+        }
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.normalizationNanos = new LongAdder();
+    }
+
+    /**
+     * Returns the normalized address for the given raw spelling, normalizing and caching it if it is not cached.
+     *
+     * @param street the street portion of the address, as given in the input
+     * @param city   the city portion of the address, as given in the input
+     * @param state  the state portion of the address, as given in the input
+     * @return the normalized address, shared with every other lookup of the same spelling while it stays cached
+     */
+    public Address get(String street, String city, String state) {
+        if (this.capacity == 0) {
+            return normalize(street, city, state);
+        }
+
+        RawAddress key = new RawAddress(street, city, state);
+        Segment segment = this.segments[key.hash & (this.segments.length - 1)];
+        Address address;
+        synchronized (segment) {
+            address = segment.get(key);
+        }
+        if (address != null) {
+            this.hits.increment();
+            return address;
+        }
+
+        this.misses.increment();
+        Address normalized = normalize(street, city, state);
+        synchronized (segment) {
+            address = segment.putIfAbsent(key, normalized);
+        }
+        return address == null ? normalized : address;
+    }
+
+    private Address normalize(String street, String city, String state) {
+        if (!this.normalizationTimed) {
+            return new Address(street, city, state, this.normalizer);
+        }
+        long start = System.nanoTime();
+        Address res = new Address(street, city, state, this.normalizer);
+        this.normalizationNanos.add(System.nanoTime() - start);
+        return res;
+    }
+
+    /**
+     * Sets whether the time spent normalizing addresses is measured. It is not by default, to save reading the clock
+     * on every miss.
+     *
+     * @param timed <code>true</code> to measure normalization time
+     */
+    public void setNormalizationTimed(boolean timed) {
+        this.normalizationTimed = timed;
+    }
+
+    /**
+     * Returns the time spent normalizing addresses while normalization was timed.
+     *
+     * @return the normalization time, in nanoseconds
+     */
+    public long getNormalizationNanos() {
+        return this.normalizationNanos.sum();
+    }
+
+    /**
+     * Returns the rules addresses are normalized with.
+     *
+     * @return the normalizer of the cache
+     */
+    public AddressNormalizer getNormalizer() {
+        return this.normalizer;
+    }
+
+    /**
+     * Returns the maximum number of entries held by the cache.
+     *
+     * @return the capacity, or 0 if caching is disabled
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of entries currently held by the cache.
+     *
+     * @return the number of cached addresses
+     */
+    public int size() {
+        int res = 0;
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                res += segment.size();
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that had to normalize the address.
+     *
+     * @return the number of cache misses
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Returns a one-line summary of the cache's effectiveness, for sizing it.
+     *
+     * @return a string representation of the cache statistics
+     */
+    @Override
+    public String toString() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return String.format("Address cache: %d hits, %d misses (%.1f%% hit rate), %d of %d entries used",
+                hits, lookups - hits, lookups == 0 ? 0.0 : 100.0 * hits / lookups, size(), this.capacity);
+    }
+
+    /**
+     * Raw, un-normalized spelling of an address, as given in the input.
+     */
+    private static final class RawAddress {
+        private final String street;
+        private final String city;
+        private final String state;
+        private final int hash;
+
+        RawAddress(String street, String city, String state) {
+            this.street = street;
+            this.city = city;
+            this.state = state;
+            int h = 31 * (31 * street.hashCode() + city.hashCode()) + state.hashCode();
+            this.hash = h ^ (h >>> 16);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof RawAddress)) {
+                return false;
+            }
+            RawAddress that = (RawAddress) other;
+            return this.street.equals(that.street) && this.city.equals(that.city) && this.state.equals(that.state);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+    /**
+     * Least recently used map for one segment of the cache. Callers synchronize on the segment.
+     */
+    private static final class Segment extends LinkedHashMap<RawAddress, Address> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RawAddress, Address> eldest) {
+            return size() > this.capacity;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Normalizes the raw parts of an address into the standardized form used by {@link Address}.
+ *
+ * <p>Normalization is driven by rules: punctuation characters that are dropped, abbreviations for street suffixes
+ * (for example Street to St), and unit markers (for example Apt, Unit, Suite or #) that start the apartment portion of
+ * the street. The rules are compiled into character tries, so each part is normalized in a single pass over its
+ * characters into a reusable per-thread buffer, without splitting it into temporary strings.
+ *
+ * <p>In standardized form, words are separated by single spaces and written in initial caps, except apartment
+ * identifiers, which are written in all caps. States are written in all caps.
+ *
+ * <p>Instances are immutable and safe for use by multiple threads.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class AddressNormalizer {
+    /**
+     * Abbreviations applied to the last word of a street.
+     */
+    static final Map<String, String> STANDARD_STREET_SUFFIXES = Map.ofEntries(
+            Map.entry("avenue", "Ave"),
+            Map.entry("boulevard", "Blvd"),
+            Map.entry("circle", "Cir"),
+            Map.entry("court", "Ct"),
+            Map.entry("drive", "Dr"),
+            Map.entry("highway", "Hwy"),
+            Map.entry("lane", "Ln"),
+            Map.entry("parkway", "Pkwy"),
+            Map.entry("place", "Pl"),
+            Map.entry("road", "Rd"),
+            Map.entry("square", "Sq"),
+            Map.entry("street", "St"),
+            Map.entry("terrace", "Ter")
+    );
+    /**
+     * Words starting the apartment portion of a street, and how each is written in standardized form.
+     */
+    static final Map<String, String> STANDARD_UNIT_MARKERS = Map.of(
+            "apartment", "Apt.",
+            "apt", "Apt.",
+            "#", "Apt.",
+            "unit", "Unit",
+            "suite", "Ste.",
+            "ste", "Ste."
+    );
+    /**
+     * Characters dropped from every part of an address.
+     */
+    static final String STANDARD_PUNCTUATION = ".,";
+
+    private static final AddressNormalizer STANDARD = new AddressNormalizer(STANDARD_STREET_SUFFIXES,
+            STANDARD_UNIT_MARKERS, STANDARD_PUNCTUATION);
+    private static final char UNIT_SIGN = '#';
+
+    /**
+     * Street suffixes by lower case spelling, holding their abbreviation.
+     */
+    private final Trie streetSuffixes;
+    /**
+     * Unit markers by lower case spelling, holding their standardized form.
+     */
+    private final Trie unitMarkers;
+    /**
+     * Characters dropped from every part of an address.
+     */
+    private final String punctuation;
+    /**
+     * Standardized form of a lone {@value #UNIT_SIGN}, or <code>null</code> if it is not a unit marker.
+     */
+    private final String unitSign;
+    /**
+     * Buffer each thread normalizes into.
+     */
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(StringBuilder::new);
+
+    /**
+     * Creates a normalizer from a set of rules.
+     *
+     * @param streetSuffixes abbreviations for the last word of a street, keyed by lower case spelling
+     * @param unitMarkers    standardized forms of the words starting an apartment, keyed by lower case spelling; a
+     *                       key of <code>#</code> also matches a <code>#</code> directly followed by the identifier
+     * @param punctuation    the characters to drop from every part of an address
+     */
+    public AddressNormalizer(Map<String, String> streetSuffixes, Map<String, String> unitMarkers,
+                             String punctuation) {
+        this.streetSuffixes = Trie.of(streetSuffixes);
+        this.unitMarkers = Trie.of(unitMarkers);
+        this.punctuation = punctuation;
+        this.unitSign = unitMarkers.get(String.valueOf(UNIT_SIGN));
+    }
+
+    /**
+     * Returns the normalizer with the standard rules, used by {@link Address#Address(String, String, String)}.
+     *
+     * @return the standard normalizer
+     */
+    public static AddressNormalizer standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Normalizes a street, splitting off its apartment portion if it has a unit marker after the first word.
+     *
+     * <p>The suffix rules apply only to the last word of the street, before any apartment.
+     *
+     * @param raw the street portion of the address, as given in the input
+     * @return a two element array of the standardized street and the standardized apartment, which is
+     * <code>null</code> if the street has no apartment
+     */
+    public String[] normalizeStreet(CharSequence raw) {
+        // Every word in the buffer is preceded by a space, which is dropped when the parts are extracted.
+        StringBuilder out = this.buffers.get();
+        out.setLength(0);
+
+        int apartmentStart = -1;
+        int lastWordStart = -1;
+        String lastWordSuffix = null;
+        int length = raw.length();
+        int i = 0;
+        while (i < length) {
+            if (Character.isWhitespace(raw.charAt(i))) {
+                i++;
+                continue;
+            }
+            int wordEnd = i;
+            while (wordEnd < length && !Character.isWhitespace(raw.charAt(wordEnd))) {
+                wordEnd++;
+            }
+
+            if (apartmentStart < 0 && lastWordStart >= 0 && this.unitSign != null
+                    && firstKeptChar(raw, i, wordEnd) == UNIT_SIGN) {
+                applySuffix(out, lastWordStart, lastWordSuffix);
+                apartmentStart = out.length();
+                out.append(' ').append(this.unitSign);
+            }
+            boolean inApartment = apartmentStart >= 0;
+
+            int wordStart = out.length();
+            out.append(' ');
+            Trie suffix = inApartment ? null : this.streetSuffixes;
+            Trie marker = inApartment || lastWordStart < 0 ? null : this.unitMarkers;
+            for (; i < wordEnd; i++) {
+                char c = raw.charAt(i);
+                if (this.punctuation.indexOf(c) >= 0 || (inApartment && c == UNIT_SIGN && this.unitSign != null)) {
+                    continue;
+                }
+                suffix = suffix == null ? null : suffix.child(c);
+                marker = marker == null ? null : marker.child(c);
+                boolean upper = inApartment || out.length() == wordStart + 1;
+                out.append(upper ? Character.toUpperCase(c) : Character.toLowerCase(c));
+            }
+
+            if (out.length() == wordStart + 1) {
+                out.setLength(wordStart);
+            } else if (marker != null && marker.value != null) {
+                out.setLength(wordStart);
+                applySuffix(out, lastWordStart, lastWordSuffix);
+                apartmentStart = out.length();
+                out.append(' ').append(marker.value);
+            } else if (!inApartment) {
+                lastWordStart = wordStart + 1;
+                lastWordSuffix = suffix == null ? null : suffix.value;
+            }
+        }
+
+        if (apartmentStart < 0) {
+            applySuffix(out, lastWordStart, lastWordSuffix);
+            return new String[]{out.length() == 0 ? "" : out.substring(1), null};
+        }
+        return new String[]{out.substring(1, apartmentStart), out.substring(apartmentStart + 1)};
+    }
+
+    /**
+     * Normalizes a city, or any other part written as words in initial caps.
+     *
+     * @param raw the part of the address, as given in the input
+     * @return the standardized part
+     */
+    public String normalizeWords(CharSequence raw) {
+        StringBuilder out = this.buffers.get();
+        out.setLength(0);
+
+        boolean wordStart = true;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (Character.isWhitespace(c)) {
+                wordStart = true;
+            } else if (this.punctuation.indexOf(c) < 0) {
+                if (wordStart && out.length() > 0) {
+                    out.append(' ');
+                }
+                out.append(wordStart ? Character.toUpperCase(c) : Character.toLowerCase(c));
+                wordStart = false;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Normalizes a state.
+     *
+     * @param raw the state portion of the address, as given in the input
+     * @return the standardized state, in all caps without punctuation or white space
+     */
+    public String normalizeState(CharSequence raw) {
+        StringBuilder out = this.buffers.get();
+        out.setLength(0);
+
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (!Character.isWhitespace(c) && this.punctuation.indexOf(c) < 0) {
+                out.append(Character.toUpperCase(c));
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Replaces the last word of the street with its abbreviation, if it has one. The last word must end the buffer.
+     */
+    private static void applySuffix(StringBuilder out, int lastWordStart, String lastWordSuffix) {
+        if (lastWordSuffix != null) {
+            out.setLength(lastWordStart);
+            out.append(lastWordSuffix);
+        }
+    }
+
+    /**
+     * Returns the first character of <code>raw</code> between <code>from</code> and <code>to</code> that is not
+     * punctuation, or 0 if there is none.
+     */
+    private char firstKeptChar(CharSequence raw, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (this.punctuation.indexOf(raw.charAt(i)) < 0) {
+                return raw.charAt(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Character trie over lower case spellings, compiled from a map of rules.
+     */
+    private static final class Trie {
+        private char[] keys = new char[0];
+        private Trie[] children = new Trie[0];
+        /**
+         * Value of the rule whose spelling ends at this node, or <code>null</code> if none does.
+         */
+        private String value;
+
+        static Trie of(Map<String, String> rules) {
+            Trie root = new Trie();
+            for (Map.Entry<String, String> rule : rules.entrySet()) {
+                Trie node = root;
+                for (int i = 0; i < rule.getKey().length(); i++) {
+                    node = node.childOrCreate(Character.toLowerCase(rule.getKey().charAt(i)));
+                }
+                node.value = rule.getValue();
+            }
+            return root;
+        }
+
+        /**
+         * Returns the child for the given character, ignoring case, or <code>null</code> if no rule continues with it.
+         */
+        Trie child(char c) {
+            char key = Character.toLowerCase(c);
+            for (int i = 0; i < this.keys.length; i++) {
+                if (this.keys[i] == key) {
+                    return this.children[i];
+                }
+            }
+            return null;
+        }
+
+        private Trie childOrCreate(char key) {
+            Trie child = child(key);
+            if (child == null) {
+                child = new Trie();
+                int size = this.keys.length;
+                this.keys = Arrays.copyOf(this.keys, size + 1);
+                this.children = Arrays.copyOf(this.children, size + 1);
+                this.keys[size] = key;
+                this.children[size] = child;
+            }
+            return child;
+        }
+    }
+}
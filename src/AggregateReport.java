@@ -0,0 +1,249 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summarizes residents in one pass, without grouping them into households: the largest households, the number of
+ * distinct households, adult and minor counts, and residents and ages by place.
+ *
+ * <p>Memory is bounded however many residents are added. Household sizes are counted by a {@link TopKCounter}
+ * with {@value #COUNTERS_PER_HOUSEHOLD} counters per household listed, and at least {@value #MIN_COUNTERS}: sizes are
+ * exact while there are no more households than counters, and beyond that the largest households are still found,
+ * with an upper bound on how much each size may be overestimated. Distinct households are estimated by a
+ * {@link HyperLogLog}. Counts by place are exact, as there are far fewer places than households.
+ *
+ * <p>Instances are not safe for use by multiple threads.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class AggregateReport {
+    /**
+     * Number of largest households listed when none is configured.
+     */
+    public static final int DEFAULT_TOP = 10;
+    /**
+     * Number of household sizes tracked for each household listed.
+     */
+    static final int COUNTERS_PER_HOUSEHOLD = 100;
+    /**
+     * Smallest number of household sizes tracked, a few megabytes of counters.
+     */
+    static final int MIN_COUNTERS = 1 << 17;
+    /**
+     * Width of each age bucket, in years. The last bucket holds every older age.
+     */
+    static final int AGE_BUCKET_WIDTH = 10;
+    /**
+     * Number of age buckets of each place.
+     */
+    static final int AGE_BUCKETS = 10;
+
+    private final int top;
+    private final TopKCounter<Address> householdSizes;
+    private final HyperLogLog households = new HyperLogLog();
+    private final Map<String, Map<String, Place>> places = new HashMap<>();
+    private long residents;
+    private long adults;
+
+    /**
+     * Creates an empty report.
+     *
+     * @param top the number of largest households to list
+     * @throws IllegalArgumentException if <code>top</code> is not positive
+     */
+    public AggregateReport(int top) {
+        if (top < 1) {
+            throw new IllegalArgumentException("Number of households listed must be positive");
+        }
+        this.top = top;
+        this.householdSizes = new TopKCounter<>(Math.max(MIN_COUNTERS, top * COUNTERS_PER_HOUSEHOLD));
+    }
+
+    /**
+     * Adds a resident to the summary.
+     *
+     * @param resident the resident
+     */
+    public void add(Resident resident) {
+        Address address = resident.getAddress();
+        boolean adult = Household.isAdult(resident);
+        this.residents++;
+        if (adult) {
+            this.adults++;
+        }
+        this.householdSizes.add(address);
+        this.households.add(hash(address));
+        this.places.computeIfAbsent(address.getState(), state -> new HashMap<>())
+                .computeIfAbsent(address.getCity(), city -> new Place())
+                .add(resident.getAge(), adult);
+    }
+
+    /**
+     * Returns the number of residents added.
+     *
+     * @return the number of residents
+     */
+    public long getResidentCount() {
+        return this.residents;
+    }
+
+    /**
+     * Returns the number of adults added.
+     *
+     * @return the number of residents older than {@value Household#ADULT_AGE}
+     */
+    public long getAdultCount() {
+        return this.adults;
+    }
+
+    /**
+     * Returns the estimated number of distinct households.
+     *
+     * @return the estimate, typically within 1% of the true count
+     */
+    public long getHouseholdEstimate() {
+        return this.households.estimate();
+    }
+
+    /**
+     * Returns the largest households.
+     *
+     * @return up to the configured number of household sizes, largest first, with ties in address order
+     */
+    public List<TopKCounter.Counter<Address>> getLargestHouseholds() {
+        List<TopKCounter.Counter<Address>> res = new ArrayList<>(this.householdSizes.getTop(Integer.MAX_VALUE));
+        res.sort((first, second) -> first.getCount() != second.getCount()
+                ? Long.compare(second.getCount(), first.getCount())
+                : first.getItem().compareTo(second.getItem()));
+        return res.subList(0, Math.min(this.top, res.size()));
+    }
+
+    /**
+     * Returns the counts of a city.
+     *
+     * @param state the normalized state
+     * @param city  the normalized city
+     * @return the counts of the city, or <code>null</code> if no resident lives there
+     */
+    public Place getPlace(String state, String city) {
+        Map<String, Place> cities = this.places.get(state);
+        return cities == null ? null : cities.get(city);
+    }
+
+    /**
+     * Writes the summary: resident counts, the estimated number of households, the largest households, and counts
+     * for each city in state and city order.
+     *
+     * @param out the writer to write to
+     * @throws IOException if the summary cannot be written
+     */
+    public void writeTo(ReportWriter out) throws IOException {
+        out.write("Residents: " + this.residents + " (" + describeAdults(this.adults, this.residents) + ")\n");
+        out.write("Distinct households: about " + getHouseholdEstimate() + "\n");
+        out.write("Largest households:\n");
+        for (TopKCounter.Counter<Address> household : getLargestHouseholds()) {
+            out.write("    " + household.getItem() + ": " + household.getCount()
+                    + (household.getCount() == 1 ? " occupant" : " occupants")
+                    + (household.getError() == 0 ? "" : " (at most " + household.getError() + " too many)") + "\n");
+        }
+        out.write("Places:\n");
+        for (Map.Entry<String, Map<String, Place>> state : new TreeMap<>(this.places).entrySet()) {
+            for (Map.Entry<String, Place> city : new TreeMap<>(state.getValue()).entrySet()) {
+                out.write("    " + city.getKey() + ", " + state.getKey() + ": " + city.getValue() + "\n");
+            }
+        }
+    }
+
+    private static String describeAdults(long adults, long residents) {
+        long minors = residents - adults;
+        return adults + (adults == 1 ? " adult, " : " adults, ") + minors + (minors == 1 ? " minor" : " minors")
+                + (minors == 0 ? "" : String.format(Locale.ROOT, ", %.2f adults per minor", (double) adults / minors));
+    }
+
+    private static String describeBucket(int bucket) {
+        int from = bucket * AGE_BUCKET_WIDTH;
+        return bucket == AGE_BUCKETS - 1 ? from + "+" : from + "-" + (from + AGE_BUCKET_WIDTH - 1);
+    }
+
+    private static long hash(Address address) {
+        long res = HyperLogLog.hash(0, address.getState());
+        res = HyperLogLog.hash(res, address.getCity());
+        res = HyperLogLog.hash(res, address.getStreet());
+        return HyperLogLog.mix(HyperLogLog.hash(res, address.getApartment()));
+    }
+
+    /**
+     * Counts of the residents of one city.
+     */
+    public static final class Place {
+        private long residents;
+        private long adults;
+        /**
+         * Number of residents in each age bucket.
+         */
+        private final long[] ages = new long[AGE_BUCKETS];
+
+        void add(int age, boolean adult) {
+            this.residents++;
+            if (adult) {
+                this.adults++;
+            }
+            this.ages[Math.max(0, Math.min(age / AGE_BUCKET_WIDTH, AGE_BUCKETS - 1))]++;
+        }
+
+        /**
+         * Returns a summary of the city's counts.
+         *
+         * @return the number of residents, adults and minors, and the number of residents in each age bucket that
+         *         has any
+         */
+        @Override
+        public String toString() {
+            StringBuilder res = new StringBuilder().append(this.residents)
+                    .append(this.residents == 1 ? " resident (" : " residents (")
+                    .append(describeAdults(this.adults, this.residents)).append("); ages");
+            String separator = " ";
+            for (int bucket = 0; bucket < AGE_BUCKETS; bucket++) {
+                if (this.ages[bucket] > 0) {
+                    res.append(separator).append(describeBucket(bucket)).append(": ").append(this.ages[bucket]);
+                    separator = ", ";
+                }
+            }
+            return res.toString();
+        }
+
+        /**
+         * Returns the number of residents of the city.
+         *
+         * @return the number of residents
+         */
+        public long getResidentCount() {
+            return this.residents;
+        }
+
+        /**
+         * Returns the number of adults in the city.
+         *
+         * @return the number of residents older than {@value Household#ADULT_AGE}
+         */
+        public long getAdultCount() {
+            return this.adults;
+        }
+
+        /**
+         * Returns the number of residents in an age bucket.
+         *
+         * @param bucket the bucket, covering ages from <code>bucket * {@value AggregateReport#AGE_BUCKET_WIDTH}</code>
+         *               for {@value AggregateReport#AGE_BUCKET_WIDTH} years, or every older age for the last bucket
+         * @return the number of residents in the bucket
+         */
+        public long getAgeCount(int bucket) {
+            return this.ages[bucket];
+        }
+    }
+}
@@ -0,0 +1,233 @@
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Writes the report of each of many input files in one run, processing several files at once.
+ *
+ * <p>Each file is read on its own virtual thread, with a semaphore bounding how many are read at once, so memory
+ * stays bounded however many files are given. Files share one address cache. A report is written for each file, and
+ * optionally one merged report of the households of every file, combined in address order; each file's households
+ * are merged as soon as its own report is written.
+ *
+ * <p>A file that cannot be read, or is malformed, does not stop the others; its failure is reported in its result,
+ * and it is left out of the merged report.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class BatchRunner {
+    /**
+     * Appended to the name of each input file to name its report.
+     */
+    public static final String REPORT_SUFFIX = ".report.txt";
+
+    private final int parallelism;
+    private final AddressCache addressCache;
+
+    /**
+     * Creates a runner.
+     *
+     * @param parallelism  the maximum number of files read at once
+     * @param addressCache the cache used to normalize and share addresses, shared by every file
+     * @throws IllegalArgumentException if the parallelism is not positive
+     */
+    public BatchRunner(int parallelism, AddressCache addressCache) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+        this.addressCache = addressCache;
+    }
+
+    /**
+     * Finds the input files named by a directory or a glob.
+     *
+     * <p>A directory names every regular file in it. Otherwise the last part of the path is a glob, such as
+     * <code>counties/*.txt</code>, matched against the files of its directory. Either way, reports written by an
+     * earlier batch are left out.
+     *
+     * @param pattern a directory, or a path whose file name is a glob
+     * @return the files, sorted by path
+     * @throws IOException if the directory cannot be listed
+     */
+    public static List<Path> findInputs(String pattern) throws IOException {
+        Path path = Path.of(pattern);
+        Path directory;
+        PathMatcher matcher;
+        if (Files.isDirectory(path)) {
+            directory = path;
+            matcher = file -> true;
+        } else {
+            directory = path.toAbsolutePath().getParent();
+            PathMatcher glob = directory.getFileSystem().getPathMatcher("glob:" + path.getFileName());
+            matcher = file -> glob.matches(file.getFileName());
+        }
+
+        List<Path> res = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file) && matcher.matches(file)
+                        && !file.getFileName().toString().endsWith(REPORT_SUFFIX)) {
+                    res.add(file);
+                }
+            }
+        }
+        res.sort(null);
+        return res;
+    }
+
+    /**
+     * Writes the report of each input file, and optionally a merged report.
+     *
+     * @param inputs       the input files
+     * @param reportDir    the directory to write each report to, as the input file name followed by
+     *                     {@link #REPORT_SUFFIX}; <code>null</code> to write each next to its input file
+     * @param mergedReport the file to write the merged report to, or <code>null</code> to not write one
+     * @return the result of each input file, in the order given
+     * @throws IOException if the merged report cannot be written
+     */
+    public List<Result> run(List<Path> inputs, Path reportDir, Path mergedReport) throws IOException {
+        if (reportDir != null) {
+            Files.createDirectories(reportDir);
+        }
+
+        Semaphore permits = new Semaphore(this.parallelism);
+        HouseholdIndex merged = mergedReport == null ? null : new HouseholdIndex(false);
+        ExecutorService executor = VirtualThreads.newExecutor("batch");
+        try {
+            List<Future<Integer>> futures = new ArrayList<>(inputs.size());
+            for (Path input : inputs) {
+                Path report = (reportDir == null ? input.toAbsolutePath().getParent() : reportDir)
+                        .resolve(input.getFileName() + REPORT_SUFFIX);
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return process(input, report, merged);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            List<Result> res = new ArrayList<>(inputs.size());
+            for (int i = 0; i < inputs.size(); i++) {
+                res.add(await(inputs.get(i), futures.get(i)));
+            }
+            if (merged != null) {
+                try (ReportWriter out = new ReportWriter(new OutputStreamWriter(
+                        Files.newOutputStream(mergedReport), StandardCharsets.UTF_8))) {
+                    Solution.writeHouseholds(merged, out);
+                }
+            }
+            return res;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes the report of one file and merges its households, returning the number of households.
+     */
+    private int process(Path input, Path report, HouseholdIndex merged) throws IOException {
+        HouseholdIndex households = Solution.readMapped(input, this.addressCache);
+        try (ReportWriter out = new ReportWriter(new OutputStreamWriter(Files.newOutputStream(report),
+                StandardCharsets.UTF_8))) {
+            Solution.writeHouseholds(households, out);
+        }
+        if (merged != null) {
+            // The report lists adults in their natural order, so the order files are merged in does not matter
+            synchronized (merged) {
+                merged.addAll(households);
+            }
+        }
+        return households.size();
+    }
+
+    private static Result await(Path input, Future<Integer> future) throws IOException {
+        int householdCount;
+        try {
+            householdCount = future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for " + input);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof NoSuchFileException) {
+                return new Result(input, -1, "File not found");
+            }
+            if (cause instanceof InputMismatchException) {
+                return new Result(input, -1, "Input file is malformed.");
+            }
+            if (cause instanceof IOException) {
+                return new Result(input, -1, "Could not be processed: " + cause.getMessage());
+            }
+            throw new IllegalStateException("Failed to process " + input, cause);
+        }
+        return new Result(input, householdCount, null);
+    }
+
+    /**
+     * Outcome of processing one input file.
+     */
+    public static final class Result {
+        private final Path input;
+        private final int householdCount;
+        private final String error;
+
+        Result(Path input, int householdCount, String error) {
+            this.input = input;
+            this.householdCount = householdCount;
+            this.error = error;
+        }
+
+        /**
+         * Returns the input file.
+         *
+         * @return the path of the input file
+         */
+        public Path getInput() {
+            return this.input;
+        }
+
+        /**
+         * Returns the number of households in the file's report.
+         *
+         * @return the number of households, or -1 if the file failed
+         */
+        public int getHouseholdCount() {
+            return this.householdCount;
+        }
+
+        /**
+         * Returns why the file failed.
+         *
+         * @return a description of the failure, or <code>null</code> if the report was written
+         */
+        public String getError() {
+            return this.error;
+        }
+
+        /**
+         * Returns a one-line summary of the outcome.
+         *
+         * @return the input file followed by its number of households or its failure
+         */
+        @Override
+        public String toString() {
+            return this.input + ": " + (this.error == null ? this.householdCount + " households" : this.error);
+        }
+    }
+}
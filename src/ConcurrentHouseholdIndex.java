@@ -0,0 +1,56 @@
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link HouseholdIndex} that may be fed by several threads at once.
+ *
+ * <p>Households are created through a {@link ConcurrentHashMap}, and residents are added under the lock of their own
+ * household only, so producers adding to different households never wait on each other. No lock is shared by every
+ * producer, as the secondary indexes are only built on the first lookup. Households should only be listed, looked up
+ * or merged once every producer has finished.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class ConcurrentHouseholdIndex extends HouseholdIndex {
+    /**
+     * Households by address, shared with the superclass.
+     */
+    private final ConcurrentMap<Address, Household> households;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param retainMinors <code>true</code> to keep minors as well as adults, <code>false</code> to only count them
+     */
+    public ConcurrentHouseholdIndex(boolean retainMinors) {
+        this(new ConcurrentHashMap<>(), retainMinors);
+    }
+
+    private ConcurrentHouseholdIndex(ConcurrentMap<Address, Household> households, boolean retainMinors) {
+        super(households, retainMinors);
+        this.households = households;
+    }
+
+    /**
+     * Adds a resident to the household at their address, creating the household if needed. Safe to call from
+     * several threads at once.
+     *
+     * @param resident the resident to add
+     */
+    @Override
+    public void add(Resident resident) {
+        Household household = this.households.get(resident.getAddress());
+        if (household == null) {
+            Household created = newHousehold(resident.getAddress());
+            household = this.households.putIfAbsent(resident.getAddress(), created);
+            if (household == null) {
+                household = created;
+            }
+        }
+        synchronized (household) {
+            household.add(resident);
+        }
+        invalidateIndexes();
+    }
+}
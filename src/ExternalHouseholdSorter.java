@@ -0,0 +1,311 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Groups residents into households in bounded memory, for inputs too large to hold at once.
+ *
+ * <p>Residents are buffered until the buffer's estimated size reaches the memory budget, then sorted by address and
+ * resident order and spilled to a temporary run file. Households are produced by a k-way merge of the runs, so only
+ * the adults of one household at a time are held in memory.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class ExternalHouseholdSorter implements Closeable {
+    /**
+     * Default memory budget of the buffered residents, in bytes.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+    /**
+     * Order of residents within runs: by address, then by the natural order of residents, which puts the adults of
+     * each household in display order.
+     */
+    static final Comparator<Resident> ORDER =
+            Comparator.comparing(Resident::getAddress).thenComparing(Comparator.naturalOrder());
+    /**
+     * Maximum number of runs merged at once; more runs are first merged into longer runs.
+     */
+    static final int MAX_MERGE_WIDTH = 64;
+    /**
+     * Estimated heap size of a resident and its address, excluding the characters of their strings.
+     */
+    private static final int RESIDENT_OVERHEAD = 160;
+    private static final int MAX_IO_BUFFER_SIZE = 1 << 16;
+    private static final int MIN_IO_BUFFER_SIZE = 1 << 10;
+
+    private final long memoryBudget;
+    private final Path tempDir;
+    private final List<Resident> buffer = new ArrayList<>();
+    private long bufferedBytes;
+    private final List<Run> runs = new ArrayList<>();
+
+    /**
+     * Creates a sorter.
+     *
+     * @param memoryBudget the estimated size, in bytes, to which residents are buffered before being spilled
+     * @param tempDir      the directory to create run files in
+     * @throws IllegalArgumentException if the memory budget is not positive
+     */
+    public ExternalHouseholdSorter(long memoryBudget, Path tempDir) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+        this.memoryBudget = memoryBudget;
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * Adds a resident, spilling the buffered residents to a run file if the memory budget is reached.
+     *
+     * @param resident the resident to add
+     * @throws IOException if a run file cannot be written
+     */
+    public void add(Resident resident) throws IOException {
+        this.buffer.add(resident);
+        // Conservatively assumes no address is shared, and two bytes per character
+        this.bufferedBytes += RESIDENT_OVERHEAD + 2L * (resident.getFirstName().length()
+                + resident.getLastName().length() + resident.getAddress().toString().length());
+        if (this.bufferedBytes >= this.memoryBudget) {
+            spill();
+        }
+    }
+
+    /**
+     * Returns the number of run files written so far.
+     *
+     * @return the number of runs spilled to disk
+     */
+    public int getRunCount() {
+        return this.runs.size();
+    }
+
+    /**
+     * Passes every household to the consumer, in address order.
+     *
+     * @param consumer the consumer of the households
+     * @throws IOException if a run file cannot be read or written
+     */
+    public void forEachHousehold(HouseholdConsumer consumer) throws IOException {
+        if (this.runs.isEmpty()) {
+            this.buffer.sort(ORDER);
+            groupHouseholds(new ListSource(this.buffer), consumer);
+            return;
+        }
+
+        spill();
+        while (this.runs.size() > MAX_MERGE_WIDTH) {
+            List<Run> merged = new ArrayList<>(this.runs.subList(0, MAX_MERGE_WIDTH));
+            Run run = newRun();
+            try (MergeSource source = new MergeSource(merged, ioBufferSize(merged.size() + 1));
+                 DataOutputStream out = run.openOutput(ioBufferSize(merged.size() + 1))) {
+                for (Resident resident = source.next(); resident != null; resident = source.next()) {
+                    resident.write(out);
+                    run.count++;
+                }
+            }
+            for (Run mergedRun : merged) {
+                Files.deleteIfExists(mergedRun.path);
+            }
+            // The merged run was appended by newRun
+            this.runs.subList(0, MAX_MERGE_WIDTH).clear();
+        }
+
+        try (MergeSource source = new MergeSource(this.runs, ioBufferSize(this.runs.size()))) {
+            groupHouseholds(source, consumer);
+        }
+    }
+
+    /**
+     * Deletes every run file.
+     *
+     * @throws IOException if a run file cannot be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        for (Run run : this.runs) {
+            Files.deleteIfExists(run.path);
+        }
+        this.runs.clear();
+        this.buffer.clear();
+    }
+
+    private void spill() throws IOException {
+        if (this.buffer.isEmpty()) {
+            return;
+        }
+
+        this.buffer.sort(ORDER);
+        Run run = newRun();
+        try (DataOutputStream out = run.openOutput(MAX_IO_BUFFER_SIZE)) {
+            for (Resident resident : this.buffer) {
+                resident.write(out);
+            }
+        }
+        run.count = this.buffer.size();
+        this.buffer.clear();
+        this.bufferedBytes = 0;
+    }
+
+    private Run newRun() throws IOException {
+        Run run = new Run(Files.createTempFile(this.tempDir, "households-", ".run"));
+        this.runs.add(run);
+        return run;
+    }
+
+    /**
+     * Splits the memory budget between the buffers of the given number of open files.
+     */
+    private int ioBufferSize(int files) {
+        return (int) Math.max(MIN_IO_BUFFER_SIZE, Math.min(MAX_IO_BUFFER_SIZE, this.memoryBudget / files));
+    }
+
+    private static void groupHouseholds(ResidentSource source, HouseholdConsumer consumer) throws IOException {
+        Resident resident = source.next();
+        while (resident != null) {
+            Address address = resident.getAddress();
+            int occupants = 0;
+            List<Resident> adults = new ArrayList<>();
+            while (resident != null && resident.getAddress().equals(address)) {
+                occupants++;
+                if (Household.isAdult(resident)) {
+                    adults.add(resident);
+                }
+                resident = source.next();
+            }
+            consumer.accept(address, occupants, adults);
+        }
+    }
+
+    /**
+     * Receives the households of a sorter, in address order.
+     */
+    public interface HouseholdConsumer {
+        /**
+         * Receives one household.
+         *
+         * @param address      the address of the household
+         * @param occupants    the number of residents of the household, including minors
+         * @param sortedAdults the adults of the household, in their natural order
+         * @throws IOException if the household cannot be consumed
+         */
+        void accept(Address address, int occupants, List<Resident> sortedAdults) throws IOException;
+    }
+
+    /**
+     * A run file of residents in {@link #ORDER}.
+     */
+    private static class Run {
+        private final Path path;
+        private long count;
+
+        private Run(Path path) {
+            this.path = path;
+        }
+
+        private DataOutputStream openOutput(int bufferSize) throws IOException {
+            return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(this.path), bufferSize));
+        }
+    }
+
+    /**
+     * Residents in {@link #ORDER}, one at a time.
+     */
+    private interface ResidentSource {
+        /**
+         * Returns the next resident, or <code>null</code> if none remain.
+         */
+        Resident next() throws IOException;
+    }
+
+    private static class ListSource implements ResidentSource {
+        private final List<Resident> residents;
+        private int next;
+
+        private ListSource(List<Resident> residents) {
+            this.residents = residents;
+        }
+
+        @Override
+        public Resident next() {
+            return this.next < this.residents.size() ? this.residents.get(this.next++) : null;
+        }
+    }
+
+    /**
+     * Merges runs, taking equal residents from earlier runs first.
+     */
+    private static class MergeSource implements ResidentSource, Closeable {
+        private final List<RunReader> readers = new ArrayList<>();
+        private final PriorityQueue<RunReader> heads = new PriorityQueue<>(
+                Comparator.comparing((RunReader reader) -> reader.head, ORDER)
+                        .thenComparingInt(reader -> reader.index));
+
+        private MergeSource(List<Run> runs, int bufferSize) throws IOException {
+            try {
+                for (Run run : runs) {
+                    RunReader reader = new RunReader(run, this.readers.size(), bufferSize);
+                    this.readers.add(reader);
+                    if (reader.advance()) {
+                        this.heads.add(reader);
+                    }
+                }
+            } catch (IOException ioe) {
+                close();
+                throw ioe;
+            }
+        }
+
+        @Override
+        public Resident next() throws IOException {
+            RunReader reader = this.heads.poll();
+            if (reader == null) {
+                return null;
+            }
+            Resident res = reader.head;
+            if (reader.advance()) {
+                this.heads.add(reader);
+            }
+            return res;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (RunReader reader : this.readers) {
+                reader.in.close();
+            }
+        }
+    }
+
+    private static class RunReader {
+        private final DataInputStream in;
+        private final int index;
+        private long remaining;
+        private Resident head;
+
+        private RunReader(Run run, int index, int bufferSize) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run.path), bufferSize));
+            this.index = index;
+            this.remaining = run.count;
+        }
+
+        private boolean advance() throws IOException {
+            if (this.remaining == 0) {
+                this.head = null;
+                return false;
+            }
+            this.remaining--;
+            this.head = Resident.read(this.in);
+            return true;
+        }
+    }
+}
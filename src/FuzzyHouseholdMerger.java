@@ -0,0 +1,376 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Merges households whose addresses are near-duplicates, such as a misspelled street or city, into one household.
+ *
+ * <p>Comparing every pair of addresses would take quadratic time, so addresses are first grouped into blocks that
+ * share a blocking key, and only addresses in the same block are compared. Two keys are used, so that a typo in one
+ * part of the address does not keep it out of every block of its duplicates:
+ * <ul>
+ *     <li>state, city and house number, catching differences in the street</li>
+ *     <li>state, street and house number, catching differences in the city</li>
+ * </ul>
+ *
+ * <p>Two addresses in a block match if they have the same apartment (or both have none), and both their streets and
+ * their cities are at least as similar as the threshold. Streets and cities are compared word by word: they must have
+ * as many words, words holding a digit (house numbers and numbered streets such as <code>142nd</code>) and
+ * directions (such as <code>N</code> or <code>North</code>) must be the same, and similarity is then one minus the
+ * edit distance between the other words (counting a transposition as one edit) divided by the length of the longer
+ * spelling of every word. So <code>123 Mian St</code> matches <code>123 Main St</code>, but <code>100 N Main St</code>
+ * does not match <code>100 S Main St</code>, nor <code>100 W 142nd St</code> match <code>100 W 143rd St</code>.
+ *
+ * <p>Matches are transitive, so chains of matching addresses merge into one household, kept at the address of its
+ * member with the most occupants. Between members with as many occupants, the one whose city and street spellings
+ * are the most common among every household is kept, as a misspelling is usually rarer than the spelling it
+ * misspells; then the first in address order.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class FuzzyHouseholdMerger {
+    /**
+     * Similarity threshold used when none is configured.
+     */
+    public static final double DEFAULT_THRESHOLD = 0.85;
+    /**
+     * Blocks larger than this are not compared, to bound the work done on a degenerate key, such as streets without a
+     * house number.
+     */
+    static final int MAX_BLOCK_SIZE = 1000;
+    /**
+     * Blocking keys, each mapping an address to the key of its block.
+     */
+    private static final List<Function<Address, String>> BLOCKING_KEYS = List.of(
+            address -> address.getState() + '\n' + address.getCity() + '\n' + houseNumber(address.getStreet()),
+            address -> address.getState() + '\n' + address.getStreet() + '\n' + houseNumber(address.getStreet()));
+    /**
+     * Directions written in full, mapped to their abbreviation, which maps to itself.
+     */
+    private static final Map<String, String> DIRECTIONS = Map.ofEntries(
+            Map.entry("N", "N"), Map.entry("S", "S"), Map.entry("E", "E"), Map.entry("W", "W"),
+            Map.entry("NE", "NE"), Map.entry("NW", "NW"), Map.entry("SE", "SE"), Map.entry("SW", "SW"),
+            Map.entry("NORTH", "N"), Map.entry("SOUTH", "S"), Map.entry("EAST", "E"), Map.entry("WEST", "W"),
+            Map.entry("NORTHEAST", "NE"), Map.entry("NORTHWEST", "NW"), Map.entry("SOUTHEAST", "SE"),
+            Map.entry("SOUTHWEST", "SW"));
+
+    private final double threshold;
+
+    /**
+     * Creates a merger.
+     *
+     * @param threshold the minimum similarity, above 0 and at most 1, of the streets and of the cities of addresses
+     *                  that are merged
+     * @throws IllegalArgumentException if the threshold is out of range
+     */
+    public FuzzyHouseholdMerger(double threshold) {
+        if (!(threshold > 0 && threshold <= 1)) {
+            throw new IllegalArgumentException("Threshold must be above 0 and at most 1");
+        }
+        this.threshold = threshold;
+    }
+
+    /**
+     * Merges the near-duplicate households of an index into a new index.
+     *
+     * @param households the households to merge; left unchanged
+     * @return the merged households, and which addresses were merged
+     */
+    public Result merge(HouseholdIndex households) {
+        List<Household> sorted = households.getHouseholds();
+        int[] parents = new int[sorted.size()];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+        }
+
+        int skippedBlocks = 0;
+        for (Function<Address, String> blockingKey : BLOCKING_KEYS) {
+            Map<String, List<Integer>> blocks = new HashMap<>();
+            for (int i = 0; i < sorted.size(); i++) {
+                blocks.computeIfAbsent(blockingKey.apply(sorted.get(i).getAddress()), key -> new ArrayList<>()).add(i);
+            }
+
+            for (List<Integer> block : blocks.values()) {
+                if (block.size() > MAX_BLOCK_SIZE) {
+                    skippedBlocks++;
+                    continue;
+                }
+                for (int i = 0; i < block.size(); i++) {
+                    for (int j = i + 1; j < block.size(); j++) {
+                        int first = block.get(i);
+                        int second = block.get(j);
+                        if (find(parents, first) != find(parents, second)
+                                && matches(sorted.get(first).getAddress(), sorted.get(second).getAddress())) {
+                            parents[find(parents, second)] = find(parents, first);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Clusters in the address order of their first member, so the result does not depend on hash order
+        Map<Integer, List<Household>> clusters = new LinkedHashMap<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            clusters.computeIfAbsent(find(parents, i), root -> new ArrayList<>()).add(sorted.get(i));
+        }
+
+        Map<String, Integer> spellings = new HashMap<>();
+        for (Household household : sorted) {
+            for (String spelling : spellings(household.getAddress())) {
+                spellings.merge(spelling, 1, Integer::sum);
+            }
+        }
+
+        HouseholdIndex merged = new HouseholdIndex(households.isRetainingMinors());
+        List<Merge> merges = new ArrayList<>();
+        for (List<Household> cluster : clusters.values()) {
+            Household canonical = cluster.get(0);
+            for (Household household : cluster) {
+                if (household.getOccupants() > canonical.getOccupants()
+                        || household.getOccupants() == canonical.getOccupants()
+                        && spellingCount(spellings, household) > spellingCount(spellings, canonical)) {
+                    canonical = household;
+                }
+            }
+
+            List<Address> others = new ArrayList<>(cluster.size() - 1);
+            for (Household household : cluster) {
+                merged.addAll(household, canonical.getAddress());
+                if (household != canonical) {
+                    others.add(household.getAddress());
+                }
+            }
+            if (!others.isEmpty()) {
+                merges.add(new Merge(canonical.getAddress(), others));
+            }
+        }
+        return new Result(merged, merges, skippedBlocks);
+    }
+
+    private boolean matches(Address first, Address second) {
+        return first.getState().equals(second.getState())
+                && Objects.equals(first.getApartment(), second.getApartment())
+                && wordSimilarity(first.getStreet(), second.getStreet()) >= this.threshold
+                && wordSimilarity(first.getCity(), second.getCity()) >= this.threshold;
+    }
+
+    /**
+     * Returns the keys counting how common the city and street spellings of an address are.
+     */
+    private static List<String> spellings(Address address) {
+        String street = address.getStreet();
+        String streetName = street.substring(houseNumber(street).length()).trim();
+        return List.of(address.getState() + '\n' + address.getCity(),
+                address.getState() + '\n' + address.getCity() + '\n' + streetName);
+    }
+
+    private static int spellingCount(Map<String, Integer> spellings, Household household) {
+        int res = 0;
+        for (String spelling : spellings(household.getAddress())) {
+            res += spellings.get(spelling);
+        }
+        return res;
+    }
+
+    private static int find(int[] parents, int node) {
+        int root = node;
+        while (parents[root] != root) {
+            root = parents[root];
+        }
+        // Path compression
+        while (parents[node] != root) {
+            int next = parents[node];
+            parents[node] = root;
+            node = next;
+        }
+        return root;
+    }
+
+    /**
+     * Returns the leading house number of a street, or an empty string if it does not start with a digit.
+     */
+    static String houseNumber(String street) {
+        int end = 0;
+        while (end < street.length() && !Character.isWhitespace(street.charAt(end))) {
+            end++;
+        }
+        return end > 0 && Character.isDigit(street.charAt(0)) ? street.substring(0, end) : "";
+    }
+
+    /**
+     * Returns how similar two strings are word by word: 0 if they have different numbers of words, or words holding a
+     * digit or naming a direction that differ, and otherwise one minus the edit distance between their other words
+     * divided by the length of the longer spelling of every word.
+     *
+     * @param first  a string
+     * @param second another string
+     * @return the similarity, from 0 for nothing in common to 1 for equal strings
+     */
+    static double wordSimilarity(String first, String second) {
+        String[] firstWords = first.trim().split("\\s+");
+        String[] secondWords = second.trim().split("\\s+");
+        if (firstWords.length != secondWords.length) {
+            return 0;
+        }
+
+        int length = 0;
+        int distance = 0;
+        for (int i = 0; i < firstWords.length; i++) {
+            String firstWord = firstWords[i];
+            String secondWord = secondWords[i];
+            length += Math.max(firstWord.length(), secondWord.length());
+            String firstDirection = DIRECTIONS.get(firstWord.toUpperCase(Locale.ROOT));
+            String secondDirection = DIRECTIONS.get(secondWord.toUpperCase(Locale.ROOT));
+            if (firstDirection != null || secondDirection != null) {
+                if (!Objects.equals(firstDirection, secondDirection)) {
+                    return 0;
+                }
+            } else if (hasDigit(firstWord) || hasDigit(secondWord)) {
+                if (!firstWord.equalsIgnoreCase(secondWord)) {
+                    return 0;
+                }
+            } else {
+                distance += distance(firstWord, secondWord);
+            }
+        }
+        return length == 0 ? 1 : 1 - (double) distance / length;
+    }
+
+    private static boolean hasDigit(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.isDigit(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of insertions, deletions, substitutions and transpositions of adjacent characters needed to
+     * turn one string into another, without editing any substring twice.
+     *
+     * @param first  a string
+     * @param second another string
+     * @return the optimal string alignment distance between the strings
+     */
+    static int distance(String first, String second) {
+        int[] previous2 = new int[second.length() + 1];
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= second.length(); j++) {
+                int cost = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && first.charAt(i - 1) == second.charAt(j - 2)
+                        && first.charAt(i - 2) == second.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previous2[j - 2] + 1);
+                }
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[second.length()];
+    }
+
+    /**
+     * Near-duplicate addresses merged into the household at one of them.
+     */
+    public static final class Merge {
+        private final Address canonical;
+        private final List<Address> merged;
+
+        Merge(Address canonical, List<Address> merged) {
+            this.canonical = canonical;
+            this.merged = Collections.unmodifiableList(merged);
+        }
+
+        /**
+         * Returns the address the households were merged into.
+         *
+         * @return the address of the merged household
+         */
+        public Address getCanonical() {
+            return this.canonical;
+        }
+
+        /**
+         * Returns the addresses merged into the canonical one.
+         *
+         * @return an unmodifiable list of the other addresses, in address order
+         */
+        public List<Address> getMerged() {
+            return this.merged;
+        }
+
+        /**
+         * Returns a summary of the merge.
+         *
+         * @return the merged addresses and the address they were merged into
+         */
+        @Override
+        public String toString() {
+            StringBuilder res = new StringBuilder("Merged ");
+            for (int i = 0; i < this.merged.size(); i++) {
+                res.append(i == 0 ? "" : "; ").append(this.merged.get(i));
+            }
+            return res.append(" into ").append(this.canonical).toString();
+        }
+    }
+
+    /**
+     * Households after merging, with the merges made.
+     */
+    public static final class Result {
+        private final HouseholdIndex households;
+        private final List<Merge> merges;
+        private final int skippedBlocks;
+
+        Result(HouseholdIndex households, List<Merge> merges, int skippedBlocks) {
+            this.households = households;
+            this.merges = Collections.unmodifiableList(merges);
+            this.skippedBlocks = skippedBlocks;
+        }
+
+        /**
+         * Returns the merged households.
+         *
+         * @return the households, with every near-duplicate merged
+         */
+        public HouseholdIndex getHouseholds() {
+            return this.households;
+        }
+
+        /**
+         * Returns the merges made.
+         *
+         * @return an unmodifiable list of the merges, in address order of their first address
+         */
+        public List<Merge> getMerges() {
+            return this.merges;
+        }
+
+        /**
+         * Returns the number of blocks that were too large to compare.
+         *
+         * @return the number of blocks of more than {@value FuzzyHouseholdMerger#MAX_BLOCK_SIZE} addresses, which
+         *         were not compared
+         */
+        public int getSkippedBlocks() {
+            return this.skippedBlocks;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Represents a household: every resident sharing a single {@link Address}.
+ *
+ * <p>Only adults are ever listed in the household report, so by default a household keeps the adults and merely
+ * counts the minors. Households that must answer questions about every occupant can be created to retain minors too.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class Household {
+    /**
+     * Residents strictly older than this age are adults.
+     */
+    static final int ADULT_AGE = 18;
+
+    /**
+     * Address shared by every resident of the household.
+     */
+    private final Address address;
+    /**
+     * Whether minors are kept in {@link #residents}, or only counted.
+     */
+    private final boolean retainMinors;
+    /**
+     * Residents of the household, in the order they were added.
+     *
+     * <p>Holds only the adults unless {@link #retainMinors} is set.
+     */
+    private final List<Resident> residents;
+    /**
+     * Number of residents added to the household, adults and minors alike.
+     */
+    private int occupants;
+    /**
+     * Adults of the household in their natural order, or <code>null</code> if not sorted since the last change.
+     */
+    private volatile List<Resident> sortedAdults;
+
+    /**
+     * Creates an empty household.
+     *
+     * @param address      the address of the household
+     * @param retainMinors <code>true</code> to keep minors as well as adults, <code>false</code> to only count them
+     */
+    public Household(Address address, boolean retainMinors) {
+        this.address = address;
+        this.retainMinors = retainMinors;
+        this.residents = new ArrayList<>();
+        this.occupants = 0;
+    }
+
+    /**
+     * Returns whether the given resident is an adult, and so listed in the household report.
+     *
+     * @param resident the resident to check
+     * @return <code>true</code> iff the resident is older than {@value #ADULT_AGE}
+     */
+    static boolean isAdult(Resident resident) {
+        return resident.getAge() > ADULT_AGE;
+    }
+
+    /**
+     * Adds a resident to the household.
+     *
+     * @param resident the resident to add, who must live at this household's address
+     */
+    public void add(Resident resident) {
+        this.occupants++;
+        if (this.retainMinors || isAdult(resident)) {
+            this.residents.add(resident);
+            this.sortedAdults = null;
+        }
+    }
+
+    /**
+     * Adds every resident of another household at the same address to this one, after the residents already here.
+     *
+     * @param other the household to merge into this one
+     */
+    public void addAll(Household other) {
+        if (this.retainMinors && !other.retainMinors) {
+            throw new IllegalArgumentException("Cannot merge a household that did not retain its minors");
+        }
+        this.occupants += other.occupants;
+        this.residents.addAll(this.retainMinors ? other.residents : other.getAdults());
+        this.sortedAdults = null;
+    }
+
+    /**
+     * Returns the household's address.
+     *
+     * @return the address of the household
+     */
+    public Address getAddress() {
+        return this.address;
+    }
+
+    /**
+     * Returns the number of occupants of the household, adults and minors alike.
+     *
+     * @return the number of occupants
+     */
+    public int getOccupants() {
+        return this.occupants;
+    }
+
+    /**
+     * Returns the adults of the household, in the order they were added.
+     *
+     * @return an unmodifiable list of the adults of the household
+     */
+    public List<Resident> getAdults() {
+        if (this.retainMinors) {
+            return this.residents.stream()
+                    .filter(Household::isAdult)
+                    .collect(Collectors.toUnmodifiableList());
+        }
+        return Collections.unmodifiableList(this.residents);
+    }
+
+    /**
+     * Returns the adults of the household in their natural order, which is the order they are listed in the report.
+     * They are sorted once, when first asked for after a change.
+     *
+     * @return an unmodifiable list of the adults of the household, in order
+     */
+    public List<Resident> getSortedAdults() {
+        List<Resident> res = this.sortedAdults;
+        if (res == null) {
+            List<Resident> adults = new ArrayList<>(getAdults());
+            adults.sort(null);
+            res = Collections.unmodifiableList(adults);
+            this.sortedAdults = res;
+        }
+        return res;
+    }
+
+    /**
+     * Returns every resident of the household, in the order they were added.
+     *
+     * @return an unmodifiable list of the residents of the household
+     * @throws IllegalStateException if the household was created without retaining minors
+     */
+    public List<Resident> getResidents() {
+        if (!this.retainMinors) {
+            throw new IllegalStateException("Household only retains its adults");
+        }
+        return Collections.unmodifiableList(this.residents);
+    }
+}
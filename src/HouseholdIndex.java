@@ -0,0 +1,295 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Incrementally built index of households, keyed and ordered by {@link Address}.
+ *
+ * <p>Residents are folded into their household as soon as they are parsed, so the input never has to be held in
+ * memory as a whole. With minors only counted, memory depends on the number of households and adults rather than on
+ * the number of input lines.
+ *
+ * <p>Households are grouped in a hash map in a single pass, and only sorted into address order when they are listed.
+ *
+ * <p>Secondary indexes, of residents by last name and of households by state and city, are only needed to answer
+ * lookups, so adding residents does not maintain them. They are built in one pass over the households on the first
+ * lookup, and built again on the first lookup after a change. Each lookup sorts only its own results, once, so
+ * repeated lookups cost no more than the size of their results.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class HouseholdIndex {
+    /**
+     * Households by address, in no particular order.
+     */
+    private final Map<Address, Household> households;
+    /**
+     * Whether households created by this index retain their minors.
+     */
+    private final boolean retainMinors;
+    /**
+     * Households in address order, or <code>null</code> if not yet sorted. Households are never removed, so the list
+     * is out of date whenever its size differs from the number of households.
+     */
+    private List<Household> sortedHouseholds;
+    /**
+     * Secondary indexes, or <code>null</code> if not built since the last change.
+     */
+    private SecondaryIndexes indexes;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param retainMinors <code>true</code> to keep minors as well as adults, <code>false</code> to only count them
+     */
+    public HouseholdIndex(boolean retainMinors) {
+        this(new HashMap<>(), retainMinors);
+    }
+
+    /**
+     * Creates an empty index over the given map.
+     *
+     * @param households   the empty map to hold households by address
+     * @param retainMinors <code>true</code> to keep minors as well as adults, <code>false</code> to only count them
+     */
+    HouseholdIndex(Map<Address, Household> households, boolean retainMinors) {
+        this.households = households;
+        this.retainMinors = retainMinors;
+    }
+
+    /**
+     * Adds a resident to the household at their address, creating the household if needed.
+     *
+     * @param resident the resident to add
+     */
+    public void add(Resident resident) {
+        Address address = resident.getAddress();
+        Household household = this.households.get(address);
+        if (household == null) {
+            household = newHousehold(address);
+            this.households.put(address, household);
+        }
+        household.add(resident);
+        invalidateIndexes();
+    }
+
+    /**
+     * Merges every household of another index into this one. Residents of the other index are placed after the
+     * residents already held for the same address.
+     *
+     * @param other the index to merge into this one
+     */
+    public void addAll(HouseholdIndex other) {
+        for (Household household : other.households.values()) {
+            addAll(household, household.getAddress());
+        }
+    }
+
+    /**
+     * Merges the residents of a household into the household at the given address, which need not be the merged
+     * household's own, creating it if needed. Residents are placed after the residents already held there.
+     *
+     * @param household the household to merge into this index
+     * @param address   the address of the household to merge it into
+     */
+    void addAll(Household household, Address address) {
+        Household existing = this.households.get(address);
+        if (existing == null) {
+            existing = newHousehold(address);
+            this.households.put(address, existing);
+        }
+        existing.addAll(household);
+        invalidateIndexes();
+    }
+
+    /**
+     * Returns the residents with a last name.
+     *
+     * @param lastName the last name, in any case
+     * @return an unmodifiable list of the residents with the last name, in their natural order; only adults unless
+     * this index retains minors
+     */
+    public List<Resident> getResidentsByLastName(String lastName) {
+        SortedBucket<Resident> residents = getIndexes().residentsByLastName.get(lastName);
+        return residents == null ? List.of() : residents.sorted(Comparator.naturalOrder());
+    }
+
+    /**
+     * Returns the households in a city.
+     *
+     * @param state the normalized state, such as <code>WA</code>
+     * @param city  the normalized city, such as <code>Seattle</code>
+     * @return an unmodifiable list of the households in the city, in address order
+     */
+    public List<Household> getHouseholdsIn(String state, String city) {
+        SortedBucket<Household> households = getIndexes().householdsByPlace.getOrDefault(state, Map.of()).get(city);
+        return households == null ? List.of() : households.sorted(Comparator.comparing(Household::getAddress));
+    }
+
+    /**
+     * Returns the households in a state.
+     *
+     * @param state the normalized state, such as <code>WA</code>
+     * @return the households in the state, in address order
+     */
+    public List<Household> getHouseholdsIn(String state) {
+        // Addresses order by state before city, so only the cities need sorting
+        List<String> cities = new ArrayList<>(getIndexes().householdsByPlace.getOrDefault(state, Map.of()).keySet());
+        cities.sort(null);
+        List<Household> res = new ArrayList<>();
+        for (String city : cities) {
+            res.addAll(getHouseholdsIn(state, city));
+        }
+        return res;
+    }
+
+    /**
+     * Drops the secondary indexes after a change. Only reads the field while they are not built, so producers adding
+     * at once do not contend on it.
+     */
+    void invalidateIndexes() {
+        if (this.indexes != null) {
+            this.indexes = null;
+        }
+    }
+
+    /**
+     * Returns the secondary indexes, building them if they are not up to date.
+     */
+    private synchronized SecondaryIndexes getIndexes() {
+        if (this.indexes == null) {
+            SecondaryIndexes res = new SecondaryIndexes();
+            for (Household household : this.households.values()) {
+                Address address = household.getAddress();
+                res.householdsByPlace.computeIfAbsent(address.getState(), state -> new HashMap<>())
+                        .computeIfAbsent(address.getCity(), city -> new SortedBucket<>())
+                        .add(household);
+                for (Resident resident : this.retainMinors ? household.getResidents() : household.getAdults()) {
+                    res.residentsByLastName.computeIfAbsent(resident.getLastName(), name -> new SortedBucket<>())
+                            .add(resident);
+                }
+            }
+            this.indexes = res;
+        }
+        return this.indexes;
+    }
+
+    /**
+     * Returns the households in the index, in address order.
+     *
+     * @return an unmodifiable list of the households
+     */
+    public List<Household> getHouseholds() {
+        if (this.sortedHouseholds == null || this.sortedHouseholds.size() != this.households.size()) {
+            List<Household> sorted = new ArrayList<>(this.households.values());
+            sorted.sort(Comparator.comparing(Household::getAddress));
+            this.sortedHouseholds = Collections.unmodifiableList(sorted);
+        }
+        return this.sortedHouseholds;
+    }
+
+    /**
+     * Returns the household at the given address.
+     *
+     * @param address the address of the household
+     * @return the household, or <code>null</code> if no resident lives at the address
+     */
+    public Household getHousehold(Address address) {
+        return this.households.get(address);
+    }
+
+    /**
+     * Returns the number of households in the index.
+     *
+     * @return the number of households
+     */
+    public int size() {
+        return this.households.size();
+    }
+
+    /**
+     * Returns the number of residents added to the index.
+     *
+     * @return the number of residents, including minors
+     */
+    public long getResidentCount() {
+        long res = 0;
+        for (Household household : this.households.values()) {
+            res += household.getOccupants();
+        }
+        return res;
+    }
+
+    /**
+     * Returns whether the index holds no households.
+     *
+     * @return <code>true</code> iff no resident has been added
+     */
+    public boolean isEmpty() {
+        return this.households.isEmpty();
+    }
+
+    /**
+     * Returns whether households created by this index retain their minors.
+     *
+     * @return <code>true</code> iff minors are kept as well as adults
+     */
+    boolean isRetainingMinors() {
+        return this.retainMinors;
+    }
+
+    /**
+     * Creates an empty household for this index.
+     *
+     * @param address the address of the household
+     * @return the household
+     */
+    Household newHousehold(Address address) {
+        return new Household(address, this.retainMinors);
+    }
+
+    /**
+     * Lookups by something other than address.
+     */
+    private static final class SecondaryIndexes {
+        /**
+         * Residents retained by their households, by last name, ignoring case.
+         */
+        private final Map<String, SortedBucket<Resident>> residentsByLastName =
+                new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        /**
+         * Households by state, then by city.
+         */
+        private final Map<String, Map<String, SortedBucket<Household>>> householdsByPlace = new HashMap<>();
+    }
+
+    /**
+     * Items that are sorted, once, when first listed after a change.
+     */
+    private static final class SortedBucket<T> {
+        private final List<T> items = new ArrayList<>();
+        /**
+         * Items in order, or <code>null</code> if not sorted since the last change.
+         */
+        private List<T> sorted;
+
+        synchronized void add(T item) {
+            this.items.add(item);
+            this.sorted = null;
+        }
+
+        synchronized List<T> sorted(Comparator<? super T> order) {
+            if (this.sorted == null) {
+                List<T> res = new ArrayList<>(this.items);
+                res.sort(order);
+                this.sorted = Collections.unmodifiableList(res);
+            }
+            return this.sorted;
+        }
+    }
+}
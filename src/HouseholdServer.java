@@ -0,0 +1,282 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Long-lived HTTP server answering queries over households loaded once, so small lookups do not pay for starting the
+ * JVM and parsing the input every time.
+ *
+ * <p>Every endpoint answers <code>GET</code> requests with UTF-8 plain text:
+ * <ul>
+ *     <li><code>/household?street=S&amp;city=C&amp;state=T</code>: the household at an address, normalized as in
+ *     the input, in report format</li>
+ *     <li><code>/households?state=T&amp;city=C</code>: the households in a state, or in a city of it, normalized as
+ *     in the input, in report format</li>
+ *     <li><code>/residents?last=L&amp;first=F</code>: the adults with a last name, first name or both (ignoring
+ *     case), one per line in their natural order</li>
+ *     <li><code>/report</code>: the full report</li>
+ *     <li><code>/metrics</code>: latency histograms of each endpoint, in the Prometheus text format</li>
+ * </ul>
+ *
+ * <p>Lookups by address, place and last name use the indexes of the {@link HouseholdIndex}, so cost no more than the
+ * size of their results; lookups by first name alone scan every household.
+ *
+ * <p>Requests are handled on virtual threads where the JVM has them, and on a cached pool of platform threads
+ * otherwise. The households must not be changed while the server is running.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class HouseholdServer {
+    /**
+     * Port used when none is configured.
+     */
+    public static final int DEFAULT_PORT = 8080;
+    private static final String HOUSEHOLD_PATH = "/household";
+    private static final String HOUSEHOLDS_PATH = "/households";
+    private static final String RESIDENTS_PATH = "/residents";
+    private static final String REPORT_PATH = "/report";
+    private static final String METRICS_PATH = "/metrics";
+
+    private final HouseholdIndex households;
+    private final AddressCache addressCache;
+    /**
+     * Latencies of each endpoint, by path.
+     */
+    private final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Creates a server over the given households.
+     *
+     * @param households   the households to answer queries about
+     * @param addressCache the cache used to normalize queried addresses
+     */
+    public HouseholdServer(HouseholdIndex households, AddressCache addressCache) {
+        this.households = households;
+        this.addressCache = addressCache;
+        for (String path : new String[]{HOUSEHOLD_PATH, HOUSEHOLDS_PATH, RESIDENTS_PATH, REPORT_PATH, METRICS_PATH}) {
+            this.latencies.put(path, new LatencyHistogram());
+        }
+        // Sorts the households now, as listing them for the first time is not safe from several threads at once
+        households.getHouseholds();
+    }
+
+    /**
+     * Starts answering requests.
+     *
+     * @param address the address to listen on; port 0 picks a free port
+     * @return the address the server listens on
+     * @throws IOException           if the server cannot listen on the address
+     * @throws IllegalStateException if the server has already been started
+     */
+    public synchronized InetSocketAddress start(InetSocketAddress address) throws IOException {
+        if (this.server != null) {
+            throw new IllegalStateException("Server already started");
+        }
+
+        HttpServer server = HttpServer.create(address, 0);
+        server.createContext(HOUSEHOLD_PATH, exchange -> handle(exchange, HOUSEHOLD_PATH, this::household));
+        server.createContext(HOUSEHOLDS_PATH, exchange -> handle(exchange, HOUSEHOLDS_PATH, this::households));
+        server.createContext(RESIDENTS_PATH, exchange -> handle(exchange, RESIDENTS_PATH, this::residents));
+        server.createContext(REPORT_PATH, exchange -> handle(exchange, REPORT_PATH, this::report));
+        server.createContext(METRICS_PATH, exchange -> handle(exchange, METRICS_PATH, this::metrics));
+        this.executor = VirtualThreads.newExecutor("household-server");
+        server.setExecutor(this.executor);
+        server.start();
+        this.server = server;
+        return server.getAddress();
+    }
+
+    /**
+     * Stops answering requests, waiting up to a second for requests being handled to finish.
+     */
+    public synchronized void stop() {
+        if (this.server != null) {
+            this.server.stop(1);
+            this.executor.shutdown();
+            this.server = null;
+        }
+    }
+
+    /**
+     * Returns the latencies of an endpoint.
+     *
+     * @param path the path of the endpoint, such as <code>/report</code>
+     * @return the histogram of the endpoint's latencies, or <code>null</code> if there is no such endpoint
+     */
+    public LatencyHistogram getLatencies(String path) {
+        return this.latencies.get(path);
+    }
+
+    /**
+     * Answers a request to an endpoint.
+     */
+    private interface Endpoint {
+        /**
+         * Writes the response body, returning the status code; the body is discarded unless the status is 200.
+         */
+        int respond(Map<String, String> query, ReportWriter out) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, String path, Endpoint endpoint) throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                sendText(exchange, 405, "Only GET is supported\n");
+                return;
+            }
+            if (!path.equals(exchange.getRequestURI().getPath())) {
+                sendText(exchange, 404, "No such endpoint\n");
+                return;
+            }
+
+            Map<String, String> query;
+            try {
+                query = parseQuery(exchange.getRequestURI().getRawQuery());
+            } catch (IllegalArgumentException iae) {
+                sendText(exchange, 400, iae.getMessage() + "\n");
+                return;
+            }
+
+            if (REPORT_PATH.equals(path) || METRICS_PATH.equals(path)) {
+                // Streamed as written, as the full report may be large
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                exchange.sendResponseHeaders(200, 0);
+                try (ReportWriter out = new ReportWriter(
+                        new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+                    endpoint.respond(query, out);
+                }
+                return;
+            }
+
+            StringWriter body = new StringWriter();
+            int status;
+            try (ReportWriter out = new ReportWriter(body)) {
+                status = endpoint.respond(query, out);
+            } catch (IllegalArgumentException iae) {
+                sendText(exchange, 400, iae.getMessage() + "\n");
+                return;
+            }
+            sendText(exchange, status, status == 200 ? body.toString() : "Not found\n");
+        } finally {
+            exchange.close();
+            this.latencies.get(path).record(System.nanoTime() - start);
+        }
+    }
+
+    private int household(Map<String, String> query, ReportWriter out) throws IOException {
+        Address address = this.addressCache.get(required(query, "street"), required(query, "city"),
+                required(query, "state"));
+        Household household = this.households.getHousehold(address);
+        if (household == null) {
+            return 404;
+        }
+        Solution.writeHousehold(household, out);
+        return 200;
+    }
+
+    private int residents(Map<String, String> query, ReportWriter out) throws IOException {
+        String first = query.get("first");
+        String last = query.get("last");
+        if (first == null && last == null) {
+            throw new IllegalArgumentException("Expected a first or last name");
+        }
+
+        List<Resident> matches;
+        if (last != null) {
+            matches = this.households.getResidentsByLastName(last);
+        } else {
+            matches = new ArrayList<>();
+            for (Household household : this.households.getHouseholds()) {
+                matches.addAll(household.getAdults());
+            }
+            matches.sort(null);
+        }
+        for (Resident resident : matches) {
+            if (first == null || first.equalsIgnoreCase(resident.getFirstName())) {
+                out.write(resident + "\n");
+            }
+        }
+        return 200;
+    }
+
+    private int households(Map<String, String> query, ReportWriter out) throws IOException {
+        AddressNormalizer normalizer = this.addressCache.getNormalizer();
+        String state = normalizer.normalizeState(required(query, "state"));
+        String city = query.get("city");
+        List<Household> households = city == null
+                ? this.households.getHouseholdsIn(state)
+                : this.households.getHouseholdsIn(state, normalizer.normalizeWords(city));
+        for (Household household : households) {
+            Solution.writeHousehold(household, out);
+        }
+        return 200;
+    }
+
+    private int report(Map<String, String> query, ReportWriter out) throws IOException {
+        Solution.writeHouseholds(this.households, out);
+        return 200;
+    }
+
+    private int metrics(Map<String, String> query, ReportWriter out) throws IOException {
+        StringWriter text = new StringWriter();
+        text.write("# HELP household_server_request_seconds Time taken to answer requests, by endpoint.\n");
+        text.write("# TYPE household_server_request_seconds histogram\n");
+        for (Map.Entry<String, LatencyHistogram> entry : this.latencies.entrySet()) {
+            entry.getValue().writePrometheus(text, "household_server_request_seconds",
+                    "endpoint=\"" + entry.getKey().substring(1) + "\"");
+        }
+        out.write(text.toString());
+        return 200;
+    }
+
+    private static String required(Map<String, String> query, String name) {
+        String res = query.get(name);
+        if (res == null) {
+            throw new IllegalArgumentException("Expected a " + name);
+        }
+        return res;
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    /**
+     * Decodes a raw query string into its parameters; the last value of a repeated parameter wins.
+     *
+     * @throws IllegalArgumentException if a parameter is not properly percent-encoded
+     */
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> res = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return res;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int eqIdx = parameter.indexOf('=');
+            String name = eqIdx < 0 ? parameter : parameter.substring(0, eqIdx);
+            String value = eqIdx < 0 ? "" : parameter.substring(eqIdx + 1);
+            res.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return res;
+    }
+}
@@ -0,0 +1,299 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary snapshot of a {@link HouseholdIndex}, memory-mapped when loaded so a report can be written without
+ * parsing or normalizing the input again.
+ *
+ * <p>A snapshot holds each household's normalized address and occupant count, and its adults in their natural
+ * order, with every name and address portion stored once in a string table. Minors are only counted.
+ *
+ * <p>Layout, with every number big-endian:
+ * <ul>
+ *     <li>header: magic number, format version, CRC-32 of the payload (long), payload length (long)</li>
+ *     <li>counts: strings, households, adults (ints)</li>
+ *     <li>string table: <code>strings + 1</code> offsets into the string bytes, then the UTF-8 string bytes</li>
+ *     <li>households, in address order: street, apartment (-1 if none), city and state string ids, occupant count,
+ *     index of the household's first adult</li>
+ *     <li>adults, grouped by household: first name and last name string ids, age</li>
+ * </ul>
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class HouseholdSnapshot {
+    /**
+     * Identifies a snapshot file; "HHSN" in ASCII.
+     */
+    static final int MAGIC = 0x4848534E;
+    /**
+     * Version of the format written.
+     */
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 2 * Integer.BYTES + 2 * Long.BYTES;
+    private static final int HOUSEHOLD_FIELDS = 6;
+    private static final int ADULT_FIELDS = 3;
+    private static final int NO_APARTMENT = -1;
+
+    private final ByteBuffer buffer;
+    private final int householdCount;
+    private final int adultCount;
+    private final int offsetsStart;
+    private final int stringsStart;
+    private final int householdsStart;
+    private final int adultsStart;
+    /**
+     * Strings decoded so far, by id.
+     */
+    private final String[] strings;
+
+    private HouseholdSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        int stringCount = buffer.getInt(HEADER_SIZE);
+        this.householdCount = buffer.getInt(HEADER_SIZE + Integer.BYTES);
+        this.adultCount = buffer.getInt(HEADER_SIZE + 2 * Integer.BYTES);
+        if (stringCount < 0 || this.householdCount < 0 || this.adultCount < 0) {
+            throw new IOException("Snapshot counts are negative");
+        }
+
+        this.offsetsStart = HEADER_SIZE + 3 * Integer.BYTES;
+        this.stringsStart = this.offsetsStart + (stringCount + 1) * Integer.BYTES;
+        this.householdsStart = this.stringsStart + buffer.getInt(this.offsetsStart + stringCount * Integer.BYTES);
+        this.adultsStart = this.householdsStart + this.householdCount * HOUSEHOLD_FIELDS * Integer.BYTES;
+        if ((long) this.adultsStart + (long) this.adultCount * ADULT_FIELDS * Integer.BYTES != buffer.limit()) {
+            throw new IOException("Snapshot sections do not match its length");
+        }
+        this.strings = new String[stringCount];
+    }
+
+    /**
+     * Writes a snapshot of the households to a file, replacing it if it exists.
+     *
+     * @param households the households to write
+     * @param path       the snapshot file
+     * @throws IOException if the file cannot be written, or the snapshot would be larger than 2 GiB
+     */
+    public static void write(HouseholdIndex households, Path path) throws IOException {
+        List<Household> sorted = households.getHouseholds();
+        ValueDictionary<String> strings = new ValueDictionary<>();
+        List<List<Resident>> sortedAdults = new ArrayList<>(sorted.size());
+        int adultCount = 0;
+        for (Household household : sorted) {
+            Address address = household.getAddress();
+            strings.encode(address.getStreet());
+            if (address.getApartment() != null) {
+                strings.encode(address.getApartment());
+            }
+            strings.encode(address.getCity());
+            strings.encode(address.getState());
+
+            List<Resident> adults = household.getSortedAdults();
+            for (Resident adult : adults) {
+                strings.encode(adult.getFirstName());
+                strings.encode(adult.getLastName());
+            }
+            sortedAdults.add(adults);
+            adultCount += adults.size();
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);
+            CheckedOutputStream checked = new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(strings.size());
+            out.writeInt(sorted.size());
+            out.writeInt(adultCount);
+
+            List<byte[]> encoded = new ArrayList<>(strings.size());
+            long offset = 0;
+            out.writeInt(0);
+            for (int id = 0; id < strings.size(); id++) {
+                byte[] bytes = strings.decode(id).getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                offset += bytes.length;
+                if (offset > Integer.MAX_VALUE) {
+                    throw new IOException("Snapshot string table is larger than 2 GiB");
+                }
+                out.writeInt((int) offset);
+            }
+            for (byte[] bytes : encoded) {
+                out.write(bytes);
+            }
+            int firstAdult = 0;
+            for (int i = 0; i < sorted.size(); i++) {
+                Address address = sorted.get(i).getAddress();
+                out.writeInt(strings.encode(address.getStreet()));
+                out.writeInt(address.getApartment() == null ? NO_APARTMENT : strings.encode(address.getApartment()));
+                out.writeInt(strings.encode(address.getCity()));
+                out.writeInt(strings.encode(address.getState()));
+                out.writeInt(sorted.get(i).getOccupants());
+                out.writeInt(firstAdult);
+                firstAdult += sortedAdults.get(i).size();
+            }
+            for (List<Resident> adults : sortedAdults) {
+                for (Resident adult : adults) {
+                    out.writeInt(strings.encode(adult.getFirstName()));
+                    out.writeInt(strings.encode(adult.getLastName()));
+                    out.writeInt(adult.getAge());
+                }
+            }
+            out.flush();
+            if (out.size() > Integer.MAX_VALUE - HEADER_SIZE) {
+                throw new IOException("Snapshot is larger than 2 GiB");
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(checked.getChecksum().getValue()).putLong(out.size());
+            header.flip();
+            channel.write(header, 0);
+        }
+    }
+
+    /**
+     * Memory-maps a snapshot file, checking its header and checksum.
+     *
+     * @param path the snapshot file
+     * @return the loaded snapshot
+     * @throws IOException if the file cannot be read, is not a snapshot of a supported version, is larger than
+     *                     2 GiB, or fails its checksum
+     */
+    public static HouseholdSnapshot load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is larger than 2 GiB");
+            }
+            if (size < HEADER_SIZE + 3 * Integer.BYTES) {
+                throw new IOException("Not a household snapshot");
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a household snapshot");
+            }
+            int version = buffer.getInt(Integer.BYTES);
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            long checksum = buffer.getLong(2 * Integer.BYTES);
+            long payloadLength = buffer.getLong(2 * Integer.BYTES + Long.BYTES);
+            if (payloadLength != size - HEADER_SIZE) {
+                throw new IOException("Snapshot is truncated");
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(HEADER_SIZE));
+            if (crc.getValue() != checksum) {
+                throw new IOException("Snapshot checksum does not match");
+            }
+            return new HouseholdSnapshot(buffer);
+        }
+    }
+
+    /**
+     * Returns the number of households.
+     *
+     * @return the number of households in the snapshot
+     */
+    public int size() {
+        return this.householdCount;
+    }
+
+    /**
+     * Returns the number of adults across every household.
+     *
+     * @return the number of adults in the snapshot
+     */
+    public int getAdultCount() {
+        return this.adultCount;
+    }
+
+    /**
+     * Returns the address of a household.
+     *
+     * @param household the position of the household in address order
+     * @return the address of the household
+     * @throws IndexOutOfBoundsException if there is no such household
+     */
+    public Address getAddress(int household) {
+        int record = householdRecord(household);
+        int apartment = this.buffer.getInt(record + Integer.BYTES);
+        return Address.ofNormalized(string(this.buffer.getInt(record)),
+                apartment == NO_APARTMENT ? null : string(apartment),
+                string(this.buffer.getInt(record + 2 * Integer.BYTES)),
+                string(this.buffer.getInt(record + 3 * Integer.BYTES)));
+    }
+
+    /**
+     * Returns the number of residents of a household, including minors.
+     *
+     * @param household the position of the household in address order
+     * @return the number of occupants of the household
+     * @throws IndexOutOfBoundsException if there is no such household
+     */
+    public int getOccupants(int household) {
+        return this.buffer.getInt(householdRecord(household) + 4 * Integer.BYTES);
+    }
+
+    /**
+     * Returns the adults of a household.
+     *
+     * @param household the position of the household in address order
+     * @return the adults of the household, in their natural order
+     * @throws IndexOutOfBoundsException if there is no such household
+     */
+    public List<Resident> getAdults(int household) {
+        return getAdults(household, getAddress(household));
+    }
+
+    List<Resident> getAdults(int household, Address address) {
+        int start = firstAdult(household);
+        int end = household + 1 == this.householdCount ? this.adultCount : firstAdult(household + 1);
+        List<Resident> res = new ArrayList<>(end - start);
+        for (int adult = start; adult < end; adult++) {
+            int record = this.adultsStart + adult * ADULT_FIELDS * Integer.BYTES;
+            res.add(new Resident(string(this.buffer.getInt(record)),
+                    string(this.buffer.getInt(record + Integer.BYTES)), address,
+                    this.buffer.getInt(record + 2 * Integer.BYTES)));
+        }
+        return res;
+    }
+
+    private int firstAdult(int household) {
+        return this.buffer.getInt(householdRecord(household) + 5 * Integer.BYTES);
+    }
+
+    private int householdRecord(int household) {
+        if (household < 0 || household >= this.householdCount) {
+            throw new IndexOutOfBoundsException("No household " + household);
+        }
+        return this.householdsStart + household * HOUSEHOLD_FIELDS * Integer.BYTES;
+    }
+
+    private String string(int id) {
+        String res = this.strings[id];
+        if (res == null) {
+            int start = this.buffer.getInt(this.offsetsStart + id * Integer.BYTES);
+            int end = this.buffer.getInt(this.offsetsStart + (id + 1) * Integer.BYTES);
+            byte[] bytes = new byte[end - start];
+            this.buffer.duplicate().position(this.stringsStart + start).get(bytes);
+            res = new String(bytes, StandardCharsets.UTF_8);
+            this.strings[id] = res;
+        }
+        return res;
+    }
+}
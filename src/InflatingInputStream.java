@@ -0,0 +1,236 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a gzip-compressed file, inflating it on a background thread so that inflating overlaps with whatever the
+ * reader does with the bytes.
+ *
+ * <p>The inflating thread writes into a ring buffer of {@value #RING_SIZE} bytes, waiting while it is full, and reads
+ * take bytes from it, waiting while it is empty. Bytes are copied in and out of the ring without holding its lock, so
+ * the two threads only contend to publish how far they have got. An error inflating the file, such as a truncated or
+ * corrupt file, is thrown by the read that reaches it.
+ *
+ * <p>Instances are meant for one reading thread.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class InflatingInputStream extends InputStream {
+    /**
+     * Size of the ring buffer between the inflating thread and the reader.
+     */
+    static final int RING_SIZE = 1 << 20;
+    /**
+     * Size of the buffers of compressed and inflated bytes of the inflating thread.
+     */
+    private static final int INFLATE_BUFFER_SIZE = 1 << 16;
+    private static final int GZIP_MAGIC_FIRST = 0x1f;
+    private static final int GZIP_MAGIC_SECOND = 0x8b;
+
+    private final byte[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = this.lock.newCondition();
+    private final Condition notFull = this.lock.newCondition();
+    /**
+     * Total number of bytes written into the ring by the inflating thread.
+     */
+    private long written;
+    /**
+     * Total number of bytes read from the ring.
+     */
+    private long read;
+    /**
+     * Whether the inflating thread has stopped, at the end of the file or on an error.
+     */
+    private boolean finished;
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * Opens a gzip-compressed file and starts inflating it.
+     *
+     * @param path the compressed file
+     * @throws IOException if the file cannot be read, or does not start with a gzip header
+     */
+    public InflatingInputStream(Path path) throws IOException {
+        this(path, RING_SIZE);
+    }
+
+    InflatingInputStream(Path path, int ringSize) throws IOException {
+        InputStream compressed = Files.newInputStream(path);
+        InputStream inflated;
+        try {
+            inflated = new GZIPInputStream(compressed, INFLATE_BUFFER_SIZE);
+        } catch (IOException ioe) {
+            compressed.close();
+            throw ioe;
+        }
+        this.ring = new byte[ringSize];
+        Thread inflater = new Thread(() -> inflate(inflated), "gzip-inflater");
+        inflater.setDaemon(true);
+        inflater.start();
+    }
+
+    /**
+     * Returns whether a file is gzip-compressed, judging by its first two bytes.
+     *
+     * @param path the file
+     * @return <code>true</code> iff the file starts with the gzip magic number
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isGzip(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.read() == GZIP_MAGIC_FIRST && in.read() == GZIP_MAGIC_SECOND;
+        }
+    }
+
+    private void inflate(InputStream inflated) {
+        byte[] buffer = new byte[INFLATE_BUFFER_SIZE];
+        try (InputStream in = inflated) {
+            int length;
+            while ((length = in.read(buffer)) >= 0) {
+                if (!write(buffer, length)) {
+                    return;
+                }
+            }
+        } catch (IOException ioe) {
+            this.lock.lock();
+            try {
+                this.failure = ioe;
+            } finally {
+                this.lock.unlock();
+            }
+        } finally {
+            this.lock.lock();
+            try {
+                this.finished = true;
+                this.notEmpty.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes bytes into the ring, waiting for space as needed.
+     *
+     * @return <code>false</code> if the stream was closed before every byte was written
+     */
+    private boolean write(byte[] buffer, int length) {
+        int offset = 0;
+        while (offset < length) {
+            long position;
+            int free;
+            this.lock.lock();
+            try {
+                while ((free = (int) (this.ring.length - (this.written - this.read))) == 0 && !this.closed) {
+                    this.notFull.await();
+                }
+                if (this.closed) {
+                    return false;
+                }
+                position = this.written;
+            } catch (InterruptedException ie) {
+                return false;
+            } finally {
+                this.lock.unlock();
+            }
+
+            // The free space is not read until the write is published, so is copied without the lock
+            int index = (int) (position % this.ring.length);
+            int count = Math.min(Math.min(free, length - offset), this.ring.length - index);
+            System.arraycopy(buffer, offset, this.ring, index, count);
+            offset += count;
+
+            this.lock.lock();
+            try {
+                this.written += count;
+                this.notEmpty.signal();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        long position;
+        int available;
+        this.lock.lock();
+        try {
+            if (this.closed) {
+                throw new IOException("Stream closed");
+            }
+            while ((available = (int) (this.written - this.read)) == 0 && !this.finished) {
+                this.notEmpty.await();
+            }
+            if (available == 0) {
+                if (this.failure != null) {
+                    throw this.failure;
+                }
+                return -1;
+            }
+            position = this.read;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for inflated bytes");
+        } finally {
+            this.lock.unlock();
+        }
+
+        // The bytes available are not overwritten until the read is published, so are copied without the lock
+        int index = (int) (position % this.ring.length);
+        int count = Math.min(Math.min(available, len), this.ring.length - index);
+        System.arraycopy(this.ring, index, b, off, count);
+
+        this.lock.lock();
+        try {
+            this.read += count;
+            this.notFull.signal();
+        } finally {
+            this.lock.unlock();
+        }
+        return count;
+    }
+
+    @Override
+    public int available() {
+        this.lock.lock();
+        try {
+            return (int) (this.written - this.read);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the stream, stopping the inflating thread if it has not finished.
+     */
+    @Override
+    public void close() {
+        this.lock.lock();
+        try {
+            this.closed = true;
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+}
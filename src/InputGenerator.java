@@ -0,0 +1,470 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates large, deterministic input files together with the report they should produce, for load and correctness
+ * testing at scale.
+ *
+ * <p>Households are generated in canonical form, then every input line spells its address in a randomly "dirty" way
+ * (changed case, trailing periods and spaces, spelled-out suffixes and unit markers, a comma before the apartment),
+ * as in the sample input of the design doc. The expected report is written from the canonical households directly,
+ * without the parser, normalizer or grouping, so it can check them.
+ *
+ * <p>The same settings and seed always produce the same files.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class InputGenerator {
+    private static final String USAGE = "Usage: java InputGenerator [--rows=N] [--seed=N] [--mean-household-size=X] "
+            + "[--max-household-size=N] [--minor-fraction=F] [--apartment-fraction=F] [--skew=S] [--dirty=F] "
+            + "<input file> <expected report file>";
+    private static final String[] STATES = {"CA", "TX", "FL", "NY", "WA", "IL", "OR", "CO", "AZ", "UT"};
+    private static final String[][] CITIES = {
+            {"Los Angeles", "San Diego", "San Jose", "Fresno", "Oakland"},
+            {"Houston", "San Antonio", "Dallas", "Austin", "El Paso"},
+            {"Jacksonville", "Miami", "Tampa", "Orlando"},
+            {"New York", "Buffalo", "Rochester", "Albany"},
+            {"Seattle", "Spokane", "Tacoma", "Vancouver", "Bellevue"},
+            {"Chicago", "Aurora", "Naperville"},
+            {"Portland", "Salem", "Eugene"},
+            {"Denver", "Colorado Springs", "Boulder"},
+            {"Phoenix", "Tucson", "Mesa"},
+            {"Salt Lake City", "Provo", "Ogden"}
+    };
+    private static final String[] STREET_NAMES = {"Main", "Oak", "Pine", "Maple", "Cedar", "Elm", "Lake", "Hill",
+            "Park", "Washington", "Lincoln", "Jefferson", "1st", "2nd", "3rd", "4th", "5th", "Martin Luther King Jr",
+            "Lake Washington", "Sunset", "River"};
+    /**
+     * Street suffixes as the normalizer writes them, and the spelled-out word for each.
+     */
+    private static final String[][] SUFFIXES = {{"St", "Street"}, {"Ave", "Avenue"}, {"Blvd", "Boulevard"},
+            {"Rd", "Road"}, {"Dr", "Drive"}, {"Ln", "Lane"}, {"Ct", "Court"}, {"Pl", "Place"}, {"Way", "Way"}};
+    /**
+     * Unit markers as the normalizer writes them, followed by other spellings of each.
+     */
+    private static final String[][] UNIT_MARKERS = {{"Apt.", "Apt", "apt.", "Apartment", "#"}, {"Unit", "unit"},
+            {"Ste.", "Ste", "Suite", "suite"}};
+    private static final String[] FIRST_NAMES = {"Alice", "Bob", "Carol", "Dave", "Eve", "Frank", "George", "Helen",
+            "Ian", "Jane", "Kevin", "Laura", "Maria", "Nathan", "Olivia", "Paul", "Quinn", "Rosa", "Sam", "Tina",
+            "Uma", "Victor", "Wendy", "Xavier", "Yara", "Zoe"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson",
+            "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Nguyen"};
+    private static final int MAX_AGE = 99;
+
+    private long seed = 1;
+    private double meanHouseholdSize = 2.5;
+    private int maxHouseholdSize = 8;
+    private double minorFraction = 0.25;
+    private double apartmentFraction = 0.3;
+    private double skew = 1.0;
+    private double dirtyFraction = 0.5;
+
+    /**
+     * Sets the seed of the random choices.
+     *
+     * @param seed the seed
+     * @return this generator
+     */
+    public InputGenerator setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Sets the sizes of households, which are geometrically distributed.
+     *
+     * @param mean the mean number of residents of a household, at least 1
+     * @param max  the largest number of residents of a household, at least 1
+     * @return this generator
+     * @throws IllegalArgumentException if either is less than 1
+     */
+    public InputGenerator setHouseholdSize(double mean, int max) {
+        if (!(mean >= 1) || max < 1) {
+            throw new IllegalArgumentException("Household sizes must be at least 1");
+        }
+        this.meanHouseholdSize = mean;
+        this.maxHouseholdSize = max;
+        return this;
+    }
+
+    /**
+     * Sets the share of residents aged 18 or under. Minors' ages are uniform from 0 to 18, adults' from 19 to 99.
+     *
+     * @param minorFraction the share of minors, from 0 to 1
+     * @return this generator
+     * @throws IllegalArgumentException if the share is not between 0 and 1
+     */
+    public InputGenerator setMinorFraction(double minorFraction) {
+        this.minorFraction = checkFraction(minorFraction);
+        return this;
+    }
+
+    /**
+     * Sets the share of households with an apartment, unit or suite.
+     *
+     * @param apartmentFraction the share of households with an apartment, from 0 to 1
+     * @return this generator
+     * @throws IllegalArgumentException if the share is not between 0 and 1
+     */
+    public InputGenerator setApartmentFraction(double apartmentFraction) {
+        this.apartmentFraction = checkFraction(apartmentFraction);
+        return this;
+    }
+
+    /**
+     * Sets how unevenly households are spread across states, and across the cities of each state. The
+     * <code>k</code>th most populous state or city has weight <code>1 / k^skew</code>.
+     *
+     * @param skew the Zipf exponent; 0 spreads households evenly
+     * @return this generator
+     * @throws IllegalArgumentException if the exponent is negative
+     */
+    public InputGenerator setSkew(double skew) {
+        if (!(skew >= 0)) {
+            throw new IllegalArgumentException("Skew must not be negative");
+        }
+        this.skew = skew;
+        return this;
+    }
+
+    /**
+     * Sets the chance of each part of an address (street case, suffix, unit marker, apartment case and separator,
+     * city, state, trailing spaces) being spelled in a non-canonical way on a line.
+     *
+     * @param dirtyFraction the chance of each variation, from 0 to 1
+     * @return this generator
+     * @throws IllegalArgumentException if the chance is not between 0 and 1
+     */
+    public InputGenerator setDirtyFraction(double dirtyFraction) {
+        this.dirtyFraction = checkFraction(dirtyFraction);
+        return this;
+    }
+
+    /**
+     * Generates an input file and the report it should produce.
+     *
+     * @param rows     the number of input lines
+     * @param input    the writer for the input lines
+     * @param expected the writer for the expected report
+     * @throws IOException if either cannot be written
+     */
+    public void generate(int rows, Writer input, Writer expected) throws IOException {
+        Random random = new Random(this.seed);
+        List<CanonicalHousehold> households = new ArrayList<>();
+        Set<String> addresses = new HashSet<>();
+        double[] stateWeights = cumulativeZipf(STATES.length);
+        double[][] cityWeights = new double[STATES.length][];
+        for (int state = 0; state < STATES.length; state++) {
+            cityWeights[state] = cumulativeZipf(CITIES[state].length);
+        }
+        int generated = 0;
+        while (generated < rows) {
+            CanonicalHousehold household = newHousehold(random, stateWeights, cityWeights);
+            if (!addresses.add(household.address())) {
+                continue;
+            }
+
+            int size = Math.min(rows - generated, householdSize(random));
+            household.residents = new int[size][];
+            int familyName = random.nextInt(LAST_NAMES.length);
+            for (int i = 0; i < size; i++) {
+                int lastNameIdx = random.nextInt(4) == 0 ? random.nextInt(LAST_NAMES.length) : familyName;
+                int age = random.nextDouble() < this.minorFraction
+                        ? random.nextInt(Household.ADULT_AGE + 1)
+                        : Household.ADULT_AGE + 1 + random.nextInt(MAX_AGE - Household.ADULT_AGE);
+                household.residents[i] = new int[]{random.nextInt(FIRST_NAMES.length), lastNameIdx, age};
+            }
+            households.add(household);
+            generated += size;
+        }
+
+        writeInput(random, households, rows, input);
+        writeExpected(households, expected);
+    }
+
+    private CanonicalHousehold newHousehold(Random random, double[] stateWeights, double[][] cityWeights) {
+        CanonicalHousehold res = new CanonicalHousehold();
+        int state = sample(random, stateWeights);
+        res.state = state;
+        res.city = sample(random, cityWeights[state]);
+        res.number = 1 + random.nextInt(9999);
+        res.streetName = random.nextInt(STREET_NAMES.length);
+        res.suffix = random.nextInt(SUFFIXES.length);
+        if (random.nextDouble() < this.apartmentFraction) {
+            res.unitMarker = random.nextInt(UNIT_MARKERS.length);
+            res.unit = (1 + random.nextInt(999))
+                    + (random.nextBoolean() ? "" : String.valueOf((char) ('A' + random.nextInt(6))));
+        } else {
+            res.unitMarker = -1;
+        }
+        return res;
+    }
+
+    private int householdSize(Random random) {
+        if (this.meanHouseholdSize <= 1) {
+            return 1;
+        }
+        // Geometric on 1, 2, ... with the given mean
+        double p = 1 / this.meanHouseholdSize;
+        int size = 1 + (int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+        return Math.min(size, this.maxHouseholdSize);
+    }
+
+    private void writeInput(Random random, List<CanonicalHousehold> households, int rows, Writer input)
+            throws IOException {
+        // Interleave households, as real input is not grouped
+        int[] householdOfRow = new int[rows];
+        int[] residentOfRow = new int[rows];
+        int row = 0;
+        for (int i = 0; i < households.size(); i++) {
+            for (int j = 0; j < households.get(i).residents.length; j++) {
+                householdOfRow[row] = i;
+                residentOfRow[row++] = j;
+            }
+        }
+        for (int i = rows - 1; i > 0; i--) {
+            int swap = random.nextInt(i + 1);
+            int household = householdOfRow[i];
+            int resident = residentOfRow[i];
+            householdOfRow[i] = householdOfRow[swap];
+            residentOfRow[i] = residentOfRow[swap];
+            householdOfRow[swap] = household;
+            residentOfRow[swap] = resident;
+        }
+
+        BufferedWriter out = new BufferedWriter(input, 1 << 16);
+        for (int i = 0; i < rows; i++) {
+            CanonicalHousehold household = households.get(householdOfRow[i]);
+            int[] resident = household.residents[residentOfRow[i]];
+            out.write('"');
+            out.write(FIRST_NAMES[resident[0]]);
+            out.write("\",\"");
+            out.write(LAST_NAMES[resident[1]]);
+            out.write("\",\"");
+            out.write(dirtyStreet(random, household));
+            out.write("\",\"");
+            out.write(dirtyWords(random, CITIES[household.state][household.city]));
+            out.write("\",\"");
+            out.write(dirtyState(random, STATES[household.state]));
+            out.write("\",\"");
+            out.write(Integer.toString(resident[2]));
+            out.write("\"\n");
+        }
+        out.flush();
+    }
+
+    private void writeExpected(List<CanonicalHousehold> households, Writer expected) throws IOException {
+        households.sort(Comparator.comparing((CanonicalHousehold household) -> STATES[household.state])
+                .thenComparing(household -> CITIES[household.state][household.city])
+                .thenComparing(CanonicalHousehold::street)
+                .thenComparing(CanonicalHousehold::apartment, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        BufferedWriter out = new BufferedWriter(expected, 1 << 16);
+        for (CanonicalHousehold household : households) {
+            String address = household.address();
+            int occupants = household.residents.length;
+            out.write("The household at " + address + " has " + occupants
+                    + (occupants == 1 ? " occupant:\n" : " occupants:\n"));
+
+            List<int[]> adults = new ArrayList<>();
+            for (int[] resident : household.residents) {
+                if (resident[2] > Household.ADULT_AGE) {
+                    adults.add(resident);
+                }
+            }
+            adults.sort(Comparator.comparing((int[] resident) -> LAST_NAMES[resident[1]])
+                    .thenComparing(resident -> FIRST_NAMES[resident[0]])
+                    .thenComparingInt(resident -> resident[2]));
+            for (int[] adult : adults) {
+                out.write("    " + FIRST_NAMES[adult[0]] + " " + LAST_NAMES[adult[1]] + ", " + address + ", "
+                        + adult[2] + "\n");
+            }
+        }
+        out.flush();
+    }
+
+    private String dirtyStreet(Random random, CanonicalHousehold household) {
+        String[] suffix = SUFFIXES[household.suffix];
+        String suffixText = suffix[0];
+        if (dirty(random)) {
+            suffixText = random.nextBoolean() ? suffix[1] : suffix[0] + ".";
+        }
+        StringBuilder res = new StringBuilder();
+        res.append(household.number).append(' ').append(STREET_NAMES[household.streetName]).append(' ')
+                .append(suffixText);
+
+        if (household.unitMarker >= 0) {
+            String[] markers = UNIT_MARKERS[household.unitMarker];
+            res.append(dirty(random) ? ", " : " ");
+            res.append(dirty(random) ? markers[1 + random.nextInt(markers.length - 1)] : markers[0]);
+            res.append(' ').append(dirty(random) ? household.unit.toLowerCase() : household.unit);
+        }
+        if (dirty(random)) {
+            res.append(' ');
+        }
+        return dirtyCase(random, res.toString());
+    }
+
+    private String dirtyWords(Random random, String words) {
+        return dirty(random) ? dirtyCase(random, words) + " " : dirtyCase(random, words);
+    }
+
+    private String dirtyState(Random random, String state) {
+        String res = dirty(random) ? (random.nextBoolean() ? state.toLowerCase()
+                : state.charAt(0) + state.substring(1).toLowerCase()) : state;
+        return dirty(random) ? res + "." : res;
+    }
+
+    private String dirtyCase(Random random, String text) {
+        if (!dirty(random)) {
+            return text;
+        }
+        return random.nextBoolean() ? text.toLowerCase() : text.toUpperCase();
+    }
+
+    private boolean dirty(Random random) {
+        return random.nextDouble() < this.dirtyFraction;
+    }
+
+    private double[] cumulativeZipf(int n) {
+        double[] res = new double[n];
+        double total = 0;
+        for (int k = 0; k < n; k++) {
+            total += 1 / Math.pow(k + 1, this.skew);
+            res[k] = total;
+        }
+        for (int k = 0; k < n; k++) {
+            res[k] /= total;
+        }
+        return res;
+    }
+
+    private static int sample(Random random, double[] cumulativeWeights) {
+        int res = Arrays.binarySearch(cumulativeWeights, random.nextDouble());
+        return Math.min(res < 0 ? -res - 1 : res + 1, cumulativeWeights.length - 1);
+    }
+
+    private static double checkFraction(double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("Expected a fraction from 0 to 1: " + fraction);
+        }
+        return fraction;
+    }
+
+    /**
+     * Writes an input file and its expected report, as described by {@link #USAGE}.
+     *
+     * @param args the options, then the input file and expected report file to write
+     */
+    public static void main(String[] args) {
+        try {
+            InputGenerator generator = new InputGenerator();
+            int rows = 1000;
+            List<String> paths = new ArrayList<>();
+            double meanHouseholdSize = generator.meanHouseholdSize;
+            int maxHouseholdSize = generator.maxHouseholdSize;
+            for (String arg : args) {
+                if (!arg.startsWith("--")) {
+                    paths.add(arg);
+                    continue;
+                }
+                int eqIdx = arg.indexOf('=');
+                if (eqIdx < 0) {
+                    throw new IllegalArgumentException("Expected a value: " + arg);
+                }
+                String name = arg.substring(2, eqIdx);
+                String value = arg.substring(eqIdx + 1);
+                switch (name) {
+                    case "rows":
+                        rows = Integer.parseInt(value);
+                        break;
+                    case "seed":
+                        generator.setSeed(Long.parseLong(value));
+                        break;
+                    case "mean-household-size":
+                        meanHouseholdSize = Double.parseDouble(value);
+                        break;
+                    case "max-household-size":
+                        maxHouseholdSize = Integer.parseInt(value);
+                        break;
+                    case "minor-fraction":
+                        generator.setMinorFraction(Double.parseDouble(value));
+                        break;
+                    case "apartment-fraction":
+                        generator.setApartmentFraction(Double.parseDouble(value));
+                        break;
+                    case "skew":
+                        generator.setSkew(Double.parseDouble(value));
+                        break;
+                    case "dirty":
+                        generator.setDirtyFraction(Double.parseDouble(value));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+            generator.setHouseholdSize(meanHouseholdSize, maxHouseholdSize);
+            if (paths.size() != 2 || rows < 0) {
+                throw new IllegalArgumentException("Expected a row count and two files");
+            }
+
+            try (Writer input = Files.newBufferedWriter(Path.of(paths.get(0)), StandardCharsets.UTF_8);
+                 Writer expected = Files.newBufferedWriter(Path.of(paths.get(1)), StandardCharsets.UTF_8)) {
+                generator.generate(rows, input, expected);
+            }
+        } catch (IllegalArgumentException iae) {
+            // Includes NumberFormatException
+            System.out.println(iae.getMessage());
+            System.out.println(USAGE);
+        } catch (IOException ioe) {
+            System.out.println("Files could not be written: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * A household as the normalizer should see it, and the residents generated for it.
+     */
+    private static class CanonicalHousehold {
+        private int state;
+        private int city;
+        private int number;
+        private int streetName;
+        private int suffix;
+        /**
+         * Index into {@link #UNIT_MARKERS}, or -1 if the household has no apartment.
+         */
+        private int unitMarker;
+        private String unit;
+        /**
+         * First name index, last name index and age of each resident.
+         */
+        private int[][] residents;
+
+        private String street() {
+            return this.number + " " + STREET_NAMES[this.streetName] + " " + SUFFIXES[this.suffix][0];
+        }
+
+        private String apartment() {
+            return this.unitMarker < 0 ? null : UNIT_MARKERS[this.unitMarker][0] + " " + this.unit;
+        }
+
+        private String address() {
+            String apartment = apartment();
+            return street() + (apartment == null ? "" : " " + apartment) + ", " + CITIES[this.state][this.city]
+                    + ", " + STATES[this.state];
+        }
+    }
+}
@@ -0,0 +1,109 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of request latencies over fixed buckets, safe to record into from many threads at once.
+ *
+ * <p>Bucket bounds grow roughly geometrically from 100 microseconds to 10 seconds, which is enough resolution to
+ * tell a lookup from a full report without tracking every sample.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class LatencyHistogram {
+    /**
+     * Upper bounds of the buckets, in nanoseconds; latencies above the last bound are only counted in the total.
+     */
+    static final long[] BUCKET_BOUNDS = {100_000L, 250_000L, 500_000L, 1_000_000L, 2_500_000L, 5_000_000L,
+            10_000_000L, 25_000_000L, 50_000_000L, 100_000_000L, 250_000_000L, 500_000_000L, 1_000_000_000L,
+            2_500_000_000L, 10_000_000_000L};
+
+    /**
+     * Number of latencies recorded in each bucket, excluding those in lower buckets.
+     */
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos the latency, in nanoseconds
+     */
+    public void record(long nanos) {
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.length && nanos > BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        if (bucket < BUCKET_BOUNDS.length) {
+            this.buckets[bucket].increment();
+        }
+        this.count.increment();
+        this.sumNanos.add(nanos);
+    }
+
+    /**
+     * Returns the number of latencies recorded.
+     *
+     * @return the number of latencies
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Returns the number of latencies recorded that are no greater than a bucket's bound.
+     *
+     * @param bucket the index of the bucket in {@link #BUCKET_BOUNDS}
+     * @return the cumulative number of latencies up to the bucket
+     */
+    public long getCumulativeCount(int bucket) {
+        long res = 0;
+        for (int i = 0; i <= bucket; i++) {
+            res += this.buckets[i].sum();
+        }
+        return res;
+    }
+
+    /**
+     * Returns the sum of every latency recorded.
+     *
+     * @return the total latency, in nanoseconds
+     */
+    public long getSumNanos() {
+        return this.sumNanos.sum();
+    }
+
+    /**
+     * Writes the histogram's samples in the Prometheus text format, with bounds and sum in seconds. The
+     * <code># TYPE</code> line is left to the caller, so several labelled histograms can share one metric name.
+     *
+     * @param out    the writer to write to
+     * @param name   the name of the metric
+     * @param labels labels identifying this histogram, such as <code>endpoint="report"</code>, or an empty string
+     * @throws IOException if the samples cannot be written
+     */
+    public void writePrometheus(Writer out, String name, String labels) throws IOException {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            cumulative += this.buckets[i].sum();
+            out.write(name + "_bucket{" + prefix + "le=\"" + BUCKET_BOUNDS[i] / 1e9 + "\"} " + cumulative + "\n");
+        }
+        long total = getCount();
+        String suffix = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.write(name + "_bucket{" + prefix + "le=\"+Inf\"} " + total + "\n");
+        out.write(name + "_sum" + suffix + " " + getSumNanos() / 1e9 + "\n");
+        out.write(name + "_count" + suffix + " " + total + "\n");
+    }
+}
@@ -0,0 +1,66 @@
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A resident parsed from the UTF-8 bytes of an input line, whose names are decoded only when first asked for.
+ *
+ * <p>Only adults are written to the report, and minors are only counted, so the names of most minors are never
+ * needed. The address and age are parsed eagerly, as grouping needs them; the names are kept as their UTF-8 bytes, in
+ * one small array owned by the resident, and each is decoded once, the first time it is rendered or compared. The
+ * resident does not refer to the buffer it was parsed from, so that buffer can be freed once parsed.
+ *
+ * <p>Names may be asked for by several threads at once; at worst a name is decoded more than once.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class LazyResident extends Resident {
+    /**
+     * UTF-8 bytes of the first name followed by those of the last name.
+     */
+    private final byte[] names;
+    private final int firstNameLength;
+    /**
+     * First name, once decoded.
+     */
+    private String firstName;
+    /**
+     * Last name, once decoded.
+     */
+    private String lastName;
+
+    /**
+     * Creates a resident whose names are held undecoded.
+     *
+     * @param names           the UTF-8 bytes of the first name followed by those of the last name, which the resident
+     *                        takes ownership of
+     * @param firstNameLength the number of bytes of the first name
+     * @param address         the address of the resident
+     * @param age             the age of the resident
+     */
+    LazyResident(byte[] names, int firstNameLength, Address address, int age) {
+        super(address, age);
+        this.names = names;
+        this.firstNameLength = firstNameLength;
+    }
+
+    @Override
+    public String getFirstName() {
+        String res = this.firstName;
+        if (res == null) {
+            res = new String(this.names, 0, this.firstNameLength, StandardCharsets.UTF_8);
+            this.firstName = res;
+        }
+        return res;
+    }
+
+    @Override
+    public String getLastName() {
+        String res = this.lastName;
+        if (res == null) {
+            res = new String(this.names, this.firstNameLength, this.names.length - this.firstNameLength,
+                    StandardCharsets.UTF_8);
+            this.lastName = res;
+        }
+        return res;
+    }
+}
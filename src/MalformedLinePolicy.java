@@ -0,0 +1,92 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Decides what happens to lines of the input that are not well-formed residents.
+ *
+ * <p>A policy either fails on the first malformed line, skips every malformed line, or skips them until a limit is
+ * reached. Skipped lines may be written to a quarantine file, one per line as the line number, the reason and the
+ * line itself, separated by tabs, so they can be fixed and read again.
+ *
+ * <p>Malformed lines are only counted and written when they occur, so a policy costs nothing while lines are
+ * well-formed. Policies are safe for use by multiple threads.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class MalformedLinePolicy {
+    /**
+     * Limit of a policy that skips every malformed line.
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final int maxErrors;
+    private final Writer quarantine;
+    private int rejectedCount;
+
+    /**
+     * Creates a policy.
+     *
+     * @param maxErrors  the number of malformed lines that stops the input being read: 1 to fail on the first, or
+     *                   {@link #UNLIMITED} to skip every one
+     * @param quarantine the writer skipped lines are written to, or <code>null</code> to not write them
+     * @throws IllegalArgumentException if <code>maxErrors</code> is not positive
+     */
+    public MalformedLinePolicy(int maxErrors, Writer quarantine) {
+        if (maxErrors < 1) {
+            throw new IllegalArgumentException("Maximum number of errors must be positive");
+        }
+        this.maxErrors = maxErrors;
+        this.quarantine = quarantine;
+    }
+
+    /**
+     * Creates a policy that fails on the first malformed line.
+     *
+     * @return a new fail-fast policy
+     */
+    public static MalformedLinePolicy failFast() {
+        return new MalformedLinePolicy(1, null);
+    }
+
+    /**
+     * Returns the number of malformed lines that stops the input being read.
+     *
+     * @return the limit, or {@link #UNLIMITED} if every malformed line is skipped
+     */
+    public int getMaxErrors() {
+        return this.maxErrors;
+    }
+
+    /**
+     * Returns the number of malformed lines seen so far.
+     *
+     * @return the number of lines rejected
+     */
+    public synchronized int getRejectedCount() {
+        return this.rejectedCount;
+    }
+
+    /**
+     * Rejects a malformed line, writing it to the quarantine file if there is one.
+     *
+     * @param lineNumber the number of the line in the input, counting from 1
+     * @param line       the line, without its terminator
+     * @param reason     why the line is malformed
+     * @throws MalformedResidentException if this line reaches the limit of malformed lines
+     * @throws QuarantineWriteException   if the quarantine file cannot be written
+     */
+    public synchronized void reject(long lineNumber, String line, String reason) {
+        this.rejectedCount++;
+        if (this.quarantine != null) {
+            try {
+                this.quarantine.write(lineNumber + "\t" + reason + "\t" + line + "\n");
+            } catch (IOException ioe) {
+                throw new QuarantineWriteException(ioe);
+            }
+        }
+        if (this.rejectedCount >= this.maxErrors) {
+            throw new MalformedResidentException(lineNumber, reason);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+import java.util.InputMismatchException;
+
+/**
+ * Thrown when a line of the input is not a well-formed resident, saying which line and why.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class MalformedResidentException extends InputMismatchException {
+    private static final long serialVersionUID = 1L;
+
+    private final long lineNumber;
+    private final String reason;
+
+    /**
+     * Creates an exception for a malformed line.
+     *
+     * @param lineNumber the number of the line in the input, counting from 1
+     * @param reason     why the line is malformed
+     */
+    public MalformedResidentException(long lineNumber, String reason) {
+        super("Line " + lineNumber + ": " + reason);
+        this.lineNumber = lineNumber;
+        this.reason = reason;
+    }
+
+    /**
+     * Returns the number of the malformed line.
+     *
+     * @return the number of the line in the input, counting from 1
+     */
+    public long getLineNumber() {
+        return this.lineNumber;
+    }
+
+    /**
+     * Returns why the line is malformed.
+     *
+     * @return a description of what is wrong with the line
+     */
+    public String getReason() {
+        return this.reason;
+    }
+}
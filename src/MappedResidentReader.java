@@ -0,0 +1,163 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.InputMismatchException;
+import java.util.function.Consumer;
+
+/**
+ * Reads residents from an input file by memory-mapping it and parsing each line straight from the mapped bytes.
+ *
+ * <p>Lines end with <code>\n</code> or <code>\r\n</code>; the final line may omit its terminator. Files larger than
+ * a single mapping are mapped one window at a time, each window starting on a line boundary.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class MappedResidentReader {
+    /**
+     * Largest number of bytes mapped at once. No line may be longer than this.
+     */
+    static final int WINDOW_SIZE = 1 << 28;
+
+    private MappedResidentReader() {
+    }
+
+    /**
+     * Parses every line of the file, handing each resident to <code>sink</code> in file order.
+     *
+     * @param path         the input file
+     * @param addressCache the cache used to normalize and share addresses
+     * @param sink         receives each parsed resident
+     * @throws IOException            if the file cannot be read
+     * @throws InputMismatchException if a line is not a well-formed resident
+     */
+    public static void read(Path path, AddressCache addressCache, Consumer<Resident> sink) throws IOException {
+        read(path, addressCache, MalformedLinePolicy.failFast(), sink);
+    }
+
+    /**
+     * Parses every line of the file, handing each resident to <code>sink</code> in file order and each malformed
+     * line to <code>policy</code>.
+     *
+     * @param path         the input file
+     * @param addressCache the cache used to normalize and share addresses
+     * @param policy       decides whether reading stops at a malformed line
+     * @param sink         receives each parsed resident
+     * @throws IOException                if the file cannot be read
+     * @throws MalformedResidentException if the policy stops at a malformed line
+     */
+    public static void read(Path path, AddressCache addressCache, MalformedLinePolicy policy,
+                            Consumer<Resident> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            readRange(channel, 0, channel.size(), new ResidentByteParser(addressCache, true), sink,
+                    (line, offset, text, reason) -> policy.reject(line, text, reason));
+        }
+    }
+
+    /**
+     * Receives the lines of a range that are not well-formed residents.
+     */
+    interface Rejecter {
+        /**
+         * Rejects a malformed line, or throws to stop reading.
+         *
+         * @param line   the number of the line within the range, counting from 1
+         * @param offset the offset of the first byte of the line in the file
+         * @param text   the line, without its terminator
+         * @param reason why the line is malformed
+         */
+        void reject(long line, long offset, String text, String reason);
+    }
+
+    /**
+     * Parses every line between <code>start</code> and <code>end</code> of the channel, handing each resident to
+     * <code>sink</code> and each malformed line to <code>rejecter</code>, in file order.
+     *
+     * @param channel  the input file
+     * @param start    offset of the first byte of the range, which must begin a line
+     * @param end      offset one past the last byte of the range, which must end a line or the file
+     * @param parser   the parser to use for each line
+     * @param sink     receives each parsed resident
+     * @param rejecter receives each malformed line
+     * @return the number of lines in the range
+     * @throws IOException if the file cannot be read, or a line is longer than {@link #WINDOW_SIZE}
+     */
+    static long readRange(FileChannel channel, long start, long end, ResidentByteParser parser,
+                          Consumer<Resident> sink, Rejecter rejecter) throws IOException {
+        long lines = 0;
+        long position = start;
+        while (position < end) {
+            int length = (int) Math.min(WINDOW_SIZE, end - position);
+            boolean lastWindow = position + length == end;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+            int lineStart = 0;
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(i) == '\n') {
+                    parseLine(buffer, lineStart, i, position, ++lines, parser, sink, rejecter);
+                    lineStart = i + 1;
+                }
+            }
+
+            if (lastWindow) {
+                if (lineStart < length) {
+                    parseLine(buffer, lineStart, length, position, ++lines, parser, sink, rejecter);
+                }
+                position = end;
+            } else if (lineStart == 0) {
+                throw new IOException("Line at byte offset " + position + " is longer than " + WINDOW_SIZE
+                        + " bytes");
+            } else {
+                position += lineStart;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the offset of the first line starting at or after <code>offset</code>.
+     *
+     * @param channel the input file
+     * @param offset  the offset to search from
+     * @return the offset of the next line start, or the file size if there is none
+     * @throws IOException if the file cannot be read
+     */
+    static long nextLineStart(FileChannel channel, long offset) throws IOException {
+        if (offset == 0) {
+            return 0;
+        }
+
+        long size = channel.size();
+        long position = offset - 1;
+        while (position < size) {
+            int length = (int) Math.min(64 * 1024, size - position);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += length;
+        }
+        return size;
+    }
+
+    private static void parseLine(MappedByteBuffer buffer, int start, int end, long windowPosition, long line,
+                                  ResidentByteParser parser, Consumer<Resident> sink, Rejecter rejecter) {
+        int lineEnd = end > start && buffer.get(end - 1) == '\r' ? end - 1 : end;
+        Resident resident = parser.parse(buffer, start, lineEnd);
+        if (resident == null) {
+            byte[] text = new byte[lineEnd - start];
+            for (int i = 0; i < text.length; i++) {
+                text[i] = buffer.get(start + i);
+            }
+            rejecter.reject(line, windowPosition + start, new String(text, StandardCharsets.UTF_8),
+                    parser.getError());
+            return;
+        }
+        sink.accept(resident);
+    }
+}
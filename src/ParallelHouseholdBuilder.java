@@ -0,0 +1,272 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds a {@link HouseholdIndex} from an input file using several worker threads.
+ *
+ * <p>The file is split into line-aligned byte ranges. Each range is memory-mapped, parsed and grouped into a partial
+ * index by a fork/join worker, and partial indexes are merged pairwise in file order, so the result is the same as
+ * reading the file serially.
+ *
+ * <p>Workers do not know the line number a range starts at, so malformed lines are kept with their number within the
+ * range, and handed to the {@link MalformedLinePolicy} in file order once every range before it is parsed and line
+ * numbers are known. The line the policy stops at is therefore always the same one as when reading serially, and
+ * every malformed line before it is quarantined; malformed lines are only held until the ranges before them are
+ * parsed. A range stops being read once it holds as many malformed lines as the policy's limit, as the policy is then
+ * sure to stop at or before its last one, and so do the ranges after it.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class ParallelHouseholdBuilder {
+    /**
+     * Ranges are not split below this size, as the per-range overhead would outweigh the parallelism gained.
+     */
+    static final long MIN_RANGE_SIZE = 1 << 20;
+    /**
+     * Number of ranges created per worker, so that workers finishing early can steal remaining ranges.
+     */
+    private static final int RANGES_PER_WORKER = 4;
+
+    private ParallelHouseholdBuilder() {
+    }
+
+    /**
+     * Parses and groups every resident of the input file.
+     *
+     * @param path         the input file
+     * @param workers      the number of worker threads to use
+     * @param retainMinors <code>true</code> for households to keep minors as well as adults
+     * @param addressCache the cache used to normalize and share addresses, shared by every worker
+     * @return the households of the input file
+     * @throws IOException                     if the file cannot be read
+     * @throws java.util.InputMismatchException if a line is not a well-formed resident
+     */
+    public static HouseholdIndex build(Path path, int workers, boolean retainMinors, AddressCache addressCache)
+            throws IOException {
+        return build(path, workers, retainMinors, addressCache, MalformedLinePolicy.failFast(), MIN_RANGE_SIZE);
+    }
+
+    /**
+     * Parses and groups every resident of the input file, handing malformed lines to a policy.
+     *
+     * @param path         the input file
+     * @param workers      the number of worker threads to use
+     * @param retainMinors <code>true</code> for households to keep minors as well as adults
+     * @param addressCache the cache used to normalize and share addresses, shared by every worker
+     * @param policy       decides whether reading stops at a malformed line
+     * @return the households of the well-formed lines of the input file
+     * @throws IOException                if the file cannot be read
+     * @throws MalformedResidentException if the policy stops at a malformed line
+     */
+    public static HouseholdIndex build(Path path, int workers, boolean retainMinors, AddressCache addressCache,
+                                       MalformedLinePolicy policy) throws IOException {
+        return build(path, workers, retainMinors, addressCache, policy, MIN_RANGE_SIZE);
+    }
+
+    static HouseholdIndex build(Path path, int workers, boolean retainMinors, AddressCache addressCache,
+                                long minRangeSize) throws IOException {
+        return build(path, workers, retainMinors, addressCache, MalformedLinePolicy.failFast(), minRangeSize);
+    }
+
+    static HouseholdIndex build(Path path, int workers, boolean retainMinors, AddressCache addressCache,
+                                MalformedLinePolicy policy, long minRangeSize) throws IOException {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int ranges = (int) Math.max(1, Math.min((long) workers * RANGES_PER_WORKER, size / minRangeSize));
+            long[] boundaries = new long[ranges + 1];
+            for (int i = 0; i < ranges; i++) {
+                boundaries[i] = MappedResidentReader.nextLineStart(channel, size * i / ranges);
+            }
+            boundaries[ranges] = size;
+
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            try {
+                return pool.invoke(new RangeTask(new Job(channel, boundaries, retainMinors, addressCache, policy),
+                        0, ranges));
+            } catch (QuarantineWriteException qwe) {
+                throw qwe;
+            } catch (UncheckedIOException uioe) {
+                throw uioe.getCause();
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * State shared by every range of one build.
+     */
+    private static class Job {
+        private final FileChannel channel;
+        private final long[] boundaries;
+        private final boolean retainMinors;
+        private final AddressCache addressCache;
+        private final MalformedLinePolicy policy;
+        /**
+         * Index of the first range known to hold as many malformed lines as the policy's limit, ranges after which need
+         * not be read.
+         */
+        private final AtomicInteger limitRange = new AtomicInteger(Integer.MAX_VALUE);
+        /**
+         * Ranges parsed ahead of an earlier one, whose malformed lines must wait for its line count.
+         */
+        private final Map<Integer, ParsedRange> waiting = new HashMap<>();
+        /**
+         * Index of the first range whose malformed lines are not yet handed to the policy.
+         */
+        private int nextRange;
+        /**
+         * Number of lines in the ranges before {@link #nextRange}.
+         */
+        private long linesBefore;
+        /**
+         * Whether the policy stopped at a malformed line, so no more are handed to it.
+         */
+        private boolean stopped;
+
+        Job(FileChannel channel, long[] boundaries, boolean retainMinors, AddressCache addressCache,
+            MalformedLinePolicy policy) {
+            this.channel = channel;
+            this.boundaries = boundaries;
+            this.retainMinors = retainMinors;
+            this.addressCache = addressCache;
+            this.policy = policy;
+        }
+
+        /**
+         * Records that a range is parsed, and hands the malformed lines of every parsed range before the first range
+         * still being parsed to the policy, in file order.
+         *
+         * @throws MalformedResidentException if the policy stops at a malformed line
+         */
+        synchronized void parsed(int range, long lines, List<Rejected> rejected) {
+            if (this.stopped) {
+                return;
+            }
+            this.waiting.put(range, new ParsedRange(lines, rejected));
+            ParsedRange parsed;
+            while ((parsed = this.waiting.remove(this.nextRange)) != null) {
+                // Left set if the policy stops at one of the lines
+                this.stopped = true;
+                for (Rejected line : parsed.rejected) {
+                    this.policy.reject(this.linesBefore + line.line, line.text, line.reason);
+                }
+                this.stopped = false;
+                this.linesBefore += parsed.lines;
+                this.nextRange++;
+            }
+        }
+    }
+
+    /**
+     * A malformed line, numbered within its range.
+     */
+    private static class Rejected {
+        private final long line;
+        private final String text;
+        private final String reason;
+
+        Rejected(long line, String text, String reason) {
+            this.line = line;
+            this.text = text;
+            this.reason = reason;
+        }
+    }
+
+    /**
+     * Line count and malformed lines of a parsed range.
+     */
+    private static class ParsedRange {
+        private final long lines;
+        private final List<Rejected> rejected;
+
+        ParsedRange(long lines, List<Rejected> rejected) {
+            this.lines = lines;
+            this.rejected = rejected;
+        }
+    }
+
+    /**
+     * Groups the residents of the ranges <code>[from, to)</code>, splitting them in halves until one range remains.
+     */
+    private static class RangeTask extends RecursiveTask<HouseholdIndex> {
+        private static final long serialVersionUID = 1L;
+
+        private final Job job;
+        private final int from;
+        private final int to;
+
+        RangeTask(Job job, int from, int to) {
+            this.job = job;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected HouseholdIndex compute() {
+            if (this.to - this.from > 1) {
+                int mid = (this.from + this.to) >>> 1;
+                RangeTask right = new RangeTask(this.job, mid, this.to);
+                right.fork();
+                HouseholdIndex left = new RangeTask(this.job, this.from, mid).compute();
+                left.addAll(right.join());
+                return left;
+            }
+
+            HouseholdIndex res = new HouseholdIndex(this.job.retainMinors);
+            if (this.from > this.job.limitRange.get()) {
+                return res;
+            }
+            List<Rejected> rejected = new ArrayList<>();
+            long lines = 0;
+            try {
+                lines = MappedResidentReader.readRange(this.job.channel, this.job.boundaries[this.from],
+                        this.job.boundaries[this.to], new ResidentByteParser(this.job.addressCache, true), res::add,
+                        (line, offset, text, reason) -> reject(rejected, line, text, reason));
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            } catch (RangeStopped stopped) {
+                // The policy stops before any line after this one, so the rest of the range is not needed
+            }
+            this.job.parsed(this.from, lines, rejected);
+            return res;
+        }
+
+        private void reject(List<Rejected> rejected, long line, String text, String reason) {
+            rejected.add(new Rejected(line, text, reason));
+            if (rejected.size() >= this.job.policy.getMaxErrors()) {
+                this.job.limitRange.accumulateAndGet(this.from, Math::min);
+                throw new RangeStopped();
+            }
+            if (this.from > this.job.limitRange.get()) {
+                throw new RangeStopped();
+            }
+        }
+    }
+
+    /**
+     * Thrown by a range that need not be read any further, to stop reading it.
+     */
+    private static class RangeStopped extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        RangeStopped() {
+            super(null, null, false, false);
+        }
+    }
+}
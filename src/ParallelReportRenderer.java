@@ -0,0 +1,148 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Renders the household report on several threads, writing it out in order.
+ *
+ * <p>Households are written in address order, and addresses order by state first, so the report splits into one
+ * partition per state. Each partition is formatted into a buffer of its own by a worker thread, and the buffers are
+ * written to the report in partition order as they complete, so the output is identical to rendering on one thread.
+ * A state with more than its share of households is split further between households, so that one populous state
+ * does not leave the other threads idle.
+ *
+ * <p>At most {@value #PARTITIONS_AHEAD_PER_THREAD} partitions per thread are formatted ahead of the one being written,
+ * which bounds how much of the report is held in buffers at once.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class ParallelReportRenderer {
+    /**
+     * Number of partitions each thread is given, if the states allow, so that threads finishing early take more.
+     */
+    static final int PARTITIONS_PER_THREAD = 8;
+    /**
+     * Number of partitions per thread formatted ahead of the one being written.
+     */
+    static final int PARTITIONS_AHEAD_PER_THREAD = 2;
+
+    private final int threads;
+
+    /**
+     * Creates a renderer.
+     *
+     * @param threads the number of threads formatting partitions
+     * @throws IllegalArgumentException if <code>threads</code> is not positive
+     */
+    public ParallelReportRenderer(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Writes one household of the report.
+     *
+     * @param <T> the type of the households
+     */
+    public interface HouseholdFormatter<T> {
+        /**
+         * Writes a household.
+         *
+         * @param household the household
+         * @param out       the writer to write to
+         * @throws IOException if the household cannot be written
+         */
+        void write(T household, ReportWriter out) throws IOException;
+    }
+
+    /**
+     * Writes the report of the households, formatting partitions of them on several threads.
+     *
+     * @param households the households, in address order
+     * @param addressOf  returns the address of a household
+     * @param formatter  writes one household; it is called by several threads at once, for different households
+     * @param out        the writer to write the report to
+     * @param <T>        the type of the households
+     * @throws IOException if the report cannot be written
+     */
+    public <T> void render(List<T> households, Function<T, Address> addressOf, HouseholdFormatter<T> formatter,
+                           ReportWriter out) throws IOException {
+        int partitions = this.threads * PARTITIONS_PER_THREAD;
+        int[] bounds = partition(households, addressOf, (households.size() + partitions - 1) / partitions);
+        ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+        try {
+            Deque<Future<String>> pending = new ArrayDeque<>();
+            int next = 0;
+            while (next < bounds.length - 1 || !pending.isEmpty()) {
+                while (next < bounds.length - 1 && pending.size() < this.threads * PARTITIONS_AHEAD_PER_THREAD) {
+                    List<T> part = households.subList(bounds[next], bounds[next + 1]);
+                    pending.addLast(executor.submit(() -> format(part, formatter)));
+                    next++;
+                }
+                out.write(pending.removeFirst().get());
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering the report");
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Failed to render the report", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Splits households into partitions that each hold households of one state only.
+     *
+     * @param households the households, in address order
+     * @param addressOf  returns the address of a household
+     * @param maxSize    the most households in a partition; a state with more is split
+     * @param <T>        the type of the households
+     * @return the index of the first household of each partition, followed by the number of households
+     */
+    static <T> int[] partition(List<T> households, Function<T, Address> addressOf, int maxSize) {
+        List<Integer> bounds = new ArrayList<>();
+        String state = null;
+        int start = 0;
+        for (int i = 0; i < households.size(); i++) {
+            String householdState = addressOf.apply(households.get(i)).getState();
+            if (i == 0 || !Objects.equals(householdState, state) || i - start >= maxSize) {
+                bounds.add(i);
+                state = householdState;
+                start = i;
+            }
+        }
+        bounds.add(households.size());
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static <T> String format(List<T> households, HouseholdFormatter<T> formatter) throws IOException {
+        StringWriter buffer = new StringWriter();
+        try (ReportWriter out = new ReportWriter(buffer)) {
+            for (T household : households) {
+                formatter.write(household, out);
+            }
+        }
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,486 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Per-stage measurements of a run: wall time, records processed, bytes read, bytes allocated and address cache
+ * effectiveness, along with the queue statistics of a staged pipeline if the run used one.
+ *
+ * <p>Each stage is measured by a {@link Span}, opened with {@link #start(Stage)} and closed when the stage ends; spans
+ * of the same stage add up. Closed spans are also committed as JFR events, so a flight recording shows the stages of a
+ * run on its timeline. The {@link #DISABLED} instance measures nothing, and its spans do nothing, so instrumented code
+ * costs next to nothing when metrics are off.
+ *
+ * <p>Stages may be nested: time spent normalizing addresses is part of parsing, for example. Modes that parse and group
+ * in one pass record both under {@link Stage#PARSE}. Allocation is measured on the thread that opens the span, so
+ * allocation by other threads, such as the workers of a parallel run, is not included.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class PipelineMetrics {
+    /**
+     * Metrics that measure nothing.
+     */
+    public static final PipelineMetrics DISABLED = new PipelineMetrics(null, false);
+    /**
+     * Bean measuring the bytes allocated by a thread, or <code>null</code> if the JVM cannot.
+     */
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+    /**
+     * Stages of a run, in the order they are reported.
+     */
+    public enum Stage {
+        /**
+         * Reading lines from the input file.
+         */
+        READ,
+        /**
+         * Splitting lines into the fields of residents.
+         */
+        PARSE,
+        /**
+         * Normalizing addresses that are not already cached; part of parsing.
+         */
+        NORMALIZE,
+        /**
+         * Grouping residents into households.
+         */
+        GROUP,
+        /**
+         * Ordering households by address, or residents within them.
+         */
+        SORT,
+        /**
+         * Writing the report.
+         */
+        RENDER;
+
+        /**
+         * Returns the name of the stage in metrics files.
+         *
+         * @return the lower case name of the stage
+         */
+        public String getLabel() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final boolean enabled;
+    private final AddressCache addressCache;
+    private final long[] nanos = new long[Stage.values().length];
+    private final long[] records = new long[Stage.values().length];
+    private final long[] bytes = new long[Stage.values().length];
+    private final long[] allocated = new long[Stage.values().length];
+    private final Span noOp = new Span(this, null);
+    /**
+     * Statistics of the queues between the stages of a staged pipeline.
+     */
+    private final List<StagedPipeline.QueueStats> queues = new ArrayList<>();
+
+    /**
+     * Creates metrics for a run that normalizes addresses with the given cache, and turns on the cache's timing of
+     * normalization.
+     *
+     * @param addressCache the cache whose hits, misses and normalization time are reported
+     */
+    public PipelineMetrics(AddressCache addressCache) {
+        this(addressCache, true);
+    }
+
+    private PipelineMetrics(AddressCache addressCache, boolean enabled) {
+        this.enabled = enabled;
+        this.addressCache = addressCache;
+        if (enabled) {
+            addressCache.setNormalizationTimed(true);
+        }
+    }
+
+    /**
+     * Returns metrics for a run: enabled if a metrics file is to be written or stage events are being recorded by JFR,
+     * and {@link #DISABLED} otherwise.
+     *
+     * @param addressCache the cache used by the run
+     * @param requested    <code>true</code> if a metrics file is to be written
+     * @return the metrics for the run
+     */
+    public static PipelineMetrics forRun(AddressCache addressCache, boolean requested) {
+        if (requested || EventType.getEventType(StageEvent.class).isEnabled()) {
+            return new PipelineMetrics(addressCache);
+        }
+        return DISABLED;
+    }
+
+    /**
+     * Returns whether anything is measured.
+     *
+     * @return <code>false</code> iff these are the {@link #DISABLED} metrics
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Starts measuring a stage, on the calling thread.
+     *
+     * @param stage the stage
+     * @return the span to close when the stage ends
+     */
+    public Span start(Stage stage) {
+        return this.enabled ? new Span(this, stage) : this.noOp;
+    }
+
+    /**
+     * Returns the total wall time measured for a stage.
+     *
+     * @param stage the stage
+     * @return the time spent in the stage, in nanoseconds
+     */
+    public synchronized long getNanos(Stage stage) {
+        if (stage == Stage.NORMALIZE && this.enabled) {
+            return this.addressCache.getNormalizationNanos();
+        }
+        return this.nanos[stage.ordinal()];
+    }
+
+    /**
+     * Returns the number of records processed by a stage: lines, residents or households, depending on the stage.
+     *
+     * @param stage the stage
+     * @return the number of records
+     */
+    public synchronized long getRecords(Stage stage) {
+        if (stage == Stage.NORMALIZE && this.enabled) {
+            return this.addressCache.getMisses();
+        }
+        return this.records[stage.ordinal()];
+    }
+
+    /**
+     * Returns the number of input bytes read by a stage.
+     *
+     * @param stage the stage
+     * @return the number of bytes read
+     */
+    public synchronized long getBytes(Stage stage) {
+        return this.bytes[stage.ordinal()];
+    }
+
+    /**
+     * Returns the number of bytes allocated by a stage on the threads that measured it.
+     *
+     * @param stage the stage
+     * @return the estimated number of bytes allocated, or 0 if the JVM cannot measure allocation
+     */
+    public synchronized long getAllocatedBytes(Stage stage) {
+        return this.allocated[stage.ordinal()];
+    }
+
+    /**
+     * Adds the statistics of the queues of a staged pipeline, to be reported with the stages. Nothing is added to the
+     * {@link #DISABLED} metrics.
+     *
+     * @param stats the statistics of each queue
+     */
+    public synchronized void addQueueStats(List<StagedPipeline.QueueStats> stats) {
+        if (this.enabled) {
+            this.queues.addAll(stats);
+        }
+    }
+
+    /**
+     * Returns the statistics of the queues of the staged pipelines of the run.
+     *
+     * @return the statistics of each queue, or an empty list if no staged pipeline was used
+     */
+    public synchronized List<StagedPipeline.QueueStats> getQueueStats() {
+        return new ArrayList<>(this.queues);
+    }
+
+    private synchronized void add(Stage stage, long nanos, long records, long bytes, long allocated) {
+        this.nanos[stage.ordinal()] += nanos;
+        this.records[stage.ordinal()] += records;
+        this.bytes[stage.ordinal()] += bytes;
+        this.allocated[stage.ordinal()] += allocated;
+    }
+
+    /**
+     * Writes the metrics as a JSON object, with an object per stage, one for the address cache and one per queue.
+     *
+     * @param out the writer to write to
+     * @throws IOException if the metrics cannot be written
+     */
+    public void writeJson(Writer out) throws IOException {
+        out.write("{\n  \"stages\": {");
+        Stage[] stages = Stage.values();
+        for (int i = 0; i < stages.length; i++) {
+            Stage stage = stages[i];
+            out.write(i == 0 ? "\n" : ",\n");
+            out.write("    \"" + stage.getLabel() + "\": {\"wallNanos\": " + getNanos(stage)
+                    + ", \"records\": " + getRecords(stage) + ", \"bytes\": " + getBytes(stage)
+                    + ", \"allocatedBytes\": " + getAllocatedBytes(stage) + "}");
+        }
+        out.write("\n  },\n  \"addressCache\": {\"hits\": " + getCacheHits() + ", \"misses\": " + getCacheMisses()
+                + ", \"hitRate\": " + getCacheHitRate() + "},\n  \"queues\": [");
+        List<StagedPipeline.QueueStats> queues = getQueueStats();
+        for (int i = 0; i < queues.size(); i++) {
+            StagedPipeline.QueueStats queue = queues.get(i);
+            out.write(i == 0 ? "\n" : ",\n");
+            out.write("    {\"name\": \"" + queue.getName() + "\", \"capacity\": " + queue.getCapacity()
+                    + ", \"items\": " + queue.getPuts() + ", \"meanDepth\": " + queue.getMeanDepth()
+                    + ", \"maxDepth\": " + queue.getMaxDepth() + ", \"producerWaitNanos\": "
+                    + queue.getProducerWaitNanos() + ", \"consumerWaitNanos\": " + queue.getConsumerWaitNanos() + "}");
+        }
+        out.write(queues.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text exposition format, labelling stage metrics by stage.
+     *
+     * @param out the writer to write to
+     * @throws IOException if the metrics cannot be written
+     */
+    public void writePrometheus(Writer out) throws IOException {
+        writeHeader(out, "household_stage_seconds", "Wall time spent in each pipeline stage.");
+        for (Stage stage : Stage.values()) {
+            writeSample(out, "household_stage_seconds", stage, Double.toString(getNanos(stage) / 1e9));
+        }
+        writeHeader(out, "household_stage_records", "Records processed by each pipeline stage.");
+        for (Stage stage : Stage.values()) {
+            writeSample(out, "household_stage_records", stage, Long.toString(getRecords(stage)));
+        }
+        writeHeader(out, "household_stage_read_bytes", "Input bytes read by each pipeline stage.");
+        for (Stage stage : Stage.values()) {
+            writeSample(out, "household_stage_read_bytes", stage, Long.toString(getBytes(stage)));
+        }
+        writeHeader(out, "household_stage_allocated_bytes", "Bytes allocated by each pipeline stage.");
+        for (Stage stage : Stage.values()) {
+            writeSample(out, "household_stage_allocated_bytes", stage, Long.toString(getAllocatedBytes(stage)));
+        }
+        writeHeader(out, "household_address_cache_hits", "Address lookups answered from the cache.");
+        out.write("household_address_cache_hits " + getCacheHits() + "\n");
+        writeHeader(out, "household_address_cache_misses", "Address lookups that normalized the address.");
+        out.write("household_address_cache_misses " + getCacheMisses() + "\n");
+        writeHeader(out, "household_address_cache_hit_ratio", "Share of address lookups answered from the cache.");
+        out.write("household_address_cache_hit_ratio " + getCacheHitRate() + "\n");
+
+        List<StagedPipeline.QueueStats> queues = getQueueStats();
+        if (queues.isEmpty()) {
+            return;
+        }
+        writeHeader(out, "household_queue_capacity", "Items each staged pipeline queue holds.");
+        for (StagedPipeline.QueueStats queue : queues) {
+            writeSample(out, "household_queue_capacity", queue, Integer.toString(queue.getCapacity()));
+        }
+        writeHeader(out, "household_queue_items", "Items put on each staged pipeline queue.");
+        for (StagedPipeline.QueueStats queue : queues) {
+            writeSample(out, "household_queue_items", queue, Long.toString(queue.getPuts()));
+        }
+        writeHeader(out, "household_queue_mean_depth", "Mean depth of each staged pipeline queue.");
+        for (StagedPipeline.QueueStats queue : queues) {
+            writeSample(out, "household_queue_mean_depth", queue, Double.toString(queue.getMeanDepth()));
+        }
+        writeHeader(out, "household_queue_max_depth", "Greatest depth of each staged pipeline queue.");
+        for (StagedPipeline.QueueStats queue : queues) {
+            writeSample(out, "household_queue_max_depth", queue, Integer.toString(queue.getMaxDepth()));
+        }
+        writeHeader(out, "household_queue_producer_wait_seconds", "Time producers were blocked on a full queue.");
+        for (StagedPipeline.QueueStats queue : queues) {
+            writeSample(out, "household_queue_producer_wait_seconds", queue,
+                    Double.toString(queue.getProducerWaitNanos() / 1e9));
+        }
+        writeHeader(out, "household_queue_consumer_wait_seconds", "Time consumers waited on an empty queue.");
+        for (StagedPipeline.QueueStats queue : queues) {
+            writeSample(out, "household_queue_consumer_wait_seconds", queue,
+                    Double.toString(queue.getConsumerWaitNanos() / 1e9));
+        }
+    }
+
+    private static void writeHeader(Writer out, String name, String help) throws IOException {
+        out.write("# HELP " + name + " " + help + "\n# TYPE " + name + " gauge\n");
+    }
+
+    private static void writeSample(Writer out, String name, Stage stage, String value) throws IOException {
+        out.write(name + "{stage=\"" + stage.getLabel() + "\"} " + value + "\n");
+    }
+
+    private static void writeSample(Writer out, String name, StagedPipeline.QueueStats queue, String value)
+            throws IOException {
+        out.write(name + "{queue=\"" + queue.getName() + "\"} " + value + "\n");
+    }
+
+    private long getCacheHits() {
+        return this.enabled ? this.addressCache.getHits() : 0;
+    }
+
+    private long getCacheMisses() {
+        return this.enabled ? this.addressCache.getMisses() : 0;
+    }
+
+    private double getCacheHitRate() {
+        long lookups = getCacheHits() + getCacheMisses();
+        return lookups == 0 ? 0.0 : (double) getCacheHits() / lookups;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean res = (com.sun.management.ThreadMXBean) threads;
+            if (res.isThreadAllocatedMemorySupported() && res.isThreadAllocatedMemoryEnabled()) {
+                return res;
+            }
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Measurement of one pass through a stage, recorded when closed.
+     */
+    public static final class Span implements AutoCloseable {
+        private final PipelineMetrics metrics;
+        /**
+         * Stage measured, or <code>null</code> if the span does nothing.
+         */
+        private final Stage stage;
+        private final StageEvent event;
+        private final long startNanos;
+        private final long startAllocated;
+        private final long startHits;
+        private final long startMisses;
+        private final long startNormalizationNanos;
+        private long records;
+        private long bytes;
+
+        private Span(PipelineMetrics metrics, Stage stage) {
+            this.metrics = metrics;
+            this.stage = stage;
+            if (stage == null) {
+                this.event = null;
+                this.startNanos = 0;
+                this.startAllocated = 0;
+                this.startHits = 0;
+                this.startMisses = 0;
+                this.startNormalizationNanos = 0;
+                return;
+            }
+
+            this.event = new StageEvent();
+            this.event.begin();
+            AddressCache addressCache = metrics.addressCache;
+            this.startHits = addressCache.getHits();
+            this.startMisses = addressCache.getMisses();
+            this.startNormalizationNanos = addressCache.getNormalizationNanos();
+            this.startAllocated = allocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * Counts records processed in this span.
+         *
+         * @param count the number of records
+         */
+        public void addRecords(long count) {
+            this.records += count;
+        }
+
+        /**
+         * Counts input bytes read in this span.
+         *
+         * @param count the number of bytes
+         */
+        public void addBytes(long count) {
+            this.bytes += count;
+        }
+
+        /**
+         * Ends the span, adding its measurements to the stage and committing its JFR events.
+         */
+        @Override
+        public void close() {
+            if (this.stage == null) {
+                return;
+            }
+
+            long nanos = System.nanoTime() - this.startNanos;
+            long allocated = allocatedBytes() - this.startAllocated;
+            this.metrics.add(this.stage, nanos, this.records, this.bytes, allocated);
+
+            this.event.end();
+            if (this.event.shouldCommit()) {
+                this.event.stage = this.stage.getLabel();
+                this.event.records = this.records;
+                this.event.bytes = this.bytes;
+                this.event.allocated = allocated;
+                this.event.commit();
+            }
+
+            AddressCache addressCache = this.metrics.addressCache;
+            long hits = addressCache.getHits() - this.startHits;
+            long misses = addressCache.getMisses() - this.startMisses;
+            long normalizationNanos = addressCache.getNormalizationNanos() - this.startNormalizationNanos;
+            if (hits + misses + normalizationNanos > 0) {
+                AddressCacheEvent cacheEvent = new AddressCacheEvent();
+                if (cacheEvent.shouldCommit()) {
+                    cacheEvent.stage = this.stage.getLabel();
+                    cacheEvent.hits = hits;
+                    cacheEvent.misses = misses;
+                    cacheEvent.normalizationTime = normalizationNanos;
+                    cacheEvent.commit();
+                }
+            }
+        }
+    }
+
+    /**
+     * JFR event for one pass through a stage.
+     */
+    @Name("HouseholdEnumeration.Stage")
+    @Label("Pipeline Stage")
+    @Category("Household Enumeration")
+    static final class StageEvent extends Event {
+        @Label("Stage")
+        String stage;
+        @Label("Records")
+        long records;
+        @Label("Bytes Read")
+        @DataAmount
+        long bytes;
+        @Label("Bytes Allocated")
+        @DataAmount
+        long allocated;
+    }
+
+    /**
+     * JFR event for the address cache lookups made during one pass through a stage.
+     */
+    @Name("HouseholdEnumeration.AddressCache")
+    @Label("Address Cache")
+    @Category("Household Enumeration")
+    static final class AddressCacheEvent extends Event {
+        @Label("Stage")
+        String stage;
+        @Label("Hits")
+        long hits;
+        @Label("Misses")
+        long misses;
+        @Label("Normalization Time")
+        @Timespan
+        long normalizationTime;
+    }
+}
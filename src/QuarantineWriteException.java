@@ -0,0 +1,22 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Thrown when a malformed line cannot be written to the quarantine file, to tell it apart from failures to read the
+ * input.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class QuarantineWriteException extends UncheckedIOException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates an exception for a failed write to the quarantine file.
+     *
+     * @param cause the failure to write
+     */
+    public QuarantineWriteException(IOException cause) {
+        super("Quarantine file could not be written: " + cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,142 @@
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the household report, one household at a time, to a {@link Writer}.
+ *
+ * <p>Text is gathered in a character buffer and handed to the writer only when the buffer fills, so the writer need
+ * not be buffered, and no intermediate strings are built except one per household address.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class ReportWriter implements Closeable, Flushable {
+    private static final int BUFFER_SIZE = 1 << 14;
+    /**
+     * Enough characters for any int, including its sign.
+     */
+    private static final int MAX_INT_LENGTH = 11;
+
+    private final Writer out;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int length;
+
+    /**
+     * Creates a report writer.
+     *
+     * @param out the writer to write the report to
+     */
+    public ReportWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes one household: a header line followed by a line for each adult.
+     *
+     * @param address      the address of the household
+     * @param occupants    the number of residents of the household, including minors
+     * @param sortedAdults the adults of the household, in the order they are written; each must live at
+     *                     <code>address</code>
+     * @throws IOException if the report cannot be written
+     */
+    public void writeHousehold(Address address, int occupants, Iterable<Resident> sortedAdults)
+            throws IOException {
+        // Every adult shares the household's address, so its text is built once
+        String addressText = address.toString();
+        append("The household at ");
+        append(addressText);
+        append(" has ");
+        append(occupants);
+        append(occupants == 1 ? " occupant:\n" : " occupants:\n");
+
+        for (Resident resident : sortedAdults) {
+            append("    ");
+            append(resident.getFirstName());
+            append(" ");
+            append(resident.getLastName());
+            append(", ");
+            append(addressText);
+            append(", ");
+            append(resident.getAge());
+            append("\n");
+        }
+    }
+
+    /**
+     * Writes text as is.
+     *
+     * @param text the text to write
+     * @throws IOException if the text cannot be written
+     */
+    public void write(String text) throws IOException {
+        append(text);
+    }
+
+    /**
+     * Writes any buffered text to the underlying writer and flushes it.
+     *
+     * @throws IOException if the text cannot be written
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        this.out.flush();
+    }
+
+    /**
+     * Writes any buffered text to the underlying writer and closes it.
+     *
+     * @throws IOException if the text cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            this.out.close();
+        }
+    }
+
+    private void append(String text) throws IOException {
+        int start = 0;
+        while (start < text.length()) {
+            if (this.length == BUFFER_SIZE) {
+                drain();
+            }
+            int end = Math.min(text.length(), start + BUFFER_SIZE - this.length);
+            text.getChars(start, end, this.buffer, this.length);
+            this.length += end - start;
+            start = end;
+        }
+    }
+
+    private void append(int value) throws IOException {
+        if (BUFFER_SIZE - this.length < MAX_INT_LENGTH) {
+            drain();
+        }
+
+        long remaining = value;
+        if (remaining < 0) {
+            this.buffer[this.length++] = '-';
+            remaining = -remaining;
+        }
+        int digits = 1;
+        for (long power = 10; power <= remaining; power *= 10) {
+            digits++;
+        }
+        for (int i = this.length + digits - 1; i >= this.length; i--) {
+            this.buffer[i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        this.length += digits;
+    }
+
+    private void drain() throws IOException {
+        if (this.length > 0) {
+            this.out.write(this.buffer, 0, this.length);
+            this.length = 0;
+        }
+    }
+}
@@ -1,3 +1,6 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.lang.Comparable;
 
 /**
@@ -37,17 +40,46 @@ public class Resident implements Comparable<Resident> {
     public Resident(String firstName, String lastName, Address address, int age) {
         this.firstName = firstName;
         this.lastName = lastName;
-        this.address = new Address(address);
+        this.address = address;
         this.age = age;
     }
 
+    /**
+     * Creates a resident whose names are supplied by a subclass, which must override {@link #getFirstName()} and
+     * {@link #getLastName()}.
+     *
+     * @param address the address of the resident
+     * @param age     the age of the resident
+     */
+    protected Resident(Address address, int age) {
+        this(null, null, address, age);
+    }
+
+    /**
+     * Returns the resident's first name.
+     *
+     * @return the first name of the resident
+     */
+    public String getFirstName() {
+        return this.firstName;
+    }
+
+    /**
+     * Returns the resident's last name.
+     *
+     * @return the last name of the resident
+     */
+    public String getLastName() {
+        return this.lastName;
+    }
+
     /**
      * Returns the resident's address.
      *
      * @return the address of the resident
      */
     public Address getAddress() {
-        return new Address(this.address);
+        return this.address;
     }
 
     /**
@@ -59,6 +91,33 @@ public class Resident implements Comparable<Resident> {
         return this.age;
     }
 
+    /**
+     * Writes the resident, to be read back by {@link #read(DataInput)}.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written
+     */
+    void write(DataOutput out) throws IOException {
+        this.address.write(out);
+        out.writeUTF(getFirstName());
+        out.writeUTF(getLastName());
+        out.writeInt(this.age);
+    }
+
+    /**
+     * Reads a resident written by {@link #write(DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the resident read
+     * @throws IOException if the input cannot be read
+     */
+    static Resident read(DataInput in) throws IOException {
+        Address address = Address.read(in);
+        String firstName = in.readUTF();
+        String lastName = in.readUTF();
+        return new Resident(firstName, lastName, address, in.readInt());
+    }
+
     /**
      * Compares this resident with the specified resident for order.
      *
@@ -76,11 +135,13 @@ public class Resident implements Comparable<Resident> {
      */
     @Override
     public int compareTo(Resident other) {
-        if (this.lastName.compareTo(other.lastName) != 0) {
-            return this.lastName.compareTo(other.lastName);
+        int lastNames = getLastName().compareTo(other.getLastName());
+        if (lastNames != 0) {
+            return lastNames;
         }
-        if (this.firstName.compareTo(other.firstName) != 0) {
-            return this.firstName.compareTo(other.firstName);
+        int firstNames = getFirstName().compareTo(other.getFirstName());
+        if (firstNames != 0) {
+            return firstNames;
         }
         if (!this.address.equals(other.address)) {
             return this.address.toString().compareTo(other.address.toString());
@@ -115,8 +176,8 @@ public class Resident implements Comparable<Resident> {
      */
     @Override
     public int hashCode() {
-        int res = this.lastName.hashCode() + 11;
-        res += 31 * this.firstName.hashCode() + 13;
+        int res = getLastName().hashCode() + 11;
+        res += 31 * getFirstName().hashCode() + 13;
         res += 31 * this.age + 17;
         res += 31 * this.address.hashCode() + 23;
         return res;
@@ -131,8 +192,8 @@ public class Resident implements Comparable<Resident> {
      */
     @Override
     public String toString() {
-        return this.firstName +
-                " " + this.lastName +
+        return getFirstName() +
+                " " + getLastName() +
                 ", " + this.address +
                 ", " + this.age;
     }
@@ -0,0 +1,217 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parses residents directly from the UTF-8 bytes of an input line, without decoding the line into a
+ * <code>String</code> first.
+ *
+ * <p>A line is expected as <code>"FirstName","LastName","AddressStreet","AddressCity","AddressState","Age"</code>.
+ * Fields are delimited only by the <code>","</code> sequence, so names and streets may contain dashes, spaces or
+ * single commas. As when reading lines as text, the quotes around the whole line may be missing, and stray quotes
+ * inside a field are dropped. Only the text fields are decoded; the age is read straight from its digits. A parser
+ * with lazy names decodes only the address, and returns {@link LazyResident}s that decode their names when first
+ * asked for.
+ *
+ * <p>Instances reuse an internal decoding buffer and are not safe for use by multiple threads.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class ResidentByteParser {
+    /**
+     * Number of fields in a resident line.
+     */
+    static final int FIELD_COUNT = 6;
+
+    private static final byte QUOTE = '"';
+    private static final byte COMMA = ',';
+    private static final long INVALID_AGE = Long.MIN_VALUE;
+
+    /**
+     * Cache used to normalize and share addresses.
+     */
+    private final AddressCache addressCache;
+    /**
+     * Whether names are left undecoded in the buffer until asked for.
+     */
+    private final boolean lazyNames;
+    /**
+     * Offsets of the first byte of each field, relative to the buffer.
+     */
+    private final int[] fieldStarts = new int[FIELD_COUNT];
+    /**
+     * Offsets one past the last byte of each field, relative to the buffer.
+     */
+    private final int[] fieldEnds = new int[FIELD_COUNT];
+    /**
+     * Scratch space fields are copied into before being decoded.
+     */
+    private byte[] scratch = new byte[256];
+    /**
+     * Why the last line parsed was malformed.
+     */
+    private String error;
+
+    /**
+     * Creates a parser that decodes every field.
+     *
+     * @param addressCache the cache used to normalize and share addresses
+     */
+    public ResidentByteParser(AddressCache addressCache) {
+        this(addressCache, false);
+    }
+
+    /**
+     * Creates a parser.
+     *
+     * @param addressCache the cache used to normalize and share addresses
+     * @param lazyNames    whether to return {@link LazyResident}s, which decode their names only when asked for
+     */
+    public ResidentByteParser(AddressCache addressCache, boolean lazyNames) {
+        this.addressCache = addressCache;
+        this.lazyNames = lazyNames;
+    }
+
+    /**
+     * Parses the line held in <code>buffer</code> between <code>start</code> (inclusive) and <code>end</code>
+     * (exclusive). The line must not include its terminator.
+     *
+     * @param buffer the buffer holding the line
+     * @param start  the offset of the first byte of the line
+     * @param end    the offset one past the last byte of the line
+     * @return the resident, or <code>null</code> if the line is malformed, in which case {@link #getError()} says why
+     */
+    public Resident parse(ByteBuffer buffer, int start, int end) {
+        if (!findFields(buffer, start, end)) {
+            return null;
+        }
+
+        long age = parseAge(buffer, this.fieldStarts[5], this.fieldEnds[5]);
+        if (age == INVALID_AGE) {
+            this.error = "Age is not an integer: " + decode(buffer, 5);
+            return null;
+        }
+
+        Address address = this.addressCache.get(decode(buffer, 2), decode(buffer, 3), decode(buffer, 4));
+        if (this.lazyNames) {
+            // Copies the name bytes, so the resident does not keep the buffer of the whole input alive
+            ensureScratch(this.fieldEnds[0] - this.fieldStarts[0] + this.fieldEnds[1] - this.fieldStarts[1]);
+            int firstNameLength = copy(buffer, this.fieldStarts[0], this.fieldEnds[0], this.scratch, 0);
+            int length = copy(buffer, this.fieldStarts[1], this.fieldEnds[1], this.scratch, firstNameLength);
+            return new LazyResident(Arrays.copyOf(this.scratch, length), firstNameLength, address, (int) age);
+        }
+        return new Resident(decode(buffer, 0), decode(buffer, 1), address, (int) age);
+    }
+
+    /**
+     * Returns why the last line parsed was malformed.
+     *
+     * @return a description of what is wrong with the line, or <code>null</code> if no line was malformed yet
+     */
+    String getError() {
+        return this.error;
+    }
+
+    /**
+     * Records the bounds of every field of the line, excluding the quotes around the line if it has them.
+     *
+     * @return <code>true</code> iff the line has exactly {@value #FIELD_COUNT} fields
+     */
+    private boolean findFields(ByteBuffer buffer, int start, int end) {
+        int field = 0;
+        int fieldStart = start < end && buffer.get(start) == QUOTE ? start + 1 : start;
+        int last = end > fieldStart && buffer.get(end - 1) == QUOTE ? end - 1 : end;
+        for (int i = fieldStart; i + 2 < last; i++) {
+            if (buffer.get(i) == QUOTE && buffer.get(i + 1) == COMMA && buffer.get(i + 2) == QUOTE) {
+                // Extra fields are only counted, to say how many there are
+                if (field < FIELD_COUNT - 1) {
+                    this.fieldStarts[field] = fieldStart;
+                    this.fieldEnds[field] = i;
+                }
+                field++;
+                fieldStart = i + 3;
+                i += 2;
+            }
+        }
+        if (field != FIELD_COUNT - 1) {
+            this.error = "Expected " + FIELD_COUNT + " fields but found " + (field + 1);
+            return false;
+        }
+        this.fieldStarts[field] = fieldStart;
+        this.fieldEnds[field] = last;
+        return true;
+    }
+
+    /**
+     * Reads a decimal age, as accepted by {@link Integer#parseInt(String)} once stray quotes are dropped.
+     *
+     * @return the age, or {@link #INVALID_AGE} if the field is not a valid integer
+     */
+    private static long parseAge(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        while (i < end && buffer.get(i) == QUOTE) {
+            i++;
+        }
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '+' || buffer.get(i) == '-')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+
+        long res = 0;
+        boolean digits = false;
+        for (; i < end; i++) {
+            if (buffer.get(i) == QUOTE) {
+                continue;
+            }
+            digits = true;
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID_AGE;
+            }
+            res = res * 10 + digit;
+            if (res > Integer.MAX_VALUE + 1L) {
+                return INVALID_AGE;
+            }
+        }
+        if (!digits) {
+            return INVALID_AGE;
+        }
+        res = negative ? -res : res;
+        return res > Integer.MAX_VALUE ? INVALID_AGE : res;
+    }
+
+    /**
+     * Decodes a text field, dropping any stray quotes inside it.
+     */
+    private String decode(ByteBuffer buffer, int field) {
+        int start = this.fieldStarts[field];
+        int end = this.fieldEnds[field];
+        ensureScratch(end - start);
+        int length = copy(buffer, start, end, this.scratch, 0);
+        return new String(this.scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void ensureScratch(int length) {
+        if (this.scratch.length < length) {
+            this.scratch = new byte[Math.max(length, 2 * this.scratch.length)];
+        }
+    }
+
+    /**
+     * Copies the bytes of a field, dropping any stray quotes inside it.
+     *
+     * @return the offset in <code>dest</code> one past the last byte copied
+     */
+    private static int copy(ByteBuffer buffer, int start, int end, byte[] dest, int destStart) {
+        int res = destStart;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b != QUOTE) {
+                dest[res++] = b;
+            }
+        }
+        return res;
+    }
+}
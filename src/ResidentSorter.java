@@ -0,0 +1,196 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sorts rows of a {@link ResidentStore} into the natural order of their residents without calling
+ * {@link Resident#compareTo(Resident)}.
+ *
+ * <p>The last names, first names and household addresses of the rows are ranked by the store's dictionaries, and the
+ * ages by their distance from the youngest. Sorting then packs each row's ranks into a single <code>long</code> key and
+ * sorts the keys as primitives, so no comparison calls {@link Address#toString()} or allocates. When the ranks do not
+ * fit in a <code>long</code>, the rows are radix sorted on the ranks instead. The adults of every household are sorted
+ * at once, with the household as the most significant key.
+ *
+ * <p>The resulting order, including the relative order of equal residents, is exactly that of sorting each group by
+ * {@link Resident#compareTo(Resident)}, for ages that do not overflow when subtracted.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class ResidentSorter {
+    private ResidentSorter() {
+    }
+
+    /**
+     * Sorts rows of a columnar store into the natural order of their residents, within groups of rows.
+     *
+     * <p>Ranks come straight from the store's dictionaries, so no resident is materialized unless two different
+     * household addresses share a string representation.
+     *
+     * @param residents the store holding the rows
+     * @param rows      the rows to sort
+     * @param groups    the group of each row, the most significant key; groups are numbered from 0
+     * @return the rows, sorted by group and then by the natural order of their residents
+     */
+    public static int[] sortRows(ResidentStore residents, int[] rows, int[] groups) {
+        int n = rows.length;
+        int[] lastNameRanks = residents.getLastNameRanks();
+        int[] firstNameRanks = residents.getFirstNameRanks();
+        int[] addressRanks = residents.getHouseholdAddressRanks();
+        int addressRadix = 0;
+        for (int rank : addressRanks) {
+            addressRadix = Math.max(addressRadix, rank + 1);
+        }
+        if (addressRadix != addressRanks.length) {
+            return sortRowsByCompareTo(residents, rows, groups);
+        }
+
+        int groupRadix = 0;
+        int lastNameRadix = 0;
+        int firstNameRadix = 0;
+        int minAge = Integer.MAX_VALUE;
+        long maxAge = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            groupRadix = Math.max(groupRadix, groups[i] + 1);
+            minAge = Math.min(minAge, residents.getAge(rows[i]));
+            maxAge = Math.max(maxAge, residents.getAge(rows[i]));
+        }
+        for (int rank : lastNameRanks) {
+            lastNameRadix = Math.max(lastNameRadix, rank + 1);
+        }
+        for (int rank : firstNameRanks) {
+            firstNameRadix = Math.max(firstNameRadix, rank + 1);
+        }
+        long ageRadix = maxAge - minAge + 1;
+
+        // Ranks, most significant first: group, last name, first name, address, age
+        int[][] ranks = new int[5][n];
+        for (int i = 0; i < n; i++) {
+            int row = rows[i];
+            ranks[0][i] = groups[i];
+            ranks[1][i] = lastNameRanks[residents.getLastNameId(row)];
+            ranks[2][i] = firstNameRanks[residents.getFirstNameId(row)];
+            ranks[3][i] = addressRanks[residents.getHouseholdId(row)];
+            ranks[4][i] = (int) ((long) residents.getAge(row) - minAge);
+        }
+        if (ageRadix > n) {
+            rankSparse(ranks[4]);
+        }
+
+        int[] radixes = {groupRadix, lastNameRadix, firstNameRadix, addressRadix,
+                ageRadix > n ? n : (int) Math.max(ageRadix, 0)};
+        int[] order = order(ranks, radixes);
+        int[] res = new int[n];
+        for (int i = 0; i < n; i++) {
+            res[i] = rows[order[i]];
+        }
+        return res;
+    }
+
+    private static int[] sortRowsByCompareTo(ResidentStore residents, int[] rows, int[] groups) {
+        Integer[] order = new Integer[rows.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> groups[i])
+                .thenComparing(i -> residents.getResident(rows[i])));
+
+        int[] res = new int[rows.length];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = rows[order[i]];
+        }
+        return res;
+    }
+
+    /**
+     * Returns the positions of the ranked items in sorted order, stable for items with equal ranks.
+     *
+     * @param ranks   for each key, most significant first, the rank of every item
+     * @param radixes for each key, the number of ranks
+     */
+    private static int[] order(int[][] ranks, int[] radixes) {
+        int indexBits = bitsFor(ranks[0].length);
+        int keyBits = indexBits;
+        for (int radix : radixes) {
+            keyBits += bitsFor(radix);
+        }
+        return keyBits < Long.SIZE ? sortPacked(ranks, radixes, indexBits) : sortRadix(ranks, radixes);
+    }
+
+    /**
+     * Sorts by keys packing every rank, most significant first, above the original index.
+     */
+    private static int[] sortPacked(int[][] ranks, int[] radixes, int indexBits) {
+        int n = ranks[0].length;
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            long key = 0;
+            for (int k = 0; k < ranks.length; k++) {
+                key = (key << bitsFor(radixes[k])) | ranks[k][i];
+            }
+            keys[i] = (key << indexBits) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] order = new int[n];
+        long indexMask = (1L << indexBits) - 1;
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) (keys[i] & indexMask);
+        }
+        return order;
+    }
+
+    /**
+     * Stable least significant rank first radix sort, with one counting sort pass per rank.
+     */
+    private static int[] sortRadix(int[][] ranks, int[] radixes) {
+        int n = ranks[0].length;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+
+        int[] next = new int[n];
+        for (int k = ranks.length - 1; k >= 0; k--) {
+            int[] starts = new int[radixes[k] + 1];
+            for (int i = 0; i < n; i++) {
+                starts[ranks[k][i] + 1]++;
+            }
+            for (int r = 0; r < radixes[k]; r++) {
+                starts[r + 1] += starts[r];
+            }
+            for (int index : order) {
+                next[starts[ranks[k][index]]++] = index;
+            }
+            int[] swap = order;
+            order = next;
+            next = swap;
+        }
+        return order;
+    }
+
+    /**
+     * Replaces values spread over a wide range by their rank among the distinct values, so that every rank is below
+     * the number of values.
+     */
+    private static void rankSparse(int[] values) {
+        int[] distinct = values.clone();
+        Arrays.sort(distinct);
+        int size = 0;
+        for (int value : distinct) {
+            if (size == 0 || distinct[size - 1] != value) {
+                distinct[size++] = value;
+            }
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Arrays.binarySearch(distinct, 0, size, values[i]);
+        }
+    }
+
+    /**
+     * Returns the number of bits needed to hold every value below <code>radix</code>.
+     */
+    private static int bitsFor(int radix) {
+        return radix <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(radix - 1);
+    }
+}
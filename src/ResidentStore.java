@@ -0,0 +1,203 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Columnar, in-memory store of residents.
+ *
+ * <p>Each resident is a row spread over primitive columns: the age, and dictionary-encoded ids for the first name,
+ * last name and household. Every distinct name and address is stored once, and no object is kept per resident.
+ * {@link Resident} views are only created when a row is asked for.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class ResidentStore {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * First names, by id.
+     */
+    private final ValueDictionary<String> firstNames;
+    /**
+     * Last names, by id.
+     */
+    private final ValueDictionary<String> lastNames;
+    /**
+     * Household addresses, by household id.
+     */
+    private final ValueDictionary<Address> households;
+    /**
+     * Age of each row.
+     */
+    private int[] ages;
+    /**
+     * First name id of each row.
+     */
+    private int[] firstNameIds;
+    /**
+     * Last name id of each row.
+     */
+    private int[] lastNameIds;
+    /**
+     * Household id of each row.
+     */
+    private int[] householdIds;
+    /**
+     * Number of rows in the store.
+     */
+    private int size;
+
+    /**
+     * Creates an empty store.
+     */
+    public ResidentStore() {
+        this.firstNames = new ValueDictionary<>();
+        this.lastNames = new ValueDictionary<>();
+        this.households = new ValueDictionary<>();
+        this.ages = new int[INITIAL_CAPACITY];
+        this.firstNameIds = new int[INITIAL_CAPACITY];
+        this.lastNameIds = new int[INITIAL_CAPACITY];
+        this.householdIds = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Adds a resident as a new row.
+     *
+     * @param resident the resident to add
+     */
+    public void add(Resident resident) {
+        if (this.size == this.ages.length) {
+            int capacity = 2 * this.size;
+            this.ages = Arrays.copyOf(this.ages, capacity);
+            this.firstNameIds = Arrays.copyOf(this.firstNameIds, capacity);
+            this.lastNameIds = Arrays.copyOf(this.lastNameIds, capacity);
+            this.householdIds = Arrays.copyOf(this.householdIds, capacity);
+        }
+
+        this.ages[this.size] = resident.getAge();
+        this.firstNameIds[this.size] = this.firstNames.encode(resident.getFirstName());
+        this.lastNameIds[this.size] = this.lastNames.encode(resident.getLastName());
+        this.householdIds[this.size] = this.households.encode(resident.getAddress());
+        this.size++;
+    }
+
+    /**
+     * Returns the number of rows in the store.
+     *
+     * @return the number of residents
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of distinct households in the store.
+     *
+     * @return the number of households
+     */
+    public int householdCount() {
+        return this.households.size();
+    }
+
+    /**
+     * Returns the age of a row.
+     *
+     * @param row the row
+     * @return the age of the resident
+     */
+    public int getAge(int row) {
+        checkRow(row);
+        return this.ages[row];
+    }
+
+    /**
+     * Returns the first name id of a row.
+     *
+     * @param row the row
+     * @return the id of the resident's first name
+     */
+    int getFirstNameId(int row) {
+        checkRow(row);
+        return this.firstNameIds[row];
+    }
+
+    /**
+     * Returns the last name id of a row.
+     *
+     * @param row the row
+     * @return the id of the resident's last name
+     */
+    int getLastNameId(int row) {
+        checkRow(row);
+        return this.lastNameIds[row];
+    }
+
+    /**
+     * Returns the rank of every first name, in string order.
+     *
+     * @return the rank of each first name, indexed by id
+     */
+    int[] getFirstNameRanks() {
+        return this.firstNames.ranks(Comparator.naturalOrder());
+    }
+
+    /**
+     * Returns the rank of every last name, in string order.
+     *
+     * @return the rank of each last name, indexed by id
+     */
+    int[] getLastNameRanks() {
+        return this.lastNames.ranks(Comparator.naturalOrder());
+    }
+
+    /**
+     * Returns the rank of every household address, in the order of its string representation.
+     *
+     * @return the rank of each household address, indexed by household id
+     */
+    int[] getHouseholdAddressRanks() {
+        return this.households.ranks(Comparator.comparing(Address::toString));
+    }
+
+    /**
+     * Returns the household id of a row.
+     *
+     * @param row the row
+     * @return the id of the resident's household
+     */
+    public int getHouseholdId(int row) {
+        checkRow(row);
+        return this.householdIds[row];
+    }
+
+    /**
+     * Returns the address of a household.
+     *
+     * @param householdId the id of the household
+     * @return the address of the household
+     */
+    public Address getHouseholdAddress(int householdId) {
+        return this.households.decode(householdId);
+    }
+
+    /**
+     * Creates a resident view of a row.
+     *
+     * @param row the row
+     * @return the resident stored in the row
+     */
+    public Resident getResident(int row) {
+        checkRow(row);
+        return new Resident(this.firstNames.decode(this.firstNameIds[row]),
+                this.lastNames.decode(this.lastNameIds[row]),
+                this.households.decode(this.householdIds[row]),
+                this.ages[row]);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= this.size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + this.size);
+        }
+    }
+}
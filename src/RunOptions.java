@@ -0,0 +1,571 @@
+import java.nio.file.Path;
+
+/**
+ * Command line options for {@link Solution}.
+ *
+ * <p>Options are given as <code>--name</code> or <code>--name=value</code> flags ahead of the input file, which is
+ * always the last argument.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class RunOptions {
+    /**
+     * Default milliseconds between polls of a followed input file.
+     */
+    public static final int DEFAULT_FOLLOW_INTERVAL = 1000;
+    /**
+     * Path of the input file.
+     */
+    private String inputPath;
+    /**
+     * Path of the file the report is written to, or <code>null</code> to write it to standard output.
+     */
+    private String outputPath;
+    /**
+     * Whether residents are folded into households as they are read, instead of reading the whole file first.
+     */
+    private boolean streaming;
+    /**
+     * Whether the input file is memory-mapped and parsed directly from its bytes.
+     */
+    private boolean mapped;
+    /**
+     * Whether residents are held in a columnar store rather than as objects grouped by household.
+     */
+    private boolean columnar;
+    /**
+     * Number of worker threads used to parse and group the input file, or 0 to use a single thread.
+     */
+    private int workers;
+    /**
+     * Maximum number of normalized addresses cached; 0 disables the cache.
+     */
+    private int addressCacheCapacity = AddressCache.DEFAULT_CAPACITY;
+    /**
+     * Whether address cache statistics are printed to standard error after the run.
+     */
+    private boolean cacheStatsShown;
+    /**
+     * Whether households are grouped by an external merge sort, spilling sorted runs to disk.
+     */
+    private boolean external;
+    /**
+     * Estimated size, in bytes, of the residents buffered by the external sort before a run is spilled.
+     */
+    private long sortMemory = ExternalHouseholdSorter.DEFAULT_MEMORY_BUDGET;
+    /**
+     * Directory the external sort spills runs to.
+     */
+    private Path tempDir = Path.of(System.getProperty("java.io.tmpdir"));
+    /**
+     * Milliseconds between polls of the input file for appended lines, or 0 to read it once.
+     */
+    private int followInterval;
+    /**
+     * Path of the file a snapshot of the households is saved to, or <code>null</code> to not save one.
+     */
+    private String snapshotSavePath;
+    /**
+     * Whether the input file is a snapshot saved by an earlier run, rather than resident lines.
+     */
+    private boolean snapshotLoaded;
+    /**
+     * Path of the file per-stage metrics are written to after the run, or <code>null</code> to not write them.
+     */
+    private String metricsPath;
+    /**
+     * Port the household query server listens on, or 0 to write the report and exit.
+     */
+    private int servePort;
+    /**
+     * Maximum number of input files processed at once in batch mode, or 0 to process a single input file.
+     */
+    private int batchParallelism;
+    /**
+     * Directory the report of each input file is written to in batch mode, or <code>null</code> to write each next to
+     * its input file.
+     */
+    private Path reportDir;
+    /**
+     * Path of the file the merged report of every input file is written to in batch mode, or <code>null</code> to not
+     * write one.
+     */
+    private String mergedReportPath;
+    /**
+     * Minimum similarity of near-duplicate addresses merged into one household, or 0 to merge only equal addresses.
+     */
+    private double fuzzyThreshold;
+    /**
+     * Number of largest households listed in the aggregate summary, or 0 to write the household report.
+     */
+    private int aggregateTop;
+    /**
+     * Number of parser threads of the staged pipeline, or 0 to not use the pipeline.
+     */
+    private int pipelineParsers;
+    /**
+     * Number of threads rendering the report, or 0 to render it on the main thread.
+     */
+    private int renderThreads;
+    /**
+     * Whether malformed lines are skipped rather than failing the run.
+     */
+    private boolean malformedSkipped;
+    /**
+     * Number of malformed lines that fails the run, or 0 if not configured.
+     */
+    private int maxErrors;
+    /**
+     * Path of the file skipped malformed lines are written to, or <code>null</code> to not write them.
+     */
+    private Path quarantinePath;
+
+    private RunOptions() {
+    }
+
+    /**
+     * Parses the command line arguments.
+     *
+     * @param args the command line arguments
+     * @return the parsed options
+     * @throws IllegalArgumentException if an option is unknown or malformed, or no input file is given
+     */
+    public static RunOptions parse(String[] args) {
+        RunOptions options = new RunOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                if (options.inputPath != null) {
+                    throw new IllegalArgumentException("More than one input file given");
+                }
+                options.inputPath = arg;
+                continue;
+            }
+
+            int eqIdx = arg.indexOf('=');
+            String name = eqIdx < 0 ? arg.substring(2) : arg.substring(2, eqIdx);
+            String value = eqIdx < 0 ? null : arg.substring(eqIdx + 1);
+            switch (name) {
+                case "stream":
+                    options.streaming = true;
+                    break;
+                case "mmap":
+                    options.mapped = true;
+                    break;
+                case "columnar":
+                    options.columnar = true;
+                    break;
+                case "parallel":
+                    options.workers = value == null
+                            ? Runtime.getRuntime().availableProcessors()
+                            : parsePositiveInt(arg, value);
+                    break;
+                case "address-cache":
+                    options.addressCacheCapacity = parseNonNegativeInt(arg, value);
+                    break;
+                case "cache-stats":
+                    options.cacheStatsShown = true;
+                    break;
+                case "output":
+                    if (value == null || value.isEmpty()) {
+                        throw new IllegalArgumentException("Expected a file: " + arg);
+                    }
+                    options.outputPath = value;
+                    break;
+                case "follow":
+                    options.followInterval = value == null ? DEFAULT_FOLLOW_INTERVAL : parsePositiveInt(arg, value);
+                    break;
+                case "save-snapshot":
+                    if (value == null || value.isEmpty()) {
+                        throw new IllegalArgumentException("Expected a file: " + arg);
+                    }
+                    options.snapshotSavePath = value;
+                    break;
+                case "load-snapshot":
+                    options.snapshotLoaded = true;
+                    break;
+                case "metrics":
+                    if (value == null || value.isEmpty()) {
+                        throw new IllegalArgumentException("Expected a file: " + arg);
+                    }
+                    options.metricsPath = value;
+                    break;
+                case "serve":
+                    options.servePort = value == null ? HouseholdServer.DEFAULT_PORT : parsePositiveInt(arg, value);
+                    break;
+                case "batch":
+                    options.batchParallelism = value == null
+                            ? Runtime.getRuntime().availableProcessors()
+                            : parsePositiveInt(arg, value);
+                    break;
+                case "report-dir":
+                    if (value == null || value.isEmpty()) {
+                        throw new IllegalArgumentException("Expected a directory: " + arg);
+                    }
+                    options.reportDir = Path.of(value);
+                    break;
+                case "merged":
+                    if (value == null || value.isEmpty()) {
+                        throw new IllegalArgumentException("Expected a file: " + arg);
+                    }
+                    options.mergedReportPath = value;
+                    break;
+                case "fuzzy":
+                    options.fuzzyThreshold = value == null
+                            ? FuzzyHouseholdMerger.DEFAULT_THRESHOLD
+                            : parseFraction(arg, value);
+                    break;
+                case "pipeline":
+                    options.pipelineParsers = value == null
+                            ? Runtime.getRuntime().availableProcessors()
+                            : parsePositiveInt(arg, value);
+                    break;
+                case "render-threads":
+                    options.renderThreads = value == null
+                            ? Runtime.getRuntime().availableProcessors()
+                            : parsePositiveInt(arg, value);
+                    break;
+                case "aggregate":
+                    options.aggregateTop = value == null ? AggregateReport.DEFAULT_TOP : parsePositiveInt(arg, value);
+                    break;
+                case "skip-malformed":
+                    options.malformedSkipped = true;
+                    break;
+                case "max-errors":
+                    options.maxErrors = parsePositiveInt(arg, value);
+                    break;
+                case "quarantine":
+                    if (value == null || value.isEmpty()) {
+                        throw new IllegalArgumentException("Expected a file: " + arg);
+                    }
+                    options.quarantinePath = Path.of(value);
+                    break;
+                case "external":
+                    options.external = true;
+                    break;
+                case "sort-memory":
+                    options.external = true;
+                    options.sortMemory = parseSize(arg, value);
+                    break;
+                case "tmpdir":
+                    if (value == null || value.isEmpty()) {
+                        throw new IllegalArgumentException("Expected a directory: " + arg);
+                    }
+                    options.external = true;
+                    options.tempDir = Path.of(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        if (options.inputPath == null) {
+            throw new IllegalArgumentException("No input file given");
+        }
+        if (options.batchParallelism == 0 && (options.reportDir != null || options.mergedReportPath != null)) {
+            options.batchParallelism = Runtime.getRuntime().availableProcessors();
+        }
+        return options;
+    }
+
+    private static int parsePositiveInt(String arg, String value) {
+        int res = parseNonNegativeInt(arg, value);
+        if (res == 0) {
+            throw new IllegalArgumentException("Expected a positive integer: " + arg);
+        }
+        return res;
+    }
+
+    /**
+     * Parses a positive number of bytes, optionally suffixed by k, m or g for KiB, MiB or GiB.
+     */
+    private static long parseSize(String arg, String value) {
+        if (value != null && !value.isEmpty()) {
+            int shift = 0;
+            switch (Character.toLowerCase(value.charAt(value.length() - 1))) {
+                case 'k':
+                    shift = 10;
+                    break;
+                case 'm':
+                    shift = 20;
+                    break;
+                case 'g':
+                    shift = 30;
+                    break;
+                default:
+                    break;
+            }
+            try {
+                long res = Long.parseLong(shift == 0 ? value : value.substring(0, value.length() - 1));
+                if (res > 0 && res <= Long.MAX_VALUE >> shift) {
+                    return res << shift;
+                }
+            } catch (NumberFormatException nfe) {
+                // Reported below, along with non-positive values
+            }
+        }
+        throw new IllegalArgumentException("Expected a positive size in bytes: " + arg);
+    }
+
+    /**
+     * Parses a number above 0 and at most 1.
+     */
+    private static double parseFraction(String arg, String value) {
+        try {
+            double res = Double.parseDouble(value);
+            if (res > 0 && res <= 1) {
+                return res;
+            }
+        } catch (NumberFormatException nfe) {
+            // Reported below, along with values out of range
+        }
+        throw new IllegalArgumentException("Expected a number above 0 and at most 1: " + arg);
+    }
+
+    private static int parseNonNegativeInt(String arg, String value) {
+        try {
+            int res = Integer.parseInt(value == null ? "" : value);
+            if (res >= 0) {
+                return res;
+            }
+        } catch (NumberFormatException nfe) {
+            // Reported below, along with negative values
+        }
+        throw new IllegalArgumentException("Expected a non-negative integer: " + arg);
+    }
+
+    /**
+     * Returns the path of the input file.
+     *
+     * @return the input file path
+     */
+    public String getInputPath() {
+        return this.inputPath;
+    }
+
+    /**
+     * Returns the path of the file the report is written to.
+     *
+     * @return the output file path, or <code>null</code> if the report is written to standard output
+     */
+    public String getOutputPath() {
+        return this.outputPath;
+    }
+
+    /**
+     * Returns whether residents are folded into households as they are read.
+     *
+     * @return <code>true</code> iff streaming ingestion was requested
+     */
+    public boolean isStreaming() {
+        return this.streaming;
+    }
+
+    /**
+     * Returns whether the input file is memory-mapped and parsed directly from its bytes.
+     *
+     * @return <code>true</code> iff memory-mapped parsing was requested
+     */
+    public boolean isMapped() {
+        return this.mapped;
+    }
+
+    /**
+     * Returns whether residents are held in a columnar store.
+     *
+     * @return <code>true</code> iff the columnar store was requested
+     */
+    public boolean isColumnar() {
+        return this.columnar;
+    }
+
+    /**
+     * Returns the number of worker threads used to parse and group the input file.
+     *
+     * @return the number of workers, or 0 if the input is processed on a single thread
+     */
+    public int getWorkers() {
+        return this.workers;
+    }
+
+    /**
+     * Returns the maximum number of normalized addresses to cache.
+     *
+     * @return the address cache capacity, or 0 if the cache is disabled
+     */
+    public int getAddressCacheCapacity() {
+        return this.addressCacheCapacity;
+    }
+
+    /**
+     * Returns whether address cache statistics are printed to standard error after the run.
+     *
+     * @return <code>true</code> iff cache statistics were requested
+     */
+    public boolean isCacheStatsShown() {
+        return this.cacheStatsShown;
+    }
+
+    /**
+     * Returns whether households are grouped by an external merge sort that spills to disk.
+     *
+     * <p>Also set by giving the sort memory or temporary directory.
+     *
+     * @return <code>true</code> iff the external sort was requested
+     */
+    public boolean isExternal() {
+        return this.external;
+    }
+
+    /**
+     * Returns the estimated size of the residents buffered by the external sort before a run is spilled.
+     *
+     * @return the external sort memory budget, in bytes
+     */
+    public long getSortMemory() {
+        return this.sortMemory;
+    }
+
+    /**
+     * Returns the directory the external sort spills runs to.
+     *
+     * @return the temporary directory
+     */
+    public Path getTempDir() {
+        return this.tempDir;
+    }
+
+    /**
+     * Returns the time between polls of the input file for appended lines.
+     *
+     * @return the poll interval in milliseconds, or 0 if the input file is read once
+     */
+    public int getFollowInterval() {
+        return this.followInterval;
+    }
+
+    /**
+     * Returns the path of the file a snapshot of the households is saved to.
+     *
+     * @return the snapshot file path, or <code>null</code> if no snapshot is saved
+     */
+    public String getSnapshotSavePath() {
+        return this.snapshotSavePath;
+    }
+
+    /**
+     * Returns whether the input file is a snapshot saved by an earlier run.
+     *
+     * @return <code>true</code> iff the input is a snapshot
+     */
+    public boolean isSnapshotLoaded() {
+        return this.snapshotLoaded;
+    }
+
+    /**
+     * Returns the path of the file per-stage metrics are written to after the run: as JSON if its name ends with
+     * <code>.json</code>, and in the Prometheus text format otherwise.
+     *
+     * @return the metrics file path, or <code>null</code> if no metrics are written
+     */
+    public String getMetricsPath() {
+        return this.metricsPath;
+    }
+
+    /**
+     * Returns the port the household query server listens on, on the loopback interface.
+     *
+     * @return the port, or 0 if the report is written instead of serving queries
+     */
+    public int getServePort() {
+        return this.servePort;
+    }
+
+    /**
+     * Returns the maximum number of input files processed at once in batch mode, where the input path is a directory
+     * or glob naming many input files.
+     *
+     * <p>Also set by giving the report directory or merged report.
+     *
+     * @return the batch parallelism, or 0 if the input path is a single input file
+     */
+    public int getBatchParallelism() {
+        return this.batchParallelism;
+    }
+
+    /**
+     * Returns the directory the report of each input file is written to in batch mode.
+     *
+     * @return the report directory, or <code>null</code> if each report is written next to its input file
+     */
+    public Path getReportDir() {
+        return this.reportDir;
+    }
+
+    /**
+     * Returns the path of the file the merged report of every input file is written to in batch mode.
+     *
+     * @return the merged report file path, or <code>null</code> if no merged report is written
+     */
+    public String getMergedReportPath() {
+        return this.mergedReportPath;
+    }
+
+    /**
+     * Returns the minimum similarity of near-duplicate addresses merged into one household.
+     *
+     * @return the similarity threshold, or 0 if only equal addresses share a household
+     */
+    public double getFuzzyThreshold() {
+        return this.fuzzyThreshold;
+    }
+
+    /**
+     * Returns the number of threads parsing chunks of the input file in the staged pipeline.
+     *
+     * @return the number of parser threads, or 0 if the staged pipeline is not used
+     */
+    public int getPipelineParsers() {
+        return this.pipelineParsers;
+    }
+
+    /**
+     * Returns the number of largest households listed in the aggregate summary written instead of the report.
+     *
+     * @return the number of households listed, or 0 if the household report is written
+     */
+    public int getAggregateTop() {
+        return this.aggregateTop;
+    }
+
+    /**
+     * Returns the number of malformed lines that fails the run. Malformed lines before it are skipped.
+     *
+     * @return the configured limit; otherwise {@link MalformedLinePolicy#UNLIMITED} if malformed lines are skipped or
+     *         quarantined, or 1 to fail on the first
+     */
+    public int getMaxErrors() {
+        if (this.maxErrors > 0) {
+            return this.maxErrors;
+        }
+        return this.malformedSkipped || this.quarantinePath != null ? MalformedLinePolicy.UNLIMITED : 1;
+    }
+
+    /**
+     * Returns the file skipped malformed lines are written to.
+     *
+     * @return the path of the quarantine file, or <code>null</code> if skipped lines are not written
+     */
+    public Path getQuarantinePath() {
+        return this.quarantinePath;
+    }
+
+    /**
+     * Returns the number of threads rendering partitions of the report.
+     *
+     * @return the number of render threads, or 0 if the report is rendered on the main thread
+     */
+    public int getRenderThreads() {
+        return this.renderThreads;
+    }
+}
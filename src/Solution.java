@@ -1,7 +1,19 @@
-import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 /**
  * Solution launch point for exercise, responsible for reading the input from a file and processing it.
@@ -10,101 +22,708 @@ import java.util.stream.Collectors;
  * @version 1.0
  */
 public class Solution {
-    private static final String USAGE = "Pass the file to be used as data as the sole argument to this program";
+    private static final String USAGE = "Pass the file to be used as data as the last argument to this program, "
+            + "optionally preceded by options (see README.md)";
+    private static final String FIELD_SEPARATOR = "\",\"";
+    private static final AddressCache UNCACHED = new AddressCache(0);
     public static void main(String[] args) {
-        if (args.length != 1) {
+        RunOptions options = null;
+        try {
+            options = RunOptions.parse(args);
+        } catch (IllegalArgumentException iae) {
             System.out.println(USAGE);
-        } else {
-            Scanner scanner = null;
+        }
+
+        if (options != null) {
+            ReportWriter out;
+            try {
+                out = openOutput(options);
+            } catch (IOException ioe) {
+                System.out.println("Output file could not be written: " + ioe.getMessage());
+                return;
+            }
+
             try {
-                File inputFile = new File(args[0]);
-                scanner = new Scanner(inputFile);
-                System.out.println(start(scanner));
-                scanner.close();
-            } catch (FileNotFoundException fnfe) {
+                AddressCache addressCache = new AddressCache(options.getAddressCacheCapacity());
+                PipelineMetrics metrics = PipelineMetrics.forRun(addressCache, options.getMetricsPath() != null);
+                run(options, addressCache, out, metrics);
+                if (options.getOutputPath() == null) {
+                    // Matches the line printing the whole report used to end with
+                    out.write(System.lineSeparator());
+                }
+                out.flush();
+                if (options.isCacheStatsShown()) {
+                    System.err.println(addressCache);
+                }
+                if (options.getMetricsPath() != null) {
+                    writeMetrics(metrics, Path.of(options.getMetricsPath()));
+                }
+            } catch (FileNotFoundException | NoSuchFileException fnfe) {
                 System.out.println("Please pass a filepath as the argument for this program.");
             } catch (InputMismatchException ime) {
                 System.out.println("Input file is malformed.");
-                scanner.close();
+                if (ime.getMessage() != null) {
+                    System.err.println(ime.getMessage());
+                }
+            } catch (QuarantineWriteException qwe) {
+                System.out.println("Quarantine file could not be written: " + qwe.getCause().getMessage());
+            } catch (UncheckedIOException uioe) {
+                System.out.println("Input file could not be read: " + uioe.getCause().getMessage());
+            } catch (IOException ioe) {
+                System.out.println("Input file could not be read: " + ioe.getMessage());
+            } finally {
+                closeOutput(options, out);
+            }
+        }
+    }
+
+    private static ReportWriter openOutput(RunOptions options) throws IOException {
+        if (options.getOutputPath() == null) {
+            return new ReportWriter(new OutputStreamWriter(System.out));
+        }
+        return new ReportWriter(new OutputStreamWriter(Files.newOutputStream(Path.of(options.getOutputPath())),
+                StandardCharsets.UTF_8));
+    }
+
+    private static void writeMetrics(PipelineMetrics metrics, Path path) {
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            if (path.toString().endsWith(".json")) {
+                metrics.writeJson(out);
+            } else {
+                metrics.writePrometheus(out);
+            }
+        } catch (IOException ioe) {
+            System.out.println("Metrics file could not be written: " + ioe.getMessage());
+        }
+    }
+
+    private static void closeOutput(RunOptions options, ReportWriter out) {
+        try {
+            if (options.getOutputPath() == null) {
+                out.flush();
+            } else {
+                out.close();
+            }
+        } catch (IOException ioe) {
+            System.out.println("Output file could not be written: " + ioe.getMessage());
+        }
+    }
+
+    static void run(RunOptions options, AddressCache addressCache, ReportWriter out, PipelineMetrics metrics)
+            throws IOException {
+        MalformedLinePolicy policy;
+        if (options.getQuarantinePath() == null) {
+            policy = new MalformedLinePolicy(options.getMaxErrors(), null);
+            run(options, addressCache, policy, out, metrics);
+        } else {
+            try (Writer quarantine = Files.newBufferedWriter(options.getQuarantinePath(), StandardCharsets.UTF_8)) {
+                policy = new MalformedLinePolicy(options.getMaxErrors(), quarantine);
+                run(options, addressCache, policy, out, metrics);
+            }
+        }
+        if (policy.getRejectedCount() > 0) {
+            System.err.println("Skipped " + policy.getRejectedCount() + " malformed lines");
+        }
+    }
+
+    private static void run(RunOptions options, AddressCache addressCache, MalformedLinePolicy policy,
+                            ReportWriter out, PipelineMetrics metrics) throws IOException {
+        if (options.getBatchParallelism() > 0) {
+            List<Path> inputs = BatchRunner.findInputs(options.getInputPath());
+            Path mergedReport = options.getMergedReportPath() == null ? null : Path.of(options.getMergedReportPath());
+            BatchRunner runner = new BatchRunner(options.getBatchParallelism(), addressCache);
+            for (BatchRunner.Result result : runner.run(inputs, options.getReportDir(), mergedReport)) {
+                out.write(result + System.lineSeparator());
+            }
+            return;
+        }
+
+        Path inputFile = Path.of(options.getInputPath());
+        if (options.isSnapshotLoaded()) {
+            HouseholdSnapshot households;
+            try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.READ)) {
+                households = HouseholdSnapshot.load(inputFile);
+                span.addRecords(households.size());
+                span.addBytes(Files.size(inputFile));
+            }
+            try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.RENDER)) {
+                writeHouseholds(households, out);
+                span.addRecords(households.size());
+            }
+        } else if (options.getSnapshotSavePath() != null) {
+            HouseholdIndex households = build(options, inputFile, addressCache, policy, metrics);
+            HouseholdSnapshot.write(households, Path.of(options.getSnapshotSavePath()));
+            writeHouseholds(households, out, metrics, options.getRenderThreads());
+        } else if (options.getServePort() > 0) {
+            serve(build(options, inputFile, addressCache, policy, metrics), addressCache, options.getServePort(), out);
+        } else if (options.getAggregateTop() > 0) {
+            AggregateReport aggregate = new AggregateReport(options.getAggregateTop());
+            try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.PARSE)) {
+                readResidents(inputFile, addressCache, policy, aggregate::add);
+                span.addRecords(aggregate.getResidentCount());
+                span.addBytes(Files.size(inputFile));
+            }
+            try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.RENDER)) {
+                aggregate.writeTo(out);
+                span.addRecords(aggregate.getResidentCount());
+            }
+        } else if (options.getFuzzyThreshold() > 0) {
+            FuzzyHouseholdMerger.Result merged = new FuzzyHouseholdMerger(options.getFuzzyThreshold())
+                    .merge(build(options, inputFile, addressCache, policy, metrics));
+            for (FuzzyHouseholdMerger.Merge merge : merged.getMerges()) {
+                System.err.println(merge);
+            }
+            writeHouseholds(merged.getHouseholds(), out, metrics, options.getRenderThreads());
+        } else if (options.getFollowInterval() > 0) {
+            new TailFollower(inputFile, addressCache, policy).follow(out, options.getFollowInterval(),
+                    TailFollower.readCommands(System.in));
+        } else if (options.isExternal()) {
+            writeExternal(inputFile, addressCache, policy, options.getSortMemory(), options.getTempDir(), out,
+                    metrics);
+        } else if (options.isColumnar()) {
+            ResidentStore residents;
+            try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.PARSE)) {
+                residents = readColumnar(inputFile, addressCache, policy);
+                span.addRecords(residents.size());
+                span.addBytes(Files.size(inputFile));
+            }
+            writeHouseholds(residents, out, metrics);
+        } else if (options.getWorkers() > 0 || options.isMapped() || options.getPipelineParsers() > 0) {
+            writeHouseholds(build(options, inputFile, addressCache, policy, metrics), out, metrics,
+                    options.getRenderThreads());
+        } else {
+            try (Scanner scanner = openScanner(inputFile)) {
+                if (options.isStreaming()) {
+                    HouseholdIndex households;
+                    try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.PARSE)) {
+                        households = readStreaming(scanner, addressCache, policy);
+                        checkRead(scanner);
+                        span.addRecords(households.getResidentCount());
+                        span.addBytes(Files.size(inputFile));
+                    }
+                    writeHouseholds(households, out, metrics, options.getRenderThreads());
+                } else {
+                    SortedMap<Address, List<Resident>> households = read(scanner, addressCache, policy, metrics);
+                    checkRead(scanner);
+                    try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.RENDER)) {
+                        writeHouseholds(households, out, options.getRenderThreads());
+                        span.addRecords(households.size());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Answers queries over the households until told to quit on standard input.
+     */
+    private static void serve(HouseholdIndex households, AddressCache addressCache, int port, ReportWriter out)
+            throws IOException {
+        HouseholdServer server = new HouseholdServer(households, addressCache);
+        InetSocketAddress address = server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        out.write("Serving households at http://" + address.getHostString() + ":" + address.getPort()
+                + "/ until \"" + TailFollower.QUIT_COMMAND + "\" is entered" + System.lineSeparator());
+        out.flush();
+
+        BlockingQueue<String> commands = TailFollower.readCommands(System.in);
+        try {
+            while (!TailFollower.QUIT_COMMAND.equals(commands.take())) {
+                // Other commands are ignored
             }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Parses and groups the input file with the staged pipeline if asked to, and otherwise with the memory-mapped
+     * reader, on several threads if asked to. Compressed input cannot be split between threads, so is read as in
+     * {@link #readResidents}.
+     */
+    private static HouseholdIndex build(RunOptions options, Path inputFile, AddressCache addressCache,
+                                        MalformedLinePolicy policy, PipelineMetrics metrics) throws IOException {
+        try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.PARSE)) {
+            HouseholdIndex households;
+            if (options.getPipelineParsers() > 0) {
+                StagedPipeline pipeline = new StagedPipeline(options.getPipelineParsers(), addressCache);
+                households = pipeline.build(inputFile, policy);
+                metrics.addQueueStats(pipeline.getQueueStats());
+            } else if (options.getWorkers() > 0 && !InflatingInputStream.isGzip(inputFile)) {
+                households = ParallelHouseholdBuilder.build(inputFile, options.getWorkers(), false, addressCache,
+                        policy);
+            } else {
+                households = readMapped(inputFile, addressCache, policy);
+            }
+            if (metrics.isEnabled()) {
+                span.addRecords(households.getResidentCount());
+                span.addBytes(Files.size(inputFile));
+            }
+            return households;
         }
     }
 
     public static String start(Scanner scanner) {
-        List<String> data = getDataFromFile(scanner);
+        return start(scanner, new AddressCache(AddressCache.DEFAULT_CAPACITY));
+    }
+
+    public static String start(Scanner scanner, AddressCache addressCache) {
+        return getHouseholdsDisplay(read(scanner, addressCache));
+    }
+
+    public static String startStreaming(Scanner scanner, AddressCache addressCache) {
+        return getHouseholdsDisplay(readStreaming(scanner, addressCache));
+    }
+
+    public static String startMapped(Path inputFile, AddressCache addressCache) throws IOException {
+        return getHouseholdsDisplay(readMapped(inputFile, addressCache));
+    }
+
+    public static String startParallel(Path inputFile, int workers, AddressCache addressCache)
+            throws IOException {
+        return getHouseholdsDisplay(ParallelHouseholdBuilder.build(inputFile, workers, false, addressCache));
+    }
+
+    public static String startColumnar(Path inputFile, AddressCache addressCache) throws IOException {
+        return getHouseholdsDisplay(readColumnar(inputFile, addressCache));
+    }
+
+    public static String startSnapshot(Path snapshotFile) throws IOException {
+        HouseholdSnapshot households = HouseholdSnapshot.load(snapshotFile);
+        return render(out -> writeHouseholds(households, out));
+    }
+
+    public static String startExternal(Path inputFile, AddressCache addressCache, long memoryBudget, Path tempDir)
+            throws IOException {
+        StringWriter res = new StringWriter();
+        try (ReportWriter out = new ReportWriter(res)) {
+            writeExternal(inputFile, addressCache, memoryBudget, tempDir, out);
+        }
+        return res.toString();
+    }
+
+    static SortedMap<Address, List<Resident>> read(Scanner scanner, AddressCache addressCache) {
+        return read(scanner, addressCache, PipelineMetrics.DISABLED);
+    }
+
+    static SortedMap<Address, List<Resident>> read(Scanner scanner, AddressCache addressCache,
+                                                   PipelineMetrics metrics) {
+        return read(scanner, addressCache, MalformedLinePolicy.failFast(), metrics);
+    }
+
+    static SortedMap<Address, List<Resident>> read(Scanner scanner, AddressCache addressCache,
+                                                   MalformedLinePolicy policy, PipelineMetrics metrics) {
+        List<String> data;
+        try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.READ)) {
+            data = getDataFromFile(scanner);
+            span.addRecords(data.size());
+            if (metrics.isEnabled()) {
+                for (String datum : data) {
+                    // Estimates the UTF-8 size of the line and its terminator, assuming ASCII
+                    span.addBytes(datum.length() + 1);
+                }
+            }
+        }
 
-        if (!data.isEmpty()) {
-            List<Resident> residents = new ArrayList<>();
-            for (String datum : data) {
-                Resident resident = constructResident(datum);
-                if (resident != null) {
+        List<Resident> residents = new ArrayList<>();
+        try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.PARSE)) {
+            for (int i = 0; i < data.size(); i++) {
+                Resident resident = constructResident(data.get(i), addressCache);
+                if (resident == null) {
+                    policy.reject(i + 1, data.get(i), describeMalformed(data.get(i)));
+                } else {
                     residents.add(resident);
                 }
             }
+            span.addRecords(residents.size());
+        }
+
+        return getHouseholds(residents, metrics);
+    }
+
+    static HouseholdIndex readStreaming(Scanner scanner, AddressCache addressCache) {
+        return readStreaming(scanner, addressCache, MalformedLinePolicy.failFast());
+    }
 
-            if (data.size() != residents.size()) {
-                throw new InputMismatchException();
+    static HouseholdIndex readStreaming(Scanner scanner, AddressCache addressCache, MalformedLinePolicy policy) {
+        HouseholdIndex households = new HouseholdIndex(false);
+        long lineNumber = 0;
+        while (scanner.hasNextLine()) {
+            String line = scanner.nextLine();
+            lineNumber++;
+            Resident resident = constructResident(line, addressCache);
+            if (resident == null) {
+                policy.reject(lineNumber, line, describeMalformed(line));
+            } else {
+                households.add(resident);
             }
+        }
+
+        return households;
+    }
 
-            SortedMap<Address, List<Resident>> households = getHouseholds(residents);
+    /**
+     * Opens the input file for reading line by line, inflating it on a separate thread if it is gzip-compressed.
+     */
+    private static Scanner openScanner(Path inputFile) throws IOException {
+        if (InflatingInputStream.isGzip(inputFile)) {
+            return new Scanner(new InflatingInputStream(inputFile), StandardCharsets.UTF_8);
+        }
+        return new Scanner(inputFile.toFile());
+    }
 
-            return getHouseholdsDisplay(households);
+    /**
+     * Throws the error that ended a scanner's input early, as a scanner treats a failed read as the end of the input,
+     * which would otherwise hide a truncated compressed file.
+     */
+    private static void checkRead(Scanner scanner) throws IOException {
+        if (scanner.ioException() != null) {
+            throw scanner.ioException();
         }
+    }
+
+    /**
+     * Parses every resident of the input file. A plain file is memory-mapped and parsed on this thread. A
+     * gzip-compressed file cannot be mapped, so is inflated on a separate thread and parsed by a
+     * {@link StagedPipeline}, which still hands residents to the sink on one thread at a time.
+     */
+    static void readResidents(Path inputFile, AddressCache addressCache, MalformedLinePolicy policy,
+                              Consumer<Resident> sink) throws IOException {
+        if (InflatingInputStream.isGzip(inputFile)) {
+            new StagedPipeline(Runtime.getRuntime().availableProcessors(), addressCache).read(inputFile, policy, sink);
+        } else {
+            MappedResidentReader.read(inputFile, addressCache, policy, sink);
+        }
+    }
 
-        return "";
+    static HouseholdIndex readMapped(Path inputFile, AddressCache addressCache) throws IOException {
+        return readMapped(inputFile, addressCache, MalformedLinePolicy.failFast());
     }
+
+    static HouseholdIndex readMapped(Path inputFile, AddressCache addressCache, MalformedLinePolicy policy)
+            throws IOException {
+        HouseholdIndex households = new HouseholdIndex(false);
+        readResidents(inputFile, addressCache, policy, households::add);
+        return households;
+    }
+
+    static ResidentStore readColumnar(Path inputFile, AddressCache addressCache) throws IOException {
+        return readColumnar(inputFile, addressCache, MalformedLinePolicy.failFast());
+    }
+
+    static ResidentStore readColumnar(Path inputFile, AddressCache addressCache, MalformedLinePolicy policy)
+            throws IOException {
+        ResidentStore residents = new ResidentStore();
+        readResidents(inputFile, addressCache, policy, residents::add);
+        return residents;
+    }
+
+    static void writeExternal(Path inputFile, AddressCache addressCache, long memoryBudget, Path tempDir,
+                              ReportWriter out) throws IOException {
+        writeExternal(inputFile, addressCache, MalformedLinePolicy.failFast(), memoryBudget, tempDir, out,
+                PipelineMetrics.DISABLED);
+    }
+
+    static void writeExternal(Path inputFile, AddressCache addressCache, MalformedLinePolicy policy,
+                              long memoryBudget, Path tempDir, ReportWriter out, PipelineMetrics metrics)
+            throws IOException {
+        try (ExternalHouseholdSorter households = new ExternalHouseholdSorter(memoryBudget, tempDir)) {
+            // Spilling sorted runs happens as residents are added, so is measured as part of parsing
+            try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.PARSE)) {
+                readResidents(inputFile, addressCache, policy, resident -> {
+                    try {
+                        households.add(resident);
+                    } catch (IOException ioe) {
+                        throw new UncheckedIOException(ioe);
+                    }
+                    span.addRecords(1);
+                });
+                span.addBytes(Files.size(inputFile));
+            } catch (UncheckedIOException uioe) {
+                throw uioe.getCause();
+            }
+
+            // Merging the runs produces households in order, so is measured as part of rendering
+            try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.RENDER)) {
+                households.forEachHousehold((address, occupants, adults) -> {
+                    out.writeHousehold(address, occupants, adults);
+                    span.addRecords(1);
+                });
+            }
+        }
+    }
+
     static String getHouseholdsDisplay(SortedMap<Address, List<Resident>> households) {
-        StringBuilder res = new StringBuilder();
+        return render(out -> writeHouseholds(households, out));
+    }
+
+    static String getHouseholdsDisplay(HouseholdIndex households) {
+        return render(out -> writeHouseholds(households, out));
+    }
+
+    static String getHouseholdsDisplay(ResidentStore residents) {
+        return render(out -> writeHouseholds(residents, out));
+    }
+
+    static void writeHouseholds(SortedMap<Address, List<Resident>> households, ReportWriter out)
+            throws IOException {
+        writeHouseholds(households, out, 0);
+    }
+
+    /**
+     * Writes the households, formatting them on <code>renderThreads</code> threads if it is positive.
+     */
+    static void writeHouseholds(SortedMap<Address, List<Resident>> households, ReportWriter out, int renderThreads)
+            throws IOException {
+        if (renderThreads > 0) {
+            List<Map.Entry<Address, List<Resident>>> entries = new ArrayList<>(households.entrySet());
+            new ParallelReportRenderer(renderThreads).render(entries, Map.Entry::getKey,
+                    (entry, partOut) -> writeHousehold(entry.getKey(), entry.getValue(), partOut), out);
+        } else {
+            for (Map.Entry<Address, List<Resident>> entry : households.entrySet()) {
+                writeHousehold(entry.getKey(), entry.getValue(), out);
+            }
+        }
+    }
+
+    private static void writeHousehold(Address address, List<Resident> occupants, ReportWriter out)
+            throws IOException {
+        List<Resident> adults = new ArrayList<>();
+        for (Resident resident : occupants) {
+            if (Household.isAdult(resident)) {
+                adults.add(resident);
+            }
+        }
+        adults.sort(null);
+        out.writeHousehold(address, occupants.size(), adults);
+    }
+
+    static void writeHouseholds(HouseholdIndex households, ReportWriter out) throws IOException {
+        writeHouseholds(households, out, PipelineMetrics.DISABLED);
+    }
+
+    static void writeHouseholds(HouseholdIndex households, ReportWriter out, PipelineMetrics metrics)
+            throws IOException {
+        writeHouseholds(households, out, metrics, 0);
+    }
+
+    /**
+     * Writes the households, formatting them on <code>renderThreads</code> threads if it is positive.
+     */
+    static void writeHouseholds(HouseholdIndex households, ReportWriter out, PipelineMetrics metrics,
+                                int renderThreads) throws IOException {
+        List<Household> sorted;
+        try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.SORT)) {
+            sorted = households.getHouseholds();
+            span.addRecords(sorted.size());
+        }
+        try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.RENDER)) {
+            if (renderThreads > 0) {
+                new ParallelReportRenderer(renderThreads).render(sorted, Household::getAddress,
+                        Solution::writeHousehold, out);
+            } else {
+                for (Household household : sorted) {
+                    writeHousehold(household, out);
+                }
+            }
+            span.addRecords(sorted.size());
+        }
+    }
+
+    static void writeHouseholds(HouseholdSnapshot households, ReportWriter out) throws IOException {
+        for (int i = 0; i < households.size(); i++) {
+            Address address = households.getAddress(i);
+            out.writeHousehold(address, households.getOccupants(i), households.getAdults(i, address));
+        }
+    }
+
+    static void writeHousehold(Household household, ReportWriter out) throws IOException {
+        out.writeHousehold(household.getAddress(), household.getOccupants(), household.getSortedAdults());
+    }
+
+    static void writeHouseholds(ResidentStore residents, ReportWriter out) throws IOException {
+        writeHouseholds(residents, out, PipelineMetrics.DISABLED);
+    }
 
-        for (Map.Entry<Address, List<Resident>> entry : households.entrySet()) {
-            res.append(String.format("The household at %s has %d occupant%s:\n",
-                    entry.getKey(), entry.getValue().size(), entry.getValue().size() == 1 ? "" : "s"));
-            entry.getValue().stream()
-                    .filter(resident -> resident.getAge() > 18)
-                    .sorted()
-                    .forEach(resident -> res.append("    ").append(resident).append("\n"));
+    static void writeHouseholds(ResidentStore residents, ReportWriter out, PipelineMetrics metrics)
+            throws IOException {
+        int householdCount = residents.householdCount();
+        int[] householdIds;
+        try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.SORT)) {
+            householdIds = getHouseholdIdsInOrder(residents);
+            span.addRecords(householdCount);
         }
+        int[] positions = new int[householdCount];
+        for (int i = 0; i < householdCount; i++) {
+            positions[householdIds[i]] = i;
+        }
+
+        int[] occupants = new int[householdCount];
+        int[] adultStarts = new int[householdCount + 1];
+        int[] adultRows;
+        int[] adultGroups;
+        try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.GROUP)) {
+            for (int row = 0; row < residents.size(); row++) {
+                int householdId = residents.getHouseholdId(row);
+                occupants[householdId]++;
+                if (residents.getAge(row) > Household.ADULT_AGE) {
+                    adultStarts[positions[householdId] + 1]++;
+                }
+            }
+            for (int i = 0; i < householdCount; i++) {
+                adultStarts[i + 1] += adultStarts[i];
+            }
 
+            // Sort every adult row at once, grouped by the position of its household in the output
+            adultRows = new int[adultStarts[householdCount]];
+            adultGroups = new int[adultRows.length];
+            int adultCount = 0;
+            for (int row = 0; row < residents.size(); row++) {
+                if (residents.getAge(row) > Household.ADULT_AGE) {
+                    adultRows[adultCount] = row;
+                    adultGroups[adultCount++] = positions[residents.getHouseholdId(row)];
+                }
+            }
+            span.addRecords(residents.size());
+        }
+        int[] sortedRows;
+        try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.SORT)) {
+            sortedRows = ResidentSorter.sortRows(residents, adultRows, adultGroups);
+            span.addRecords(sortedRows.length);
+        }
+
+        try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.RENDER)) {
+            for (int i = 0; i < householdCount; i++) {
+                int householdId = householdIds[i];
+                List<Resident> adults = new ArrayList<>(adultStarts[i + 1] - adultStarts[i]);
+                for (int j = adultStarts[i]; j < adultStarts[i + 1]; j++) {
+                    adults.add(residents.getResident(sortedRows[j]));
+                }
+                out.writeHousehold(residents.getHouseholdAddress(householdId), occupants[householdId], adults);
+            }
+            span.addRecords(householdCount);
+        }
+    }
+
+    /**
+     * Writes a report to a {@link ReportWriter}.
+     */
+    private interface Report {
+        void writeTo(ReportWriter out) throws IOException;
+    }
+
+    private static String render(Report report) {
+        StringWriter res = new StringWriter();
+        try (ReportWriter out = new ReportWriter(res)) {
+            report.writeTo(out);
+        } catch (IOException ioe) {
+            // A StringWriter is never unwritable
+            throw new UncheckedIOException(ioe);
+        }
         return res.toString();
     }
 
     static SortedMap<Address, List<Resident>> getHouseholds(List<Resident> residents) {
-        List<Address> addresses = residents.stream()
-                .map(Resident::getAddress)
-                .distinct()
-                .collect(Collectors.toList());
+        return getHouseholds(residents, PipelineMetrics.DISABLED);
+    }
+
+    static SortedMap<Address, List<Resident>> getHouseholds(List<Resident> residents, PipelineMetrics metrics) {
+        Map<Address, List<Resident>> grouped = new HashMap<>();
+        try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.GROUP)) {
+            for (Resident resident : residents) {
+                grouped.computeIfAbsent(resident.getAddress(), address -> new ArrayList<>()).add(resident);
+            }
+            span.addRecords(residents.size());
+        }
 
         SortedMap<Address, List<Resident>> households = new TreeMap<>();
-        for (Address address : addresses) {
-            households.put(address, new ArrayList<>());
+        try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.SORT)) {
+            Address[] addresses = grouped.keySet().toArray(new Address[0]);
+            Arrays.sort(addresses);
+            for (Address address : addresses) {
+                households.put(address, grouped.get(address));
+            }
+            span.addRecords(addresses.length);
+        }
+
+        return households;
+    }
+
+    static SortedMap<Address, List<Resident>> getHouseholds(ResidentStore residents) {
+        List<List<Resident>> grouped = new ArrayList<>(residents.householdCount());
+        for (int householdId = 0; householdId < residents.householdCount(); householdId++) {
+            grouped.add(new ArrayList<>());
+        }
+        for (int row = 0; row < residents.size(); row++) {
+            grouped.get(residents.getHouseholdId(row)).add(residents.getResident(row));
         }
 
-        for (Resident resident : residents) {
-            households.get(resident.getAddress()).add(resident);
+        SortedMap<Address, List<Resident>> households = new TreeMap<>();
+        for (int householdId : getHouseholdIdsInOrder(residents)) {
+            households.put(residents.getHouseholdAddress(householdId), grouped.get(householdId));
         }
 
         return households;
     }
 
+    private static int[] getHouseholdIdsInOrder(ResidentStore residents) {
+        return IntStream.range(0, residents.householdCount())
+                .boxed()
+                .sorted(Comparator.comparing(residents::getHouseholdAddress))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
     static Resident constructResident(String line) {
-        // Input expected as FirstName,LastName,AddressStreet,AddressCity,AddressState,Age
-        line = line.replaceAll("\",\"", "\"-\"")
-                .replaceAll("\"", "");
-        String[] data = line.split("-");
-        if (data.length == 6) {
-            String firstName = data[0];
-            String lastName = data[1];
-            String addressLine1 = data[2];
-            String addressCity = data[3];
-            String addressState = data[4];
-            int age = Integer.parseInt(data[5]);
-
-            Address address = new Address(addressLine1, addressCity, addressState);
+        return constructResident(line, UNCACHED);
+    }
+
+    static Resident constructResident(String line, AddressCache addressCache) {
+        List<String> data = splitFields(line);
+        if (data.size() == ResidentByteParser.FIELD_COUNT) {
+            String firstName = data.get(0);
+            String lastName = data.get(1);
+            String addressLine1 = data.get(2);
+            String addressCity = data.get(3);
+            String addressState = data.get(4);
+            int age;
+            try {
+                age = Integer.parseInt(data.get(5));
+            } catch (NumberFormatException nfe) {
+                return null;
+            }
+
+            Address address = addressCache.get(addressLine1, addressCity, addressState);
             return new Resident(firstName, lastName, address, age);
         }
         return null;
     }
 
+    /**
+     * Returns why a line that {@link #constructResident(String, AddressCache)} rejected is malformed.
+     */
+    static String describeMalformed(String line) {
+        List<String> data = splitFields(line);
+        if (data.size() != ResidentByteParser.FIELD_COUNT) {
+            return "Expected " + ResidentByteParser.FIELD_COUNT + " fields but found " + data.size();
+        }
+        return "Age is not an integer: " + data.get(5);
+    }
+
+    private static List<String> splitFields(String line) {
+        // Input expected as "FirstName","LastName","AddressStreet","AddressCity","AddressState","Age"
+        List<String> data = new ArrayList<>(ResidentByteParser.FIELD_COUNT);
+        int fieldStart = 0;
+        int separatorIdx;
+        while ((separatorIdx = line.indexOf(FIELD_SEPARATOR, fieldStart)) >= 0) {
+            data.add(line.substring(fieldStart, separatorIdx).replace("\"", ""));
+            fieldStart = separatorIdx + FIELD_SEPARATOR.length();
+        }
+        data.add(line.substring(fieldStart).replace("\"", ""));
+        return data;
+    }
+
     static List<String> getDataFromFile(Scanner input) {
         List<String> res = new ArrayList<>();
         while (input.hasNextLine()) {
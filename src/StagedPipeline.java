@@ -0,0 +1,484 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Builds a {@link HouseholdIndex} from an input file in three stages running at once, so reading the file overlaps
+ * with parsing and grouping it:
+ * <ol>
+ *     <li>read: one thread reads the file into chunks of whole lines</li>
+ *     <li>parse: several threads parse each chunk into residents, normalizing addresses through the shared
+ *     {@link AddressCache}</li>
+ *     <li>group: one thread adds the residents to their households</li>
+ * </ol>
+ *
+ * <p>Stages hand work to each other through bounded queues, so a slow stage makes the stages before it wait rather
+ * than letting chunks pile up in memory; at most about {@value #QUEUE_CAPACITY} chunks per queue, plus one per
+ * thread, are held at once. The depth of each queue, and how long its producers were blocked and its consumers
+ * waited, are recorded: a queue that stays full means the stage after it is the bottleneck, and a queue that stays
+ * empty means the stage before it is.
+ *
+ * <p>Chunks may be parsed out of order, which does not change the households built. Malformed lines are handed to
+ * the {@link MalformedLinePolicy} in file order by the group stage, once the number of lines before them is known.
+ *
+ * <p>A gzip-compressed input file is inflated by an {@link InflatingInputStream}, whose thread runs ahead of the read
+ * stage as a fourth stage.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class StagedPipeline {
+    /**
+     * Bytes read into each chunk, unless a single line is longer.
+     */
+    static final int CHUNK_SIZE = 1 << 18;
+    /**
+     * Number of chunks or batches each queue holds.
+     */
+    static final int QUEUE_CAPACITY = 16;
+    /**
+     * Marks the end of the chunks, one for each parser.
+     */
+    private static final Chunk END_OF_CHUNKS = new Chunk(-1, new byte[0], 0);
+    /**
+     * Marks the end of the batches of one parser.
+     */
+    private static final Batch END_OF_BATCHES = new Batch(-1);
+
+    private final int parsers;
+    private final AddressCache addressCache;
+    private final int chunkSize;
+    private final StageQueue<Chunk> chunks;
+    private final StageQueue<Batch> batches;
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param parsers      the number of threads parsing chunks
+     * @param addressCache the cache used to normalize and share addresses, shared by every parser
+     * @throws IllegalArgumentException if <code>parsers</code> is not positive
+     */
+    public StagedPipeline(int parsers, AddressCache addressCache) {
+        this(parsers, addressCache, CHUNK_SIZE, QUEUE_CAPACITY);
+    }
+
+    StagedPipeline(int parsers, AddressCache addressCache, int chunkSize, int queueCapacity) {
+        if (parsers < 1) {
+            throw new IllegalArgumentException("At least one parser is required");
+        }
+        this.parsers = parsers;
+        this.addressCache = addressCache;
+        this.chunkSize = chunkSize;
+        this.chunks = new StageQueue<>("read -> parse", queueCapacity);
+        this.batches = new StageQueue<>("parse -> group", queueCapacity);
+    }
+
+    /**
+     * Parses and groups every resident of the input file. A pipeline builds one file only.
+     *
+     * @param path   the input file, which may be gzip-compressed
+     * @param policy decides whether reading stops at a malformed line
+     * @return the households of the well-formed lines of the input file
+     * @throws IOException                if the file cannot be read
+     * @throws MalformedResidentException if the policy stops at a malformed line
+     */
+    public HouseholdIndex build(Path path, MalformedLinePolicy policy) throws IOException {
+        HouseholdIndex households = new HouseholdIndex(false);
+        read(path, policy, households::add);
+        return households;
+    }
+
+    /**
+     * Parses every resident of the input file, handing each to a sink in the group stage. A gzip-compressed file is
+     * inflated on a thread of its own ahead of the read stage, so the file is never inflated to disk. A pipeline reads
+     * one file only.
+     *
+     * @param path   the input file, which may be gzip-compressed
+     * @param policy decides whether reading stops at a malformed line
+     * @param sink   receives each resident of a well-formed line; it is only called by the group stage's thread, so
+     *               need not be thread-safe
+     * @throws IOException                if the file cannot be read or inflated
+     * @throws MalformedResidentException if the policy stops at a malformed line
+     */
+    public void read(Path path, MalformedLinePolicy policy, Consumer<Resident> sink) throws IOException {
+        if (InflatingInputStream.isGzip(path)) {
+            try (InputStream in = new InflatingInputStream(path)) {
+                run(in, path, policy, sink);
+            }
+        } else {
+            try (InputStream in = Files.newInputStream(path)) {
+                run(in, path, policy, sink);
+            }
+        }
+    }
+
+    private void run(InputStream in, Path path, MalformedLinePolicy policy, Consumer<Resident> sink)
+            throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(this.parsers + 2);
+        CompletionService<Void> stages = new ExecutorCompletionService<>(executor);
+        try {
+            stages.submit(stage(() -> read(in)));
+            for (int i = 0; i < this.parsers; i++) {
+                stages.submit(stage(this::parse));
+            }
+            stages.submit(stage(() -> group(sink, policy)));
+
+            // Waits for every stage, stopping the others as soon as one fails
+            for (int i = 0; i < this.parsers + 2; i++) {
+                stages.take().get();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading " + path);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Failed to read " + path, cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the statistics of each queue between stages, in pipeline order.
+     *
+     * @return the statistics of the queue from the read stage to the parse stage, then of the queue from the parse
+     *         stage to the group stage
+     */
+    public List<QueueStats> getQueueStats() {
+        return List.of(this.chunks.stats, this.batches.stats);
+    }
+
+    /**
+     * Work done by one stage.
+     */
+    private interface Stage {
+        void run() throws IOException, InterruptedException;
+    }
+
+    private static Callable<Void> stage(Stage stage) {
+        return () -> {
+            stage.run();
+            return null;
+        };
+    }
+
+    /**
+     * Reads the file into chunks that each end with a whole line, carrying any partial line over to the next chunk.
+     */
+    private void read(InputStream in) throws IOException, InterruptedException {
+        byte[] carry = new byte[0];
+        long sequence = 0;
+        boolean eof = false;
+        while (!eof) {
+            // A chunk grows to hold a line longer than the chunk size
+            byte[] bytes = new byte[Math.max(this.chunkSize, 2 * carry.length)];
+            System.arraycopy(carry, 0, bytes, 0, carry.length);
+            int length = carry.length;
+            while (length < bytes.length && !eof) {
+                int count = in.read(bytes, length, bytes.length - length);
+                if (count < 0) {
+                    eof = true;
+                } else {
+                    length += count;
+                }
+            }
+
+            int end = length;
+            if (!eof) {
+                end = lastIndexOf(bytes, length, (byte) '\n') + 1;
+            }
+            carry = new byte[length - end];
+            System.arraycopy(bytes, end, carry, 0, carry.length);
+            if (end > 0) {
+                this.chunks.put(new Chunk(sequence++, bytes, end));
+            }
+        }
+
+        for (int i = 0; i < this.parsers; i++) {
+            this.chunks.put(END_OF_CHUNKS);
+        }
+    }
+
+    private static int lastIndexOf(byte[] bytes, int length, byte b) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses chunks into batches of residents until the end of the chunks.
+     */
+    private void parse() throws InterruptedException {
+        ResidentByteParser parser = new ResidentByteParser(this.addressCache, true);
+        Chunk chunk;
+        while ((chunk = this.chunks.take()) != END_OF_CHUNKS) {
+            Batch batch = new Batch(chunk.sequence);
+            ByteBuffer buffer = ByteBuffer.wrap(chunk.bytes);
+            int lineStart = 0;
+            while (lineStart < chunk.length) {
+                int lineEnd = lineStart;
+                while (lineEnd < chunk.length && chunk.bytes[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                int textEnd = lineEnd > lineStart && chunk.bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+                batch.lines++;
+                Resident resident = parser.parse(buffer, lineStart, textEnd);
+                if (resident == null) {
+                    batch.rejected.add(new Rejected(batch.lines,
+                            new String(chunk.bytes, lineStart, textEnd - lineStart, StandardCharsets.UTF_8),
+                            parser.getError()));
+                } else {
+                    batch.residents.add(resident);
+                }
+                lineStart = lineEnd + 1;
+            }
+            this.batches.put(batch);
+        }
+        this.batches.put(END_OF_BATCHES);
+    }
+
+    /**
+     * Hands batches of residents to the sink until every parser has finished, and hands malformed lines to the policy
+     * in file order.
+     */
+    private void group(Consumer<Resident> sink, MalformedLinePolicy policy) throws InterruptedException {
+        // Batches that arrived ahead of an earlier one, whose malformed lines must wait for its line count
+        Map<Long, Batch> waiting = new HashMap<>();
+        long nextSequence = 0;
+        long linesBefore = 0;
+        int finishedParsers = 0;
+        while (finishedParsers < this.parsers) {
+            Batch batch = this.batches.take();
+            if (batch == END_OF_BATCHES) {
+                finishedParsers++;
+                continue;
+            }
+
+            for (Resident resident : batch.residents) {
+                sink.accept(resident);
+            }
+            batch.residents = null;
+            waiting.put(batch.sequence, batch);
+            while ((batch = waiting.remove(nextSequence)) != null) {
+                for (Rejected rejected : batch.rejected) {
+                    policy.reject(linesBefore + rejected.line, rejected.text, rejected.reason);
+                }
+                linesBefore += batch.lines;
+                nextSequence++;
+            }
+        }
+    }
+
+    /**
+     * Whole lines read from the file.
+     */
+    private static class Chunk {
+        private final long sequence;
+        private final byte[] bytes;
+        /**
+         * Number of bytes of whole lines at the start of <code>bytes</code>.
+         */
+        private final int length;
+
+        Chunk(long sequence, byte[] bytes, int length) {
+            this.sequence = sequence;
+            this.bytes = bytes;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Residents and malformed lines parsed from one chunk.
+     */
+    private static class Batch {
+        private final long sequence;
+        private List<Resident> residents = new ArrayList<>();
+        private final List<Rejected> rejected = new ArrayList<>(0);
+        private long lines;
+
+        Batch(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * A malformed line, numbered within its chunk.
+     */
+    private static class Rejected {
+        private final long line;
+        private final String text;
+        private final String reason;
+
+        Rejected(long line, String text, String reason) {
+            this.line = line;
+            this.text = text;
+            this.reason = reason;
+        }
+    }
+
+    /**
+     * Bounded queue between two stages that records its depth and waits.
+     */
+    private static class StageQueue<T> {
+        private final BlockingQueue<T> queue;
+        private final QueueStats stats;
+
+        StageQueue(String name, int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.stats = new QueueStats(name, capacity);
+        }
+
+        void put(T item) throws InterruptedException {
+            if (!this.queue.offer(item)) {
+                long start = System.nanoTime();
+                this.queue.put(item);
+                this.stats.producerWaitNanos.addAndGet(System.nanoTime() - start);
+            }
+            this.stats.record(this.queue.size());
+        }
+
+        T take() throws InterruptedException {
+            T res = this.queue.poll();
+            if (res == null) {
+                long start = System.nanoTime();
+                res = this.queue.take();
+                this.stats.consumerWaitNanos.addAndGet(System.nanoTime() - start);
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Statistics of the queue between two stages.
+     */
+    public static final class QueueStats {
+        private final String name;
+        private final int capacity;
+        private final AtomicLong puts = new AtomicLong();
+        private final AtomicLong depthSum = new AtomicLong();
+        private final AtomicInteger maxDepth = new AtomicInteger();
+        private final AtomicLong producerWaitNanos = new AtomicLong();
+        private final AtomicLong consumerWaitNanos = new AtomicLong();
+
+        QueueStats(String name, int capacity) {
+            this.name = name;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Records the depth of the queue just after an item was put on it.
+         */
+        void record(int depth) {
+            this.puts.incrementAndGet();
+            this.depthSum.addAndGet(depth);
+            this.maxDepth.accumulateAndGet(depth, Math::max);
+        }
+
+        /**
+         * Returns the stages the queue connects.
+         *
+         * @return the name of the queue, such as <code>read -&gt; parse</code>
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Returns the number of items the queue holds.
+         *
+         * @return the capacity of the queue
+         */
+        public int getCapacity() {
+            return this.capacity;
+        }
+
+        /**
+         * Returns the number of items put on the queue.
+         *
+         * @return the number of chunks or batches passed through the queue, including end markers
+         */
+        public long getPuts() {
+            return this.puts.get();
+        }
+
+        /**
+         * Returns the average depth of the queue, sampled each time an item is put on it.
+         *
+         * @return the mean depth, from 0 to the capacity
+         */
+        public double getMeanDepth() {
+            long puts = getPuts();
+            return puts == 0 ? 0 : (double) this.depthSum.get() / puts;
+        }
+
+        /**
+         * Returns the greatest depth of the queue.
+         *
+         * @return the maximum depth
+         */
+        public int getMaxDepth() {
+            return this.maxDepth.get();
+        }
+
+        /**
+         * Returns how long producers were blocked because the queue was full, summed over every producer.
+         *
+         * @return the time blocked, in nanoseconds
+         */
+        public long getProducerWaitNanos() {
+            return this.producerWaitNanos.get();
+        }
+
+        /**
+         * Returns how long consumers waited because the queue was empty, summed over every consumer.
+         *
+         * @return the time waited, in nanoseconds
+         */
+        public long getConsumerWaitNanos() {
+            return this.consumerWaitNanos.get();
+        }
+
+        /**
+         * Returns a one-line summary of the statistics.
+         *
+         * @return the name, depths and waits of the queue
+         */
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%s queue: %d items, mean depth %.1f of %d, max %d, producers blocked %d ms, "
+                            + "consumers waited %d ms",
+                    this.name, getPuts(), getMeanDepth(), this.capacity, getMaxDepth(),
+                    getProducerWaitNanos() / 1_000_000, getConsumerWaitNanos() / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows an input file that residents are appended to, keeping its households up to date.
+ *
+ * <p>Each poll parses only the complete lines appended since the previous poll, so its cost depends on the number of
+ * new lines rather than on the size of the file. A final line without its terminator is left until it is completed,
+ * unless the file is being read from the start or has not grown since the previous poll, when it is taken to be
+ * complete; if it turns out to be continued rather than terminated, the file is read again from the start.
+ *
+ * <p>The file is also read again from the start if it has been replaced: if it shrinks, if it is a different file
+ * than before, or if the last bytes applied have changed.
+ *
+ * <p>Malformed lines are handed to a {@link MalformedLinePolicy}, numbered from the start of the file. Lines the policy
+ * skips are passed over for good, so one malformed line does not stop the file being followed; once the policy's limit
+ * is reached, following stops.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class TailFollower {
+    /**
+     * Command that writes the full report.
+     */
+    public static final String REPORT_COMMAND = "report";
+    /**
+     * Command that stops following.
+     */
+    public static final String QUIT_COMMAND = "quit";
+    private static final int SCAN_SIZE = 1 << 16;
+    /**
+     * Number of bytes before the position checked on each poll, to notice a file rewritten in place.
+     */
+    private static final int FINGERPRINT_SIZE = 64;
+
+    private final Path path;
+    private final ResidentByteParser parser;
+    private final MalformedLinePolicy policy;
+    private HouseholdIndex households = new HouseholdIndex(false);
+    /**
+     * Offset just past the last line applied.
+     */
+    private long position;
+    /**
+     * Number of lines applied.
+     */
+    private long lines;
+    /**
+     * Whether the last line applied had no terminator, so the next byte appended must be one.
+     */
+    private boolean unterminated;
+    /**
+     * Size of the file at the previous poll, or -1 before the first.
+     */
+    private long size = -1;
+    /**
+     * Key identifying the file read by the previous poll, if the file system has one.
+     */
+    private Object fileKey;
+    /**
+     * Last bytes applied, up to {@link #FINGERPRINT_SIZE} of them.
+     */
+    private byte[] fingerprint = new byte[0];
+
+    /**
+     * Creates a follower that has read nothing yet, and stops at the first malformed line.
+     *
+     * @param path         the input file
+     * @param addressCache the cache used to normalize and share addresses
+     */
+    public TailFollower(Path path, AddressCache addressCache) {
+        this(path, addressCache, MalformedLinePolicy.failFast());
+    }
+
+    /**
+     * Creates a follower that has read nothing yet.
+     *
+     * @param path         the input file
+     * @param addressCache the cache used to normalize and share addresses
+     * @param policy       decides whether following stops at a malformed line
+     */
+    public TailFollower(Path path, AddressCache addressCache, MalformedLinePolicy policy) {
+        this.path = path;
+        this.parser = new ResidentByteParser(addressCache);
+        this.policy = policy;
+    }
+
+    /**
+     * Returns the households read so far.
+     *
+     * @return the households of every line applied
+     */
+    public HouseholdIndex getHouseholds() {
+        return this.households;
+    }
+
+    /**
+     * Returns how much of the file has been applied.
+     *
+     * @return the offset just past the last line applied
+     */
+    public long getPosition() {
+        return this.position;
+    }
+
+    /**
+     * Applies every complete line appended since the previous poll, and a final line without its terminator if the
+     * file is read from the start or has not grown since the previous poll.
+     *
+     * <p>Malformed lines are skipped if the policy allows. The lines are applied all at once: if the policy stops at a
+     * malformed line, none are.
+     *
+     * @return the households that changed, in address order; every household if the file was read from the start
+     * @throws IOException                if the file cannot be read
+     * @throws MalformedResidentException if the policy stops at a new line that is not a well-formed resident
+     */
+    public List<Household> poll() throws IOException {
+        List<Resident> residents = new ArrayList<>();
+        boolean restarted;
+        long end;
+        long read;
+        boolean terminatorPending;
+        Object key = Files.readAttributes(this.path, BasicFileAttributes.class).fileKey();
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            restarted = this.position > 0 && isReplaced(channel, size, key);
+            long start = restarted ? 0 : this.position;
+            long firstLine = restarted ? 0 : this.lines;
+            terminatorPending = !restarted && this.unterminated;
+            if (terminatorPending && size > start) {
+                // The line applied without its terminator is now terminated, and was complete
+                start++;
+                terminatorPending = false;
+            }
+            end = lastLineEnd(channel, start, size);
+            if (end < size && (start == 0 || size == this.size)) {
+                end = size;
+                terminatorPending = true;
+            }
+            read = MappedResidentReader.readRange(channel, start, end, this.parser, residents::add,
+                    (line, offset, text, reason) -> this.policy.reject(firstLine + line, text, reason));
+            this.size = size;
+            this.fileKey = key;
+            this.fingerprint = readBytes(channel, Math.max(0, end - FINGERPRINT_SIZE), end);
+        }
+
+        if (restarted) {
+            this.households = new HouseholdIndex(false);
+            this.lines = 0;
+        }
+        this.position = end;
+        this.lines += read;
+        this.unterminated = terminatorPending;
+        Set<Address> changed = new HashSet<>();
+        for (Resident resident : residents) {
+            this.households.add(resident);
+            changed.add(resident.getAddress());
+        }
+
+        if (restarted) {
+            return this.households.getHouseholds();
+        }
+        List<Household> res = new ArrayList<>(changed.size());
+        for (Address address : changed) {
+            res.add(this.households.getHousehold(address));
+        }
+        res.sort((first, second) -> first.getAddress().compareTo(second.getAddress()));
+        return res;
+    }
+
+    /**
+     * Follows the file until told to quit: polls it every <code>intervalMillis</code>, writing each changed household,
+     * and writes the full report when a {@link #REPORT_COMMAND} is received.
+     *
+     * <p>The full report is written before following begins.
+     *
+     * @param out            the writer for the report and updates
+     * @param intervalMillis the time between polls, in milliseconds
+     * @param commands       the commands received, such as {@link #REPORT_COMMAND} and {@link #QUIT_COMMAND}
+     * @throws IOException                if the file cannot be read or the report cannot be written
+     * @throws MalformedResidentException if the policy stops at a line that is not a well-formed resident
+     */
+    public void follow(ReportWriter out, long intervalMillis, BlockingQueue<String> commands) throws IOException {
+        poll();
+        write(this.households.getHouseholds(), out);
+        while (true) {
+            String command;
+            try {
+                command = commands.poll(intervalMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (QUIT_COMMAND.equals(command)) {
+                return;
+            }
+            List<Household> changed = poll();
+            if (REPORT_COMMAND.equals(command)) {
+                write(this.households.getHouseholds(), out);
+            } else {
+                write(changed, out);
+            }
+        }
+    }
+
+    /**
+     * Reads commands, one per line, on a daemon thread. Reading stops at the end of the input, without sending a
+     * command.
+     *
+     * @param in the input to read commands from
+     * @return the queue the commands are added to, trimmed, as they are read
+     */
+    public static BlockingQueue<String> readCommands(InputStream in) {
+        BlockingQueue<String> commands = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> {
+            try {
+                BufferedReader lines = new BufferedReader(new InputStreamReader(in));
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    commands.add(line.trim());
+                }
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        }, "follow-commands");
+        reader.setDaemon(true);
+        reader.start();
+        return commands;
+    }
+
+    private static void write(Collection<Household> households, ReportWriter out) throws IOException {
+        for (Household household : households) {
+            Solution.writeHousehold(household, out);
+        }
+        out.flush();
+    }
+
+    /**
+     * Returns whether the file no longer continues the lines applied so far, and must be read again from the start.
+     */
+    private boolean isReplaced(FileChannel channel, long size, Object key) throws IOException {
+        if (size < this.position || !Objects.equals(key, this.fileKey)) {
+            return true;
+        }
+        if (this.unterminated && size > this.position
+                && readBytes(channel, this.position, this.position + 1)[0] != '\n') {
+            // The line applied without its terminator has been continued since
+            return true;
+        }
+        return !Arrays.equals(this.fingerprint, readBytes(channel, this.position - this.fingerprint.length,
+                this.position));
+    }
+
+    private static byte[] readBytes(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer res = ByteBuffer.allocate((int) (end - start));
+        while (res.hasRemaining()) {
+            if (channel.read(res, start + res.position()) < 0) {
+                throw new IOException("File ended while being read");
+            }
+        }
+        return res.array();
+    }
+
+    /**
+     * Returns the offset just past the last <code>\n</code> in <code>[start, end)</code>, or <code>start</code> if
+     * there is none.
+     */
+    private static long lastLineEnd(FileChannel channel, long start, long end) throws IOException {
+        long chunkEnd = end;
+        while (chunkEnd > start) {
+            int length = (int) Math.min(SCAN_SIZE, chunkEnd - start);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunkEnd - length, length);
+            for (int i = length - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return chunkEnd - length + i + 1;
+                }
+            }
+            chunkEnd -= length;
+        }
+        return start;
+    }
+}
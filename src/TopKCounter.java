@@ -0,0 +1,162 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the most frequent items of a stream, in memory bounded by a fixed number of counters, using the Space-Saving
+ * algorithm.
+ *
+ * <p>While fewer distinct items than counters have been added, every count is exact. After that, an item without a
+ * counter takes over the counter with the smallest count, inheriting that count as its possible overestimate. Every
+ * item added more often than <code>total / capacity</code> times is guaranteed to hold a counter, and no count is more
+ * than <code>total / capacity</code> too high.
+ *
+ * <p>Counters are kept in a binary min-heap, so adding an item takes logarithmic time in the number of counters.
+ * Instances are not safe for use by multiple threads.
+ *
+ * @param <T> the type of the items counted, which must implement <code>equals</code> and <code>hashCode</code>
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class TopKCounter<T> {
+    private final int capacity;
+    private final Map<T, Counter<T>> counters = new HashMap<>();
+    /**
+     * Counters ordered as a min-heap by count.
+     */
+    private final List<Counter<T>> heap = new ArrayList<>();
+
+    /**
+     * Creates a counter of the most frequent items.
+     *
+     * @param capacity the number of items counted at once; more counters give more accurate counts
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public TopKCounter(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Counts one occurrence of an item.
+     *
+     * @param item the item
+     */
+    public void add(T item) {
+        Counter<T> counter = this.counters.get(item);
+        if (counter != null) {
+            counter.count++;
+            siftDown(counter.position);
+        } else if (this.heap.size() < this.capacity) {
+            counter = new Counter<>(item, this.heap.size());
+            counter.count = 1;
+            this.heap.add(counter);
+            this.counters.put(item, counter);
+            siftUp(counter.position);
+        } else {
+            // Replaces the least frequent item, whose count becomes the new item's possible overestimate
+            counter = this.heap.get(0);
+            this.counters.remove(counter.item);
+            counter.item = item;
+            counter.error = counter.count;
+            counter.count++;
+            this.counters.put(item, counter);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Returns the most frequent items.
+     *
+     * @param k the number of items to return
+     * @return up to <code>k</code> counters, most frequent first; ties are in no particular order
+     */
+    public List<Counter<T>> getTop(int k) {
+        List<Counter<T>> res = new ArrayList<>(this.heap);
+        res.sort((first, second) -> Long.compare(second.count, first.count));
+        return res.subList(0, Math.min(k, res.size()));
+    }
+
+    private void siftUp(int position) {
+        int current = position;
+        while (current > 0 && this.heap.get((current - 1) / 2).count > this.heap.get(current).count) {
+            swap(current, (current - 1) / 2);
+            current = (current - 1) / 2;
+        }
+    }
+
+    private void siftDown(int position) {
+        int current = position;
+        while (true) {
+            int smallest = current;
+            for (int child = 2 * current + 1; child <= 2 * current + 2 && child < this.heap.size(); child++) {
+                if (this.heap.get(child).count < this.heap.get(smallest).count) {
+                    smallest = child;
+                }
+            }
+            if (smallest == current) {
+                return;
+            }
+            swap(current, smallest);
+            current = smallest;
+        }
+    }
+
+    private void swap(int first, int second) {
+        Counter<T> counter = this.heap.get(first);
+        this.heap.set(first, this.heap.get(second));
+        this.heap.set(second, counter);
+        this.heap.get(first).position = first;
+        counter.position = second;
+    }
+
+    /**
+     * Estimated count of one item.
+     *
+     * @param <T> the type of the item
+     */
+    public static final class Counter<T> {
+        private T item;
+        private long count;
+        private long error;
+        /**
+         * Index of the counter in the heap.
+         */
+        private int position;
+
+        Counter(T item, int position) {
+            this.item = item;
+            this.position = position;
+        }
+
+        /**
+         * Returns the item counted.
+         *
+         * @return the item
+         */
+        public T getItem() {
+            return this.item;
+        }
+
+        /**
+         * Returns the estimated number of occurrences of the item, which may be too high but is never too low.
+         *
+         * @return the estimated count
+         */
+        public long getCount() {
+            return this.count;
+        }
+
+        /**
+         * Returns how much too high the count may be.
+         *
+         * @return the largest possible overestimate, or 0 if the count is exact
+         */
+        public long getError() {
+            return this.error;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoding of values as dense integer ids, so that repeated values are stored once.
+ *
+ * <p>Ids are assigned in order of first appearance, starting at 0.
+ *
+ * @param <T> the type of value encoded
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class ValueDictionary<T> {
+    /**
+     * Ids by value.
+     */
+    private final Map<T, Integer> ids;
+    /**
+     * Values by id.
+     */
+    private final List<T> values;
+
+    /**
+     * Creates an empty dictionary.
+     */
+    public ValueDictionary() {
+        this.ids = new HashMap<>();
+        this.values = new ArrayList<>();
+    }
+
+    /**
+     * Returns the id of the given value, assigning the next id if it has none.
+     *
+     * @param value the value to encode
+     * @return the id of the value
+     */
+    public int encode(T value) {
+        Integer id = this.ids.get(value);
+        if (id == null) {
+            id = this.values.size();
+            this.ids.put(value, id);
+            this.values.add(value);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the value with the given id.
+     *
+     * @param id the id of the value
+     * @return the value
+     * @throws IndexOutOfBoundsException if no value has the id
+     */
+    public T decode(int id) {
+        return this.values.get(id);
+    }
+
+    /**
+     * Ranks every value in the given order. Values that compare equal share a rank, and ranks are dense, so the
+     * highest rank is one less than the number of distinct ranks.
+     *
+     * @param order the order to rank values in
+     * @return the rank of each value, indexed by id
+     */
+    public int[] ranks(Comparator<? super T> order) {
+        Integer[] ids = new Integer[this.values.size()];
+        for (int id = 0; id < ids.length; id++) {
+            ids[id] = id;
+        }
+        Arrays.sort(ids, Comparator.comparing(this.values::get, order));
+
+        int[] ranks = new int[ids.length];
+        int rank = -1;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || order.compare(this.values.get(ids[i - 1]), this.values.get(ids[i])) != 0) {
+                rank++;
+            }
+            ranks[ids[i]] = rank;
+        }
+        return ranks;
+    }
+
+    /**
+     * Returns the number of distinct values encoded.
+     *
+     * @return the number of ids assigned
+     */
+    public int size() {
+        return this.values.size();
+    }
+}
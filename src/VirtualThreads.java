@@ -0,0 +1,38 @@
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors running each task on its own virtual thread, where the JVM has them.
+ *
+ * <p>Virtual threads were added in Java 21, after the release this project targets, so they are found reflectively.
+ * On older JVMs, tasks run on a cached pool of daemon platform threads instead, which behaves the same apart from the
+ * cost of each blocked thread.
+ *
+ * @author Nicholas Fox
+ * @version 1.0
+ */
+public class VirtualThreads {
+    private VirtualThreads() {
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task, or a cached pool of daemon threads if the
+     * JVM does not support virtual threads.
+     *
+     * @param name the name of the platform threads, if used
+     * @return the executor
+     */
+    public static ExecutorService newExecutor(String name) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException roe) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AddressCacheTest {
+    private static final String STREET_NONSTD = " 123 gofer st., ";
+    private static final String CITY_NONSTD = " seattle, ";
+    private static final String STATE_NONSTD = "wa.";
+
+    @Test
+    void sharesNormalizedAddresses() {
+        AddressCache cache = new AddressCache(16);
+        Address first = cache.get(STREET_NONSTD, CITY_NONSTD, STATE_NONSTD);
+        Address second = cache.get(STREET_NONSTD, CITY_NONSTD, STATE_NONSTD);
+
+        assertAll(
+                () -> assertEquals(new Address(STREET_NONSTD, CITY_NONSTD, STATE_NONSTD), first),
+                () -> assertSame(first, second),
+                () -> assertEquals(1, cache.getHits()),
+                () -> assertEquals(1, cache.getMisses()),
+                () -> assertEquals(1, cache.size())
+        );
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        // A capacity below the segment count has fewer segments, so a single entry is the least recently used of all
+        AddressCache cache = new AddressCache(1);
+        Address first = cache.get("1 Gofer St", "Seattle", "WA");
+        assertSame(first, cache.get("1 Gofer St", "Seattle", "WA"));
+        cache.get("2 Gofer St", "Seattle", "WA");
+
+        assertAll(
+                () -> assertEquals(1, cache.size()),
+                () -> assertNotSame(first, cache.get("1 Gofer St", "Seattle", "WA")),
+                () -> assertEquals(3, cache.getMisses())
+        );
+    }
+
+    @Test
+    void neverExceedsCapacity() {
+        for (int capacity : new int[] {1, 3, 15, 16, 20, 100}) {
+            AddressCache cache = new AddressCache(capacity);
+            for (int i = 0; i < 2000; i++) {
+                cache.get(i + " Gofer St", "Seattle", "WA");
+            }
+
+            // Every segment is full, and the segments hold the capacity exactly
+            assertEquals(capacity, cache.size(), "Capacity " + capacity);
+        }
+    }
+
+    @Test
+    void disabled() {
+        AddressCache cache = new AddressCache(0);
+        Address first = cache.get(STREET_NONSTD, CITY_NONSTD, STATE_NONSTD);
+        Address second = cache.get(STREET_NONSTD, CITY_NONSTD, STATE_NONSTD);
+
+        assertAll(
+                () -> assertEquals(first, second),
+                () -> assertNotSame(first, second),
+                () -> assertEquals(0, cache.getHits()),
+                () -> assertEquals(0, cache.getMisses()),
+                () -> assertEquals(0, cache.size())
+        );
+    }
+
+    @Test
+    void invalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new AddressCache(-1));
+    }
+}
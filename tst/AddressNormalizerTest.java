@@ -0,0 +1,70 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AddressNormalizerTest {
+    private static final AddressNormalizer STANDARD = AddressNormalizer.standard();
+
+    private static void assertStreet(String expectedStreet, String expectedApartment, String raw) {
+        String[] parts = STANDARD.normalizeStreet(raw);
+        assertEquals(expectedStreet, parts[0], raw);
+        assertEquals(expectedApartment, parts[1], raw);
+    }
+
+    @Test
+    void normalizeStreet() {
+        assertAll(
+                () -> assertStreet("123 Main St", null, " 123 main st., "),
+                () -> assertStreet("123 Main St", null, "123   MAIN   STREET"),
+                () -> assertStreet("234 2nd Ave", null, "234 2nd Avenue."),
+                () -> assertStreet("12-b Court St", null, "12-B court street"),
+                () -> assertStreet("", null, " ., ")
+        );
+    }
+
+    @Test
+    void normalizeStreetWithApartment() {
+        assertAll(
+                () -> assertStreet("345 3rd Blvd", "Apt. 200", "345 3rd Blvd., Apt. 200"),
+                () -> assertStreet("345 3rd Blvd", "Apt. 200", "345 3rd Blvd Apt 200"),
+                () -> assertStreet("345 3rd Blvd", "Apt. 200", "345 3rd boulevard apartment 200"),
+                () -> assertStreet("345 3rd Blvd", "Apt. 200", "345 3rd Blvd #200"),
+                () -> assertStreet("345 3rd Blvd", "Apt. 200", "345 3rd Blvd # 200"),
+                () -> assertStreet("345 3rd Blvd", "Apt. 12B", "345 3rd Blvd apt. 12b"),
+                () -> assertStreet("345 3rd Blvd", "Unit 7", "345 3rd Blvd, unit 7"),
+                () -> assertStreet("345 3rd Blvd", "Ste. 100", "345 3rd Blvd Suite #100"),
+                () -> assertStreet("Apartment Row", null, "apartment row")
+        );
+    }
+
+    @Test
+    void normalizeWords() {
+        assertAll(
+                () -> assertEquals("Seattle", STANDARD.normalizeWords(" SEATTLE, ")),
+                () -> assertEquals("San Jose", STANDARD.normalizeWords("san  jose.")),
+                () -> assertEquals("", STANDARD.normalizeWords(""))
+        );
+    }
+
+    @Test
+    void normalizeState() {
+        assertAll(
+                () -> assertEquals("WA", STANDARD.normalizeState("wa.")),
+                () -> assertEquals("WA", STANDARD.normalizeState(" Wa "))
+        );
+    }
+
+    @Test
+    void customRules() {
+        AddressNormalizer normalizer = new AddressNormalizer(Map.of("way", "Wy"), Map.of("flat", "Flat"), ".,;");
+        String[] parts = normalizer.normalizeStreet("1 Abbey Way; flat 3 #2");
+
+        assertAll(
+                () -> assertEquals("1 Abbey Wy", parts[0]),
+                () -> assertEquals("Flat 3 #2", parts[1]),
+                () -> assertEquals("1 Abbey Road", normalizer.normalizeStreet("1 abbey road")[0])
+        );
+    }
+}
@@ -138,8 +138,22 @@ class AddressTest {
                 () -> assertTrue(stdWithoutApt1.compareTo(stdWithDifferentCity) < 0),
                 () -> assertTrue(stdWithoutApt1.compareTo(stdWithDifferentState) > 0),
                 () -> assertTrue(stdWithoutApt1.compareTo(stdWithApt1) < 0),
+                () -> assertTrue(stdWithApt1.compareTo(stdWithoutApt1) > 0),
                 () -> assertTrue(stdWithApt1.compareTo(stdWithApt2) == 0),
                 () -> assertTrue(stdWithApt1.compareTo(stdWithDifferentApt) < 0)
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void richerNormalization() {
+        Address withApt_std = new Address(STREET_APT_STD, CITY_STD, STATE_STD);
+
+        assertAll(
+                () -> assertEquals(withApt_std, new Address("123 Gofer Street Apt 101", CITY_STD, STATE_STD)),
+                () -> assertEquals(withApt_std, new Address("123 gofer st #101", CITY_NONSTD_LOWER, STATE_STD)),
+                () -> assertEquals(withApt_std, new Address("123  Gofer St,  apartment 101", CITY_STD, " wa ")),
+                () -> assertEquals(STD_APT_STRING,
+                        new Address("123 gofer street, apt. 101", CITY_STD, STATE_STD).toString())
+        );
+    }
+}
@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregateReportTest {
+    private static final Path SAMPLE_INPUT = Path.of("tst/data/sample.txt");
+
+    private static AggregateReport read(int top) throws IOException {
+        AggregateReport aggregate = new AggregateReport(top);
+        MappedResidentReader.read(SAMPLE_INPUT, new AddressCache(16), aggregate::add);
+        return aggregate;
+    }
+
+    @Test
+    void matchesHouseholds() throws IOException {
+        AggregateReport aggregate = read(10);
+        HouseholdIndex households = Solution.readMapped(SAMPLE_INPUT, new AddressCache(16));
+        List<TopKCounter.Counter<Address>> largest = aggregate.getLargestHouseholds();
+
+        assertAll(
+                () -> assertEquals(households.getResidentCount(), aggregate.getResidentCount()),
+                () -> assertEquals(households.size(), aggregate.getHouseholdEstimate()),
+                () -> assertEquals(households.size(), largest.size()),
+                () -> assertTrue(largest.get(0).getCount() >= largest.get(largest.size() - 1).getCount())
+        );
+        for (TopKCounter.Counter<Address> household : largest) {
+            assertEquals(households.getHousehold(household.getItem()).getOccupants(), household.getCount());
+            assertEquals(0, household.getError());
+        }
+    }
+
+    @Test
+    void countsPlaces() throws IOException {
+        AggregateReport aggregate = read(1);
+        AggregateReport.Place seattle = aggregate.getPlace("WA", "Seattle");
+
+        assertAll(
+                () -> assertEquals(1, aggregate.getLargestHouseholds().size()),
+                () -> assertNull(aggregate.getPlace("WA", "Spokane")),
+                () -> assertEquals(6, aggregate.getAdultCount()),
+                () -> assertEquals(7, seattle.getResidentCount()),
+                () -> assertEquals(3, seattle.getAdultCount()),
+                () -> assertEquals(4, seattle.getAgeCount(1)),
+                () -> assertEquals(2, seattle.getAgeCount(4)),
+                () -> assertEquals(1, seattle.getAgeCount(6))
+        );
+    }
+
+    @Test
+    void writesSummary() throws IOException {
+        AggregateReport aggregate = new AggregateReport(2);
+        Address main = new Address("123 Main St", "Seattle", "WA");
+        aggregate.add(new Resident("Ann", "Doe", main, 40));
+        aggregate.add(new Resident("Bob", "Doe", main, 12));
+        aggregate.add(new Resident("Cal", "Roe", new Address("9 Elm St", "Tacoma", "WA"), 95));
+        StringWriter text = new StringWriter();
+        try (ReportWriter out = new ReportWriter(text)) {
+            aggregate.writeTo(out);
+        }
+
+        assertEquals("Residents: 3 (2 adults, 1 minor, 2.00 adults per minor)\n"
+                + "Distinct households: about 2\n"
+                + "Largest households:\n"
+                + "    123 Main St, Seattle, WA: 2 occupants\n"
+                + "    9 Elm St, Tacoma, WA: 1 occupant\n"
+                + "Places:\n"
+                + "    Seattle, WA: 2 residents (1 adult, 1 minor, 1.00 adults per minor); ages 10-19: 1, 40-49: 1\n"
+                + "    Tacoma, WA: 1 resident (1 adult, 0 minors); ages 90+: 1\n", text.toString());
+    }
+
+    @Test
+    void invalidTop() {
+        assertThrows(IllegalArgumentException.class, () -> new AggregateReport(0));
+    }
+}
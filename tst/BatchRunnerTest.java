@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRunnerTest {
+    private static final Path SAMPLE_INPUT = Path.of("tst/data/sample.txt");
+    private static final Path SAMPLE_MALFORMED_INPUT = Path.of("tst/data/sampleMalformed.txt");
+    private static final String EXTRA = "\"Bob\",\"Doe\",\"1 Gofer St\",\"Seattle\",\"WA\",\"40\"\n";
+
+    @TempDir
+    Path tempDir;
+
+    private Path copy(Path source, String name) throws IOException {
+        return Files.copy(source, this.tempDir.resolve(name));
+    }
+
+    @Test
+    void writesEachAndMergedReports() throws IOException {
+        Path first = copy(SAMPLE_INPUT, "a.txt");
+        Path second = this.tempDir.resolve("b.txt");
+        Files.writeString(second, EXTRA, StandardCharsets.UTF_8);
+        Path reports = this.tempDir.resolve("reports");
+        Path merged = this.tempDir.resolve("merged.txt");
+
+        List<BatchRunner.Result> results = new BatchRunner(1, new AddressCache(16))
+                .run(List.of(first, second), reports, merged);
+
+        Path combined = this.tempDir.resolve("combined.csv");
+        Files.writeString(combined, Files.readString(SAMPLE_INPUT) + "\n" + EXTRA, StandardCharsets.UTF_8);
+        assertAll(
+                () -> assertEquals(5, results.get(0).getHouseholdCount()),
+                () -> assertNull(results.get(0).getError()),
+                () -> assertEquals(1, results.get(1).getHouseholdCount()),
+                () -> assertEquals(Solution.startMapped(first, new AddressCache(16)),
+                        Files.readString(reports.resolve("a.txt" + BatchRunner.REPORT_SUFFIX))),
+                () -> assertEquals(Solution.startMapped(second, new AddressCache(16)),
+                        Files.readString(reports.resolve("b.txt" + BatchRunner.REPORT_SUFFIX))),
+                () -> assertEquals(Solution.startMapped(combined, new AddressCache(16)), Files.readString(merged))
+        );
+    }
+
+    @Test
+    void failedFilesDoNotStopOthers() throws IOException {
+        Path good = copy(SAMPLE_INPUT, "good.txt");
+        Path bad = copy(SAMPLE_MALFORMED_INPUT, "bad.txt");
+        Path missing = this.tempDir.resolve("missing.txt");
+        Path merged = this.tempDir.resolve("merged.txt");
+
+        List<BatchRunner.Result> results = new BatchRunner(4, new AddressCache(16))
+                .run(List.of(bad, good, missing), null, merged);
+
+        assertAll(
+                () -> assertEquals("Input file is malformed.", results.get(0).getError()),
+                () -> assertEquals(-1, results.get(0).getHouseholdCount()),
+                () -> assertEquals(5, results.get(1).getHouseholdCount()),
+                () -> assertEquals("File not found", results.get(2).getError()),
+                () -> assertTrue(Files.exists(this.tempDir.resolve("good.txt" + BatchRunner.REPORT_SUFFIX))),
+                () -> assertFalse(Files.exists(this.tempDir.resolve("bad.txt" + BatchRunner.REPORT_SUFFIX))),
+                () -> assertEquals(Solution.startMapped(good, new AddressCache(16)), Files.readString(merged)),
+                () -> assertEquals(bad + ": Input file is malformed.", results.get(0).toString())
+        );
+    }
+
+    @Test
+    void findInputs() throws IOException {
+        Path first = copy(SAMPLE_INPUT, "b.txt");
+        Path second = copy(SAMPLE_INPUT, "a.txt");
+        copy(SAMPLE_INPUT, "a.csv");
+        copy(SAMPLE_INPUT, "a.txt" + BatchRunner.REPORT_SUFFIX);
+        Files.createDirectory(this.tempDir.resolve("c.txt"));
+
+        assertEquals(List.of(second.toAbsolutePath(), first.toAbsolutePath()),
+                BatchRunner.findInputs(this.tempDir.resolve("*.txt").toString()));
+        assertEquals(List.of(this.tempDir.resolve("a.csv"), second, first),
+                BatchRunner.findInputs(this.tempDir.toString()));
+    }
+
+    @Test
+    void invalidParallelism() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchRunner(0, new AddressCache(16)));
+    }
+}
@@ -0,0 +1,52 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHouseholdIndexTest {
+    private static final int PRODUCERS = 8;
+    private static final int RESIDENTS_PER_PRODUCER = 5000;
+    private static final int ADDRESSES = 50;
+
+    @Test
+    void concurrentProducers() throws Exception {
+        List<Address> addresses = new ArrayList<>();
+        for (int i = 0; i < ADDRESSES; i++) {
+            addresses.add(new Address(i + " Gofer St", "Seattle", "WA"));
+        }
+
+        ConcurrentHouseholdIndex index = new ConcurrentHouseholdIndex(false);
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        List<Future<?>> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            producers.add(executor.submit(() -> {
+                for (int i = 0; i < RESIDENTS_PER_PRODUCER; i++) {
+                    index.add(new Resident("Bob", "Doe", addresses.get(i % ADDRESSES), (i / ADDRESSES) % 2 == 0 ? 40 : 10));
+                }
+            }));
+        }
+        for (Future<?> producer : producers) {
+            producer.get();
+        }
+        executor.shutdown();
+
+        List<Household> households = index.getHouseholds();
+        int perAddress = PRODUCERS * RESIDENTS_PER_PRODUCER / ADDRESSES;
+        assertEquals(ADDRESSES, households.size());
+        assertEquals(ADDRESSES, index.getHouseholdsIn("WA", "Seattle").size());
+        assertEquals(PRODUCERS * RESIDENTS_PER_PRODUCER / 2, index.getResidentsByLastName("Doe").size());
+        for (int i = 0; i < households.size(); i++) {
+            Household household = households.get(i);
+            assertEquals(perAddress, household.getOccupants());
+            assertEquals(perAddress / 2, household.getAdults().size());
+            if (i > 0) {
+                assertTrue(households.get(i - 1).getAddress().compareTo(household.getAddress()) < 0);
+            }
+        }
+    }
+}
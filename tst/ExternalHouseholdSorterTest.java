@@ -0,0 +1,82 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalHouseholdSorterTest {
+    private static final String SAMPLE_INPUT = "tst/data/sample.txt";
+    private static final String[] FIRST_NAMES = {"Alice", "Bob", "Carol", "Dave", "Eve"};
+    private static final String[] LAST_NAMES = {"Smith", "Jones", "Brown"};
+    private static final Address[] ADDRESSES = {
+            new Address("123 Main St", "Seattle", "WA"),
+            new Address("123 Main St Apt. 2", "Seattle", "WA"),
+            new Address("234 2nd Ave", "Tacoma", "WA"),
+            new Address("345 3rd Blvd", "Miami", "FL")
+    };
+
+    @TempDir
+    Path tempDir;
+
+    private static String display(ExternalHouseholdSorter sorter) throws IOException {
+        StringBuilder res = new StringBuilder();
+        sorter.forEachHousehold((address, occupants, sortedAdults) -> {
+            res.append(address).append(' ').append(occupants).append('\n');
+            sortedAdults.forEach(resident -> res.append("    ").append(resident).append('\n'));
+        });
+        return res.toString();
+    }
+
+    private String sortWithBudget(List<Resident> residents, long memoryBudget, int expectedRuns)
+            throws IOException {
+        try (ExternalHouseholdSorter sorter = new ExternalHouseholdSorter(memoryBudget, this.tempDir)) {
+            for (Resident resident : residents) {
+                sorter.add(resident);
+            }
+            if (expectedRuns >= 0) {
+                assertEquals(expectedRuns, sorter.getRunCount());
+            }
+            return display(sorter);
+        }
+    }
+
+    @Test
+    void spilledRunsMatchInMemory() throws IOException {
+        Random random = new Random(3);
+        List<Resident> residents = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            residents.add(new Resident(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    ADDRESSES[random.nextInt(ADDRESSES.length)], random.nextInt(40)));
+        }
+
+        String expected = sortWithBudget(residents, Long.MAX_VALUE, 0);
+        // A budget of one byte spills every resident to its own run, forcing intermediate merges
+        assertEquals(expected, sortWithBudget(residents, 1, residents.size()));
+        assertEquals(expected, sortWithBudget(residents, 10_000, -1));
+        try (Stream<Path> files = Files.list(this.tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void matchesSolutionOnSample() throws IOException {
+        String expected = Solution.startMapped(Path.of(SAMPLE_INPUT), new AddressCache(0));
+
+        assertEquals(expected, Solution.startExternal(Path.of(SAMPLE_INPUT), new AddressCache(16), 1, this.tempDir));
+        assertEquals(expected, Solution.startExternal(Path.of(SAMPLE_INPUT), new AddressCache(16),
+                ExternalHouseholdSorter.DEFAULT_MEMORY_BUDGET, this.tempDir));
+    }
+
+    @Test
+    void invalidBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new ExternalHouseholdSorter(0, this.tempDir));
+    }
+}
@@ -0,0 +1,126 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyHouseholdMergerTest {
+    private static final Address MAIN = new Address("123 Main St", "Seattle", "WA");
+    private static final Address MAIN_TYPO = new Address("123 Mian St", "Seattle", "WA");
+    private static final Address MAIN_CITY_TYPO = new Address("123 Main St", "Seatle", "WA");
+    private static final Address MAIN_APARTMENT = new Address("123 Mian St Apt 2", "Seattle", "WA");
+    private static final Address OTHER_NUMBER = new Address("124 Main St", "Seattle", "WA");
+    private static final Address OTHER_STREET = new Address("123 Pine St", "Seattle", "WA");
+    private static final Address OTHER_STATE = new Address("123 Mian St", "Seattle", "OR");
+
+    private static HouseholdIndex index(Address... addresses) {
+        HouseholdIndex index = new HouseholdIndex(false);
+        int age = 20;
+        for (Address address : addresses) {
+            index.add(new Resident("Bob", "Doe", address, age++));
+        }
+        return index;
+    }
+
+    private static List<Address> addresses(HouseholdIndex index) {
+        List<Address> res = new ArrayList<>();
+        index.getHouseholds().forEach(household -> res.add(household.getAddress()));
+        return res;
+    }
+
+    @Test
+    void mergesNearDuplicates() {
+        FuzzyHouseholdMerger.Result result = new FuzzyHouseholdMerger(FuzzyHouseholdMerger.DEFAULT_THRESHOLD)
+                .merge(index(MAIN_TYPO, MAIN, MAIN, MAIN_CITY_TYPO, OTHER_NUMBER, OTHER_STREET, OTHER_STATE,
+                        MAIN_APARTMENT));
+
+        HouseholdIndex households = result.getHouseholds();
+        Household main = households.getHousehold(MAIN);
+        assertAll(
+                () -> assertEquals(5, households.size()),
+                () -> assertNotNull(households.getHousehold(MAIN_APARTMENT)),
+                () -> assertNotNull(households.getHousehold(OTHER_NUMBER)),
+                () -> assertNotNull(households.getHousehold(OTHER_STREET)),
+                () -> assertNotNull(households.getHousehold(OTHER_STATE)),
+                () -> assertEquals(4, main.getOccupants()),
+                () -> assertEquals(4, main.getSortedAdults().size()),
+                () -> assertNull(households.getHousehold(MAIN_TYPO)),
+                () -> assertEquals(1, result.getMerges().size()),
+                () -> assertEquals(MAIN, result.getMerges().get(0).getCanonical()),
+                () -> assertEquals(List.of(MAIN_CITY_TYPO, MAIN_TYPO), result.getMerges().get(0).getMerged()),
+                () -> assertEquals("Merged 123 Main St, Seatle, WA; 123 Mian St, Seattle, WA into "
+                        + "123 Main St, Seattle, WA", result.getMerges().get(0).toString()),
+                () -> assertEquals(0, result.getSkippedBlocks())
+        );
+    }
+
+    @Test
+    void strictThresholdMergesNothing() {
+        HouseholdIndex original = index(MAIN, MAIN_TYPO, MAIN_CITY_TYPO);
+        FuzzyHouseholdMerger.Result result = new FuzzyHouseholdMerger(1).merge(original);
+
+        assertEquals(addresses(original), addresses(result.getHouseholds()));
+        assertTrue(result.getMerges().isEmpty());
+    }
+
+    @Test
+    void similarity() {
+        assertAll(
+                () -> assertEquals(0, FuzzyHouseholdMerger.distance("Main", "Main")),
+                () -> assertEquals(1, FuzzyHouseholdMerger.distance("Main", "Mian")),
+                () -> assertEquals(1, FuzzyHouseholdMerger.distance("Seattle", "Seatle")),
+                () -> assertEquals(3, FuzzyHouseholdMerger.distance("kitten", "sitting")),
+                () -> assertEquals(4, FuzzyHouseholdMerger.distance("", "Main")),
+                () -> assertEquals(1.0, FuzzyHouseholdMerger.wordSimilarity("", "")),
+                () -> assertEquals(0.75, FuzzyHouseholdMerger.wordSimilarity("Main", "Man")),
+                () -> assertEquals(8.0 / 9, FuzzyHouseholdMerger.wordSimilarity("123 Mian St", "123 Main St")),
+                () -> assertEquals(1.0, FuzzyHouseholdMerger.wordSimilarity("100 N Main St", "100 North Main St")),
+                () -> assertEquals(0.0, FuzzyHouseholdMerger.wordSimilarity("100 N Main St", "100 S Main St")),
+                () -> assertEquals(0.0, FuzzyHouseholdMerger.wordSimilarity("100 W 142nd St", "100 W 143rd St")),
+                () -> assertEquals(0.0, FuzzyHouseholdMerger.wordSimilarity("Main St", "Main Street Ext"))
+        );
+    }
+
+    @Test
+    void keepsDifferentDirectionsAndNumbersApart() {
+        Address north = new Address("100 N Main St", "Springfield", "IL");
+        Address south = new Address("100 S Main St", "Springfield", "IL");
+        Address west142 = new Address("100 W 142nd St", "New York", "NY");
+        Address west143 = new Address("100 W 143rd St", "New York", "NY");
+        HouseholdIndex original = index(north, north, south, west142, west143);
+        FuzzyHouseholdMerger.Result result = new FuzzyHouseholdMerger(FuzzyHouseholdMerger.DEFAULT_THRESHOLD)
+                .merge(original);
+
+        assertEquals(addresses(original), addresses(result.getHouseholds()));
+        assertTrue(result.getMerges().isEmpty());
+    }
+
+    @Test
+    void keepsMostCommonSpellingOnTie() {
+        Address typo = new Address("12 Elm St", "Springfeld", "IL");
+        Address correct = new Address("12 Elm St", "Springfield", "IL");
+        Address neighbour = new Address("14 Elm St", "Springfield", "IL");
+        FuzzyHouseholdMerger.Result result = new FuzzyHouseholdMerger(FuzzyHouseholdMerger.DEFAULT_THRESHOLD)
+                .merge(index(typo, correct, neighbour));
+
+        // The typo comes first in address order, and has as many occupants
+        assertEquals(1, result.getMerges().size());
+        assertEquals(correct, result.getMerges().get(0).getCanonical());
+        assertEquals(List.of(typo), result.getMerges().get(0).getMerged());
+        assertEquals(2, result.getHouseholds().getHousehold(correct).getOccupants());
+    }
+
+    @Test
+    void houseNumber() {
+        assertEquals("123", FuzzyHouseholdMerger.houseNumber("123 Main St"));
+        assertEquals("12B", FuzzyHouseholdMerger.houseNumber("12B Main St"));
+        assertEquals("", FuzzyHouseholdMerger.houseNumber("Main St"));
+    }
+
+    @Test
+    void invalidThreshold() {
+        assertThrows(IllegalArgumentException.class, () -> new FuzzyHouseholdMerger(0));
+        assertThrows(IllegalArgumentException.class, () -> new FuzzyHouseholdMerger(1.5));
+    }
+}
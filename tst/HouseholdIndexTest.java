@@ -0,0 +1,133 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HouseholdIndexTest {
+    private static final Address ADDRESS_SEATTLE = new Address("123 Gofer St", "Seattle", "WA");
+    private static final Address ADDRESS_TACOMA = new Address("123 Gofer St", "Tacoma", "WA");
+    private static final Address ADDRESS_MIAMI = new Address("123 Gofer St", "Miami", "FL");
+
+    @Test
+    void groupsResidentsInAddressOrder() {
+        HouseholdIndex index = new HouseholdIndex(false);
+        assertTrue(index.isEmpty());
+
+        index.add(new Resident("Bob", "Doe", ADDRESS_TACOMA, 45));
+        index.add(new Resident("Jane", "Doe", ADDRESS_SEATTLE, 30));
+        index.add(new Resident("Ann", "Doe", new Address(" 123 gofer st. ", "seattle", "wa"), 12));
+        index.add(new Resident("Tim", "Roe", ADDRESS_MIAMI, 50));
+
+        List<Address> addresses = new ArrayList<>();
+        List<Integer> occupants = new ArrayList<>();
+        for (Household household : index.getHouseholds()) {
+            addresses.add(household.getAddress());
+            occupants.add(household.getOccupants());
+        }
+
+        assertAll(
+                () -> assertFalse(index.isEmpty()),
+                () -> assertEquals(3, index.size()),
+                () -> assertEquals(List.of(ADDRESS_MIAMI, ADDRESS_SEATTLE, ADDRESS_TACOMA), addresses),
+                () -> assertEquals(List.of(1, 2, 1), occupants),
+                () -> assertEquals(2, index.getHousehold(ADDRESS_SEATTLE).getOccupants()),
+                () -> assertNull(index.getHousehold(new Address("1 Gofer St", "Seattle", "WA")))
+        );
+    }
+
+    @Test
+    void householdsStaySortedAsTheyGrow() {
+        HouseholdIndex index = new HouseholdIndex(false);
+        index.add(new Resident("Bob", "Doe", ADDRESS_TACOMA, 45));
+        assertEquals(1, index.getHouseholds().size());
+
+        index.add(new Resident("Tim", "Roe", ADDRESS_MIAMI, 50));
+        assertEquals(ADDRESS_MIAMI, index.getHouseholds().get(0).getAddress());
+        assertEquals(ADDRESS_TACOMA, index.getHouseholds().get(1).getAddress());
+    }
+
+    @Test
+    void residentsByLastName() {
+        HouseholdIndex index = new HouseholdIndex(false);
+        Resident bob = new Resident("Bob", "Doe", ADDRESS_TACOMA, 45);
+        Resident jane = new Resident("Jane", "Doe", ADDRESS_SEATTLE, 30);
+        index.add(jane);
+        index.add(new Resident("Ann", "Doe", ADDRESS_SEATTLE, 12));
+        index.add(bob);
+        index.add(new Resident("Tim", "Roe", ADDRESS_MIAMI, 50));
+
+        assertAll(
+                () -> assertEquals(List.of(bob, jane), index.getResidentsByLastName("Doe")),
+                () -> assertEquals(List.of(bob, jane), index.getResidentsByLastName("DOE")),
+                () -> assertEquals(List.of(), index.getResidentsByLastName("Poe"))
+        );
+    }
+
+    @Test
+    void householdsByPlace() {
+        HouseholdIndex index = new HouseholdIndex(false);
+        Address otherSeattle = new Address("1 Gofer St", "Seattle", "WA");
+        index.add(new Resident("Bob", "Doe", ADDRESS_TACOMA, 45));
+        index.add(new Resident("Jane", "Doe", ADDRESS_SEATTLE, 30));
+        index.add(new Resident("Tim", "Roe", ADDRESS_MIAMI, 50));
+        index.add(new Resident("Ann", "Poe", otherSeattle, 12));
+
+        List<Address> seattle = new ArrayList<>();
+        index.getHouseholdsIn("WA", "Seattle").forEach(household -> seattle.add(household.getAddress()));
+        List<Address> washington = new ArrayList<>();
+        index.getHouseholdsIn("WA").forEach(household -> washington.add(household.getAddress()));
+
+        assertAll(
+                () -> assertEquals(List.of(otherSeattle, ADDRESS_SEATTLE), seattle),
+                () -> assertEquals(List.of(otherSeattle, ADDRESS_SEATTLE, ADDRESS_TACOMA), washington),
+                () -> assertEquals(List.of(), index.getHouseholdsIn("WA", "Spokane")),
+                () -> assertEquals(List.of(), index.getHouseholdsIn("OR"))
+        );
+    }
+
+    @Test
+    void addAll() {
+        HouseholdIndex first = new HouseholdIndex(true);
+        first.add(new Resident("Bob", "Doe", ADDRESS_TACOMA, 45));
+        first.add(new Resident("Jane", "Doe", ADDRESS_SEATTLE, 30));
+        HouseholdIndex second = new HouseholdIndex(true);
+        second.add(new Resident("Ann", "Doe", ADDRESS_SEATTLE, 12));
+        second.add(new Resident("Tim", "Roe", ADDRESS_MIAMI, 50));
+
+        first.addAll(second);
+
+        List<String> residents = new ArrayList<>();
+        for (Household household : first.getHouseholds()) {
+            household.getResidents().forEach(resident -> residents.add(resident.toString()));
+        }
+        assertEquals(List.of(
+                "Tim Roe, 123 Gofer St, Miami, FL, 50",
+                "Jane Doe, 123 Gofer St, Seattle, WA, 30",
+                "Ann Doe, 123 Gofer St, Seattle, WA, 12",
+                "Bob Doe, 123 Gofer St, Tacoma, WA, 45"), residents);
+        assertEquals(3, first.getResidentsByLastName("Doe").size());
+        assertEquals(2, first.getHouseholdsIn("WA").size());
+        assertEquals(1, first.getHouseholdsIn("FL", "Miami").size());
+    }
+
+    @Test
+    void lookupsFollowLaterAdds() {
+        HouseholdIndex index = new HouseholdIndex(false);
+        index.add(new Resident("Bob", "Doe", ADDRESS_TACOMA, 45));
+        assertEquals(1, index.getResidentsByLastName("Doe").size());
+        assertEquals(List.of(), index.getHouseholdsIn("FL"));
+
+        // Lookups after a change see it, though the indexes were built by the lookups before it
+        index.add(new Resident("Jane", "Doe", ADDRESS_MIAMI, 30));
+        index.add(new Resident("Ann", "Doe", ADDRESS_MIAMI, 12));
+        HouseholdIndex other = new HouseholdIndex(false);
+        other.add(new Resident("Tim", "Doe", ADDRESS_SEATTLE, 50));
+        index.addAll(other);
+
+        assertEquals(3, index.getResidentsByLastName("doe").size());
+        assertEquals(1, index.getHouseholdsIn("FL").size());
+        assertEquals(2, index.getHouseholdsIn("WA").size());
+    }
+}
@@ -0,0 +1,123 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HouseholdServerTest {
+    private static final String SAMPLE_INPUT = "tst/data/sample.txt";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private HouseholdServer server;
+    private String base;
+
+    @BeforeEach
+    void start() throws IOException {
+        AddressCache cache = new AddressCache(16);
+        this.server = new HouseholdServer(Solution.readMapped(Path.of(SAMPLE_INPUT), cache), cache);
+        InetSocketAddress address = this.server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        this.base = "http://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    @AfterEach
+    void stop() {
+        this.server.stop();
+    }
+
+    private HttpResponse<String> get(String pathAndQuery) throws IOException, InterruptedException {
+        return this.client.send(HttpRequest.newBuilder(URI.create(this.base + pathAndQuery)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void household() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("/household?street=123+main+st.&city=SEATTLE&state=wa");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("The household at 123 Main St, Seattle, WA has 4 occupants:\n"
+                + "    Alice Smith, 123 Main St, Seattle, WA, 45\n"
+                + "    Dave Smith, 123 Main St, Seattle, WA, 43\n", response.body());
+        assertEquals(404, get("/household?street=1+Nowhere+Rd&city=Seattle&state=WA").statusCode());
+        assertEquals(400, get("/household?street=123+Main+St").statusCode());
+    }
+
+    @Test
+    void residents() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("/residents?last=smith");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("Alice Smith, 123 Main St, Seattle, WA, 45\n"
+                + "Dave Smith, 123 Main St, Seattle, WA, 43\n"
+                + "Eve Smith, 234 2nd Ave, Tacoma, WA, 25\n", response.body());
+        assertEquals("Eve Smith, 234 2nd Ave, Tacoma, WA, 25\n", get("/residents?first=Eve&last=Smith").body());
+        assertEquals("", get("/residents?first=Zed").body());
+        assertEquals(400, get("/residents").statusCode());
+    }
+
+    @Test
+    void households() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("/households?state=wa.&city=tacoma");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("The household at 234 2nd Ave, Tacoma, WA has 2 occupants:\n"
+                + "    Eve Smith, 234 2nd Ave, Tacoma, WA, 25\n"
+                + "    Bob Williams, 234 2nd Ave, Tacoma, WA, 26\n", response.body());
+        assertEquals(4, get("/households?state=WA").body().split("\n(?! )").length);
+        assertEquals("", get("/households?state=OR").body());
+        assertEquals(400, get("/households?city=Tacoma").statusCode());
+    }
+
+    @Test
+    void report() throws IOException, InterruptedException {
+        String expected;
+        try (Scanner scanner = new Scanner(new File(SAMPLE_INPUT))) {
+            expected = Solution.start(scanner);
+        }
+
+        assertEquals(expected, get("/report").body());
+    }
+
+    @Test
+    void metrics() throws IOException, InterruptedException {
+        get("/report");
+        get("/household?street=123+Main+St&city=Seattle&state=WA");
+        String metrics = get("/metrics").body();
+
+        assertEquals(1, this.server.getLatencies("/report").getCount());
+        assertTrue(metrics.contains("# TYPE household_server_request_seconds histogram\n"));
+        assertTrue(metrics.contains("household_server_request_seconds_count{endpoint=\"report\"} 1\n"));
+        assertTrue(metrics.contains(
+                "household_server_request_seconds_bucket{endpoint=\"household\",le=\"+Inf\"} 1\n"));
+    }
+
+    @Test
+    void rejectsOtherRequests() throws IOException, InterruptedException {
+        HttpResponse<String> post = this.client.send(HttpRequest.newBuilder(URI.create(this.base + "/report"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(405, post.statusCode());
+        assertEquals(404, get("/reports").statusCode());
+        assertThrows(IllegalStateException.class,
+                () -> this.server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)));
+    }
+
+    @Test
+    void parseQuery() {
+        assertEquals(Map.of("street", "1 Main St", "city", "", "state", "WA"),
+                HouseholdServer.parseQuery("street=1+Main%20St&city&state=WA"));
+        assertEquals(Map.of(), HouseholdServer.parseQuery(null));
+        assertThrows(IllegalArgumentException.class, () -> HouseholdServer.parseQuery("last=%zz"));
+    }
+}
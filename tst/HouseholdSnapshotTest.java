@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HouseholdSnapshotTest {
+    private static final String SAMPLE_INPUT = "tst/data/sample.txt";
+
+    @TempDir
+    Path tempDir;
+
+    private Path saveSample() throws IOException {
+        Path snapshot = this.tempDir.resolve("sample.snapshot");
+        HouseholdSnapshot.write(Solution.readMapped(Path.of(SAMPLE_INPUT), new AddressCache(16)), snapshot);
+        return snapshot;
+    }
+
+    private static void overwrite(Path path, long position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(bytes, position);
+        }
+    }
+
+    @Test
+    void reloadMatchesReport() throws IOException {
+        String expected = Solution.startMapped(Path.of(SAMPLE_INPUT), new AddressCache(0));
+
+        assertEquals(expected, Solution.startSnapshot(saveSample()));
+    }
+
+    @Test
+    void households() throws IOException {
+        HouseholdIndex households = Solution.readMapped(Path.of(SAMPLE_INPUT), new AddressCache(16));
+        HouseholdSnapshot snapshot = HouseholdSnapshot.load(saveSample());
+
+        assertEquals(households.size(), snapshot.size());
+        for (int i = 0; i < snapshot.size(); i++) {
+            Household household = households.getHouseholds().get(i);
+            List<Resident> adults = snapshot.getAdults(i);
+            assertEquals(household.getAddress(), snapshot.getAddress(i));
+            assertEquals(household.getAddress().toString(), snapshot.getAddress(i).toString());
+            assertEquals(household.getOccupants(), snapshot.getOccupants(i));
+            assertEquals(household.getAdults().size(), adults.size());
+            assertTrue(household.getAdults().containsAll(adults));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> snapshot.getAddress(snapshot.size()));
+    }
+
+    @Test
+    void emptyIndex() throws IOException {
+        Path snapshot = this.tempDir.resolve("empty.snapshot");
+        HouseholdSnapshot.write(new HouseholdIndex(false), snapshot);
+
+        assertEquals(0, HouseholdSnapshot.load(snapshot).size());
+        assertEquals("", Solution.startSnapshot(snapshot));
+    }
+
+    @Test
+    void rejectsCorruptFiles() throws IOException {
+        Path notSnapshot = Path.of(SAMPLE_INPUT);
+        Path snapshot = saveSample();
+        Path badVersion = Files.copy(snapshot, this.tempDir.resolve("version.snapshot"));
+        overwrite(badVersion, Integer.BYTES, ByteBuffer.allocate(Integer.BYTES).putInt(0, 99));
+        Path badChecksum = Files.copy(snapshot, this.tempDir.resolve("checksum.snapshot"));
+        overwrite(badChecksum, Files.size(badChecksum) - 1, ByteBuffer.wrap(new byte[]{42}));
+        Path truncated = Files.copy(snapshot, this.tempDir.resolve("truncated.snapshot"));
+        try (FileChannel channel = FileChannel.open(truncated, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 4);
+        }
+
+        IOException version = assertThrows(IOException.class, () -> HouseholdSnapshot.load(badVersion));
+        assertTrue(version.getMessage().contains("version 99"));
+        assertThrows(IOException.class, () -> HouseholdSnapshot.load(notSnapshot));
+        assertThrows(IOException.class, () -> HouseholdSnapshot.load(badChecksum));
+        assertThrows(IOException.class, () -> HouseholdSnapshot.load(truncated));
+    }
+}
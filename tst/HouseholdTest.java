@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HouseholdTest {
+    private static final Address ADDRESS = new Address("123 Gofer St", "Seattle", "WA");
+    private static final Resident ADULT_BOB = new Resident("Bob", "Doe", ADDRESS, 45);
+    private static final Resident ADULT_JANE = new Resident("Jane", "Doe", ADDRESS, 19);
+    private static final Resident MINOR_ANN = new Resident("Ann", "Doe", ADDRESS, 18);
+
+    @Test
+    void countsMinorsWithoutRetainingThem() {
+        Household household = new Household(ADDRESS, false);
+        household.add(ADULT_BOB);
+        household.add(MINOR_ANN);
+        household.add(ADULT_JANE);
+
+        assertAll(
+                () -> assertEquals(ADDRESS, household.getAddress()),
+                () -> assertEquals(3, household.getOccupants()),
+                () -> assertEquals(List.of(ADULT_BOB, ADULT_JANE), household.getAdults()),
+                () -> assertThrows(IllegalStateException.class, household::getResidents)
+        );
+    }
+
+    @Test
+    void retainsMinors() {
+        Household household = new Household(ADDRESS, true);
+        household.add(ADULT_BOB);
+        household.add(MINOR_ANN);
+        household.add(ADULT_JANE);
+
+        assertAll(
+                () -> assertEquals(3, household.getOccupants()),
+                () -> assertEquals(List.of(ADULT_BOB, ADULT_JANE), household.getAdults()),
+                () -> assertEquals(List.of(ADULT_BOB, MINOR_ANN, ADULT_JANE), household.getResidents())
+        );
+    }
+
+    @Test
+    void sortedAdults() {
+        Household household = new Household(ADDRESS, true);
+        household.add(ADULT_JANE);
+        household.add(MINOR_ANN);
+        household.add(ADULT_BOB);
+
+        List<Resident> sorted = household.getSortedAdults();
+        assertEquals(List.of(ADULT_BOB, ADULT_JANE), sorted);
+        assertSame(sorted, household.getSortedAdults());
+
+        Resident adultAl = new Resident("Al", "Doe", ADDRESS, 30);
+        household.add(adultAl);
+        assertEquals(List.of(adultAl, ADULT_BOB, ADULT_JANE), household.getSortedAdults());
+        assertThrows(UnsupportedOperationException.class, () -> household.getSortedAdults().clear());
+    }
+
+    @Test
+    void isAdult() {
+        assertTrue(Household.isAdult(ADULT_JANE));
+        assertFalse(Household.isAdult(MINOR_ANN));
+    }
+}
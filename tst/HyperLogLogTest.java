@@ -0,0 +1,55 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+    private static long hash(int item) {
+        return HyperLogLog.mix(HyperLogLog.hash(0, "item" + item));
+    }
+
+    @Test
+    void empty() {
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void smallCountsAreNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 1000; i++) {
+            sketch.add(hash(i % 100));
+        }
+
+        assertEquals(100, sketch.estimate(), 1);
+    }
+
+    @Test
+    void largeCountsAreWithinTwoPercent() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 1_000_000; i++) {
+            sketch.add(hash(i));
+        }
+
+        assertEquals(1_000_000, sketch.estimate(), 20_000);
+    }
+
+    @Test
+    void addAll() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog both = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) {
+            (i % 2 == 0 ? first : second).add(hash(i));
+            both.add(hash(i));
+        }
+        first.addAll(second);
+
+        assertEquals(both.estimate(), first.estimate());
+    }
+
+    @Test
+    void hashSeparatesStrings() {
+        assertNotEquals(HyperLogLog.hash(HyperLogLog.hash(0, "ab"), "c"),
+                HyperLogLog.hash(HyperLogLog.hash(0, "a"), "bc"));
+        assertEquals(HyperLogLog.hash(0, null), HyperLogLog.hash(0, ""));
+    }
+}
@@ -0,0 +1,126 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InflatingInputStreamTest {
+    @TempDir
+    Path tempDir;
+
+    private Path gzip(String name, byte[] bytes) throws IOException {
+        Path file = this.tempDir.resolve(name);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(bytes);
+        }
+        return file;
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        Random random = new Random(42);
+        // Few distinct values, so the bytes compress as text does
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) ('a' + random.nextInt(8));
+        }
+        return bytes;
+    }
+
+    @Test
+    void isGzip() throws IOException {
+        Path plain = this.tempDir.resolve("plain.txt");
+        Files.writeString(plain, "\"Dave\",\"Smith\"");
+        Path empty = this.tempDir.resolve("empty.txt");
+        Files.write(empty, new byte[0]);
+        Path oneByte = this.tempDir.resolve("one.txt");
+        Files.write(oneByte, new byte[] {0x1f});
+
+        assertTrue(InflatingInputStream.isGzip(gzip("input.gz", new byte[0])));
+        assertFalse(InflatingInputStream.isGzip(plain));
+        assertFalse(InflatingInputStream.isGzip(empty));
+        assertFalse(InflatingInputStream.isGzip(oneByte));
+    }
+
+    @Test
+    void inflatesThroughSmallRing() throws IOException {
+        byte[] expected = randomBytes(300_000);
+        Path file = gzip("input.gz", expected);
+
+        // A ring smaller than each read and each inflated buffer wraps around on almost every copy
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        try (InputStream in = new InflatingInputStream(file, 1000)) {
+            byte[] buffer = new byte[1500];
+            int length;
+            while ((length = in.read(buffer, 7, buffer.length - 7)) >= 0) {
+                actual.write(buffer, 7, length);
+            }
+            assertEquals(-1, in.read());
+        }
+
+        assertArrayEquals(expected, actual.toByteArray());
+    }
+
+    @Test
+    void readsSingleBytes() throws IOException {
+        Path file = gzip("input.gz", new byte[] {'a', (byte) 0xff, '\n'});
+
+        try (InputStream in = new InflatingInputStream(file, 2)) {
+            assertEquals('a', in.read());
+            assertEquals(0xff, in.read());
+            assertEquals('\n', in.read());
+            assertEquals(-1, in.read());
+            assertEquals(0, in.read(new byte[4], 0, 0));
+        }
+    }
+
+    @Test
+    void truncatedFile() throws IOException {
+        byte[] expected = randomBytes(300_000);
+        byte[] compressed = Files.readAllBytes(gzip("input.gz", expected));
+        Path truncated = this.tempDir.resolve("truncated.gz");
+        Files.write(truncated, Arrays.copyOf(compressed, compressed.length / 2));
+
+        // The bytes inflated before the error are still read, then the error is thrown
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        try (InputStream in = new InflatingInputStream(truncated)) {
+            byte[] buffer = new byte[4096];
+            assertThrows(EOFException.class, () -> {
+                int length;
+                while ((length = in.read(buffer)) >= 0) {
+                    actual.write(buffer, 0, length);
+                }
+            });
+        }
+        assertTrue(actual.size() > 0);
+        assertArrayEquals(Arrays.copyOf(expected, actual.size()), actual.toByteArray());
+    }
+
+    @Test
+    void notGzip() throws IOException {
+        Path plain = this.tempDir.resolve("plain.txt");
+        Files.writeString(plain, "\"Dave\",\"Smith\",\"123 main st.\",\"seattle\",\"wa\",\"43\"\n");
+
+        assertThrows(ZipException.class, () -> new InflatingInputStream(plain));
+    }
+
+    @Test
+    void closeStopsInflating() throws IOException {
+        // The inflating thread fills the ring and waits for reads that never come, until the stream is closed
+        InputStream in = new InflatingInputStream(gzip("input.gz", randomBytes(300_000)), 16);
+        assertTrue(in.read() >= 'a');
+        in.close();
+
+        assertThrows(IOException.class, in::read);
+    }
+}
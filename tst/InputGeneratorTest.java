@@ -0,0 +1,74 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputGeneratorTest {
+    @TempDir
+    Path tempDir;
+
+    private Path generate(InputGenerator generator, int rows, StringWriter expected) throws IOException {
+        Path input = this.tempDir.resolve("input.txt");
+        try (StringWriter inputText = new StringWriter()) {
+            generator.generate(rows, inputText, expected);
+            Files.writeString(input, inputText.toString(), StandardCharsets.UTF_8);
+        }
+        return input;
+    }
+
+    @Test
+    void reportMatchesExpected() throws IOException {
+        InputGenerator generator = new InputGenerator().setSeed(5).setDirtyFraction(0.7);
+        StringWriter expected = new StringWriter();
+        Path input = generate(generator, 20000, expected);
+
+        assertEquals(20000, Files.readAllLines(input).size());
+        assertEquals(expected.toString(), Solution.startMapped(input, new AddressCache(1024)));
+        try (Scanner scanner = new Scanner(input, StandardCharsets.UTF_8)) {
+            assertEquals(expected.toString(), Solution.start(scanner));
+        }
+    }
+
+    @Test
+    void extremeSettings() throws IOException {
+        InputGenerator generator = new InputGenerator().setSeed(9).setDirtyFraction(1).setSkew(3)
+                .setHouseholdSize(6, 20).setMinorFraction(0.9).setApartmentFraction(1);
+        StringWriter expected = new StringWriter();
+        Path input = generate(generator, 3000, expected);
+
+        assertEquals(expected.toString(), Solution.startMapped(input, new AddressCache(0)));
+    }
+
+    @Test
+    void sameSeedSameOutput() throws IOException {
+        StringWriter[] inputs = {new StringWriter(), new StringWriter(), new StringWriter()};
+        StringWriter[] reports = {new StringWriter(), new StringWriter(), new StringWriter()};
+        new InputGenerator().setSeed(1).generate(500, inputs[0], reports[0]);
+        new InputGenerator().setSeed(1).generate(500, inputs[1], reports[1]);
+        new InputGenerator().setSeed(2).generate(500, inputs[2], reports[2]);
+
+        assertEquals(inputs[0].toString(), inputs[1].toString());
+        assertEquals(reports[0].toString(), reports[1].toString());
+        assertNotEquals(inputs[0].toString(), inputs[2].toString());
+    }
+
+    @Test
+    void invalidSettings() {
+        InputGenerator generator = new InputGenerator();
+
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> generator.setHouseholdSize(0.5, 4)),
+                () -> assertThrows(IllegalArgumentException.class, () -> generator.setHouseholdSize(2, 0)),
+                () -> assertThrows(IllegalArgumentException.class, () -> generator.setMinorFraction(1.5)),
+                () -> assertThrows(IllegalArgumentException.class, () -> generator.setDirtyFraction(Double.NaN)),
+                () -> assertThrows(IllegalArgumentException.class, () -> generator.setSkew(-1))
+        );
+    }
+}
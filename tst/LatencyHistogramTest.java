@@ -0,0 +1,43 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    @Test
+    void bucketsLatencies() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(50_000L);
+        histogram.record(100_000L);
+        histogram.record(3_000_000L);
+        histogram.record(60_000_000_000L);
+
+        assertAll(
+                () -> assertEquals(4, histogram.getCount()),
+                () -> assertEquals(2, histogram.getCumulativeCount(0)),
+                () -> assertEquals(2, histogram.getCumulativeCount(4)),
+                () -> assertEquals(3, histogram.getCumulativeCount(5)),
+                () -> assertEquals(3, histogram.getCumulativeCount(LatencyHistogram.BUCKET_BOUNDS.length - 1)),
+                () -> assertEquals(60_003_150_000L, histogram.getSumNanos())
+        );
+    }
+
+    @Test
+    void writesPrometheus() throws IOException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(2_000_000L);
+        StringWriter out = new StringWriter();
+        histogram.writePrometheus(out, "latency_seconds", "endpoint=\"report\"");
+
+        String text = out.toString();
+        assertAll(
+                () -> assertTrue(text.contains("latency_seconds_bucket{endpoint=\"report\",le=\"0.001\"} 0\n")),
+                () -> assertTrue(text.contains("latency_seconds_bucket{endpoint=\"report\",le=\"0.0025\"} 1\n")),
+                () -> assertTrue(text.contains("latency_seconds_bucket{endpoint=\"report\",le=\"+Inf\"} 1\n")),
+                () -> assertTrue(text.contains("latency_seconds_sum{endpoint=\"report\"} 0.002\n")),
+                () -> assertTrue(text.contains("latency_seconds_count{endpoint=\"report\"} 1\n"))
+        );
+    }
+}
@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyResidentTest {
+    private static final String LINE_STD = "\"Dave\",\"Smith\",\"123 main st.\",\"seattle\",\"wa\",\"43\"";
+    private static final String LINE_ACCENTED = "\"Zo\u00eb\",\"Ib\u00e1\u00f1ez \"Jr\"\",\"123 main st.\",\"seattle\","
+            + "\"wa\",\"12\"";
+
+    private static Resident parse(boolean lazyNames, String line) {
+        byte[] bytes = ("xx" + line + "yy").getBytes(StandardCharsets.UTF_8);
+        return new ResidentByteParser(new AddressCache(16), lazyNames).parse(ByteBuffer.wrap(bytes), 2,
+                bytes.length - 2);
+    }
+
+    @Test
+    void matchesEagerResident() {
+        Resident eager = parse(false, LINE_STD);
+        Resident lazy = parse(true, LINE_STD);
+
+        assertFalse(eager instanceof LazyResident);
+        assertTrue(lazy instanceof LazyResident);
+        assertAll(
+                () -> assertEquals(eager, lazy),
+                () -> assertEquals(lazy, eager),
+                () -> assertEquals(eager.hashCode(), lazy.hashCode()),
+                () -> assertEquals(0, lazy.compareTo(eager)),
+                () -> assertEquals(eager.toString(), lazy.toString()),
+                () -> assertEquals(eager.getAddress(), lazy.getAddress()),
+                () -> assertEquals(43, lazy.getAge())
+        );
+    }
+
+    @Test
+    void decodesNamesOnce() {
+        Resident lazy = parse(true, LINE_ACCENTED);
+
+        // Multi-byte characters are decoded, and stray quotes dropped, as by the eager parser
+        assertEquals("Zo\u00eb", lazy.getFirstName());
+        assertEquals("Ib\u00e1\u00f1ez Jr", lazy.getLastName());
+        assertEquals(parse(false, LINE_ACCENTED).toString(), lazy.toString());
+        assertSame(lazy.getFirstName(), lazy.getFirstName());
+        assertSame(lazy.getLastName(), lazy.getLastName());
+    }
+
+    @Test
+    void ordersByDecodedNames() {
+        Resident dave = parse(true, LINE_STD);
+        Resident zoe = parse(true, LINE_ACCENTED);
+
+        assertTrue(zoe.compareTo(dave) < 0);
+        assertTrue(dave.compareTo(new Resident("Dave", "Smyth", dave.getAddress(), 43)) < 0);
+    }
+
+    @Test
+    void doesNotKeepBuffer() throws InterruptedException {
+        byte[] bytes = LINE_STD.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        WeakReference<ByteBuffer> chunk = new WeakReference<>(buffer);
+        Resident lazy = new ResidentByteParser(new AddressCache(16), true).parse(buffer, 0, bytes.length);
+        bytes = null;
+        buffer = null;
+
+        // Once parsed, the chunk is only reachable through the resident if the resident keeps it
+        for (int i = 0; i < 50 && chunk.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(chunk.get());
+        assertEquals("Dave Smith", lazy.getFirstName() + " " + lazy.getLastName());
+    }
+}
@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MalformedLinePolicyTest {
+    @Test
+    void failFast() {
+        MalformedLinePolicy policy = MalformedLinePolicy.failFast();
+        MalformedResidentException mre = assertThrows(MalformedResidentException.class,
+                () -> policy.reject(7, "bad", "Expected 6 fields but found 1"));
+
+        assertAll(
+                () -> assertEquals(7, mre.getLineNumber()),
+                () -> assertEquals("Expected 6 fields but found 1", mre.getReason()),
+                () -> assertEquals("Line 7: Expected 6 fields but found 1", mre.getMessage()),
+                () -> assertEquals(1, policy.getRejectedCount())
+        );
+    }
+
+    @Test
+    void skipsAndQuarantines() {
+        StringWriter quarantine = new StringWriter();
+        MalformedLinePolicy policy = new MalformedLinePolicy(MalformedLinePolicy.UNLIMITED, quarantine);
+        policy.reject(2, "\"Jane Smith\",\"13\"", "Expected 6 fields but found 2");
+        policy.reject(5, "", "Expected fields in double quotes");
+
+        assertEquals(2, policy.getRejectedCount());
+        assertEquals("2\tExpected 6 fields but found 2\t\"Jane Smith\",\"13\"\n"
+                + "5\tExpected fields in double quotes\t\n", quarantine.toString());
+    }
+
+    @Test
+    void abortsAfterLimit() {
+        StringWriter quarantine = new StringWriter();
+        MalformedLinePolicy policy = new MalformedLinePolicy(3, quarantine);
+        policy.reject(1, "a", "reason");
+        policy.reject(4, "b", "reason");
+        MalformedResidentException mre = assertThrows(MalformedResidentException.class,
+                () -> policy.reject(9, "c", "reason"));
+
+        assertEquals(9, mre.getLineNumber());
+        assertEquals(3, quarantine.toString().split("\n").length);
+    }
+
+    @Test
+    void quarantineWriteFails() {
+        Writer unwritable = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("Disk full");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        MalformedLinePolicy policy = new MalformedLinePolicy(MalformedLinePolicy.UNLIMITED, unwritable);
+        QuarantineWriteException qwe = assertThrows(QuarantineWriteException.class,
+                () -> policy.reject(3, "bad", "reason"));
+
+        assertEquals("Disk full", qwe.getCause().getMessage());
+    }
+
+    @Test
+    void invalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new MalformedLinePolicy(0, null));
+    }
+}
@@ -0,0 +1,71 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.InputMismatchException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedResidentReaderTest {
+    private static final String LINE_DAVE = "\"Dave\",\"Smith\",\"123 main st.\",\"seattle\",\"wa\",\"43\"";
+    private static final String LINE_ALICE = "\"Alice\",\"Smith\",\"123 Main St.\",\"Seattle\",\"WA\",\"45\"";
+
+    @TempDir
+    Path tempDir;
+
+    private List<Resident> read(String content) throws IOException {
+        Path file = this.tempDir.resolve("input.txt");
+        Files.writeString(file, content);
+        List<Resident> residents = new ArrayList<>();
+        MappedResidentReader.read(file, new AddressCache(16), residents::add);
+        return residents;
+    }
+
+    @Test
+    void lineTerminators() throws IOException {
+        List<Resident> expected = List.of(Solution.constructResident(LINE_DAVE),
+                Solution.constructResident(LINE_ALICE));
+
+        assertAll(
+                () -> assertEquals(expected, read(LINE_DAVE + "\n" + LINE_ALICE)),
+                () -> assertEquals(expected, read(LINE_DAVE + "\n" + LINE_ALICE + "\n")),
+                () -> assertEquals(expected, read(LINE_DAVE + "\r\n" + LINE_ALICE + "\r\n")),
+                () -> assertEquals(List.of(), read(""))
+        );
+    }
+
+    @Test
+    void malformedLine() {
+        assertThrows(InputMismatchException.class, () -> read(LINE_DAVE + "\n\n" + LINE_ALICE));
+    }
+
+    @Test
+    void skipsMalformedLines() throws IOException {
+        Path file = this.tempDir.resolve("input.txt");
+        Files.writeString(file, LINE_DAVE + "\r\n\r\n" + LINE_ALICE + "\nDave,Smith\n" + LINE_DAVE);
+        StringWriter quarantine = new StringWriter();
+        List<Resident> residents = new ArrayList<>();
+        MappedResidentReader.read(file, new AddressCache(16),
+                new MalformedLinePolicy(MalformedLinePolicy.UNLIMITED, quarantine), residents::add);
+
+        assertEquals(3, residents.size());
+        assertEquals("2\tExpected 6 fields but found 1\t\n4\tExpected 6 fields but found 1\tDave,Smith\n",
+                quarantine.toString());
+    }
+
+    @Test
+    void malformedLineNumber() throws IOException {
+        Path file = this.tempDir.resolve("input.txt");
+        Files.writeString(file, LINE_DAVE + "\n" + LINE_ALICE + "\n\"Jane Smith\",\"13\"\n");
+        MalformedResidentException mre = assertThrows(MalformedResidentException.class,
+                () -> MappedResidentReader.read(file, new AddressCache(16), residents -> { }));
+
+        assertEquals(3, mre.getLineNumber());
+        assertEquals("Expected 6 fields but found 2", mre.getReason());
+    }
+}
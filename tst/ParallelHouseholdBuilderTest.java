@@ -0,0 +1,132 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.InputMismatchException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelHouseholdBuilderTest {
+    private static final String SAMPLE_INPUT = "tst/data/sample.txt";
+    private static final String SAMPLE_MALFORMED_INPUT = "tst/data/sampleMalformed.txt";
+    private static final String[] FIRST_NAMES = {"Alice", "Bob", "Carol", "Dave", "Eve"};
+    private static final String[] LAST_NAMES = {"Smith", "Jones", "Brown"};
+    private static final String[] STREETS = {"123 main st.", "234 2nd Ave", "345 3rd Blvd., Apt. 200"};
+    private static final String[] CITIES = {"Seattle", "tacoma"};
+    private static final String[] STATES = {"WA", "fl."};
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void matchesSerialOnSample() throws IOException {
+        String expected = Solution.startMapped(Path.of(SAMPLE_INPUT), new AddressCache(0));
+
+        for (int workers = 1; workers <= 4; workers++) {
+            HouseholdIndex households = ParallelHouseholdBuilder.build(Path.of(SAMPLE_INPUT), workers, false,
+                    new AddressCache(16), 1);
+            assertEquals(expected, Solution.getHouseholdsDisplay(households));
+        }
+    }
+
+    @Test
+    void matchesSerialOnManyRanges() throws IOException {
+        Random random = new Random(42);
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            input.append(String.format("\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%d\"\n",
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    STREETS[random.nextInt(STREETS.length)], CITIES[random.nextInt(CITIES.length)],
+                    STATES[random.nextInt(STATES.length)], random.nextInt(90)));
+        }
+        Path file = this.tempDir.resolve("input.txt");
+        Files.writeString(file, input);
+
+        String expected = Solution.startMapped(file, new AddressCache(0));
+        HouseholdIndex households = ParallelHouseholdBuilder.build(file, 8, false, new AddressCache(16), 512);
+
+        assertEquals(expected, Solution.getHouseholdsDisplay(households));
+    }
+
+    @Test
+    void skipsMalformedLinesInFileOrder() throws IOException {
+        StringBuilder input = new StringBuilder();
+        StringBuilder wellFormed = new StringBuilder();
+        StringBuilder expectedQuarantine = new StringBuilder();
+        for (int i = 1; i <= 2000; i++) {
+            if (i % 97 == 0) {
+                input.append("bad ").append(i).append('\n');
+                expectedQuarantine.append(i).append("\tExpected 6 fields but found 1\tbad ").append(i).append('\n');
+            } else {
+                String line = String.format("\"%s\",\"Smith\",\"%s\",\"Seattle\",\"WA\",\"%d\"\n",
+                        FIRST_NAMES[i % FIRST_NAMES.length], STREETS[i % STREETS.length], i % 90);
+                input.append(line);
+                wellFormed.append(line);
+            }
+        }
+        Path file = this.tempDir.resolve("input.txt");
+        Files.writeString(file, input);
+        Path wellFormedFile = this.tempDir.resolve("wellFormed.txt");
+        Files.writeString(wellFormedFile, wellFormed);
+
+        StringWriter quarantine = new StringWriter();
+        MalformedLinePolicy policy = new MalformedLinePolicy(MalformedLinePolicy.UNLIMITED, quarantine);
+        HouseholdIndex households = ParallelHouseholdBuilder.build(file, 8, false, new AddressCache(16), policy, 512);
+
+        assertEquals(Solution.startMapped(wellFormedFile, new AddressCache(0)),
+                Solution.getHouseholdsDisplay(households));
+        assertEquals(2000 / 97, policy.getRejectedCount());
+        assertEquals(expectedQuarantine.toString(), quarantine.toString());
+    }
+
+    @Test
+    void abortsAtLimitWithLineNumber() {
+        MalformedResidentException mre = assertThrows(MalformedResidentException.class,
+                () -> ParallelHouseholdBuilder.build(Path.of(SAMPLE_MALFORMED_INPUT), 4, false,
+                        new AddressCache(16), MalformedLinePolicy.failFast(), 1));
+
+        assertEquals(10, mre.getLineNumber());
+    }
+
+    @Test
+    void abortsAtLimitInFileOrder() throws IOException {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expectedQuarantine = new StringBuilder();
+        for (int i = 1; i <= 2000; i++) {
+            // A late range reaches the limit on its own, sooner than the ranges before it
+            if (i % 97 == 0 || i >= 1900) {
+                input.append("bad ").append(i).append('\n');
+                if (i <= 485) {
+                    expectedQuarantine.append(i).append("\tExpected 6 fields but found 1\tbad ").append(i)
+                            .append('\n');
+                }
+            } else {
+                input.append(String.format("\"%s\",\"Smith\",\"%s\",\"Seattle\",\"WA\",\"%d\"\n",
+                        FIRST_NAMES[i % FIRST_NAMES.length], STREETS[i % STREETS.length], i % 90));
+            }
+        }
+        Path file = this.tempDir.resolve("input.txt");
+        Files.writeString(file, input);
+
+        for (int workers : new int[] {1, 2, 4, 8}) {
+            StringWriter quarantine = new StringWriter();
+            MalformedLinePolicy policy = new MalformedLinePolicy(5, quarantine);
+            MalformedResidentException mre = assertThrows(MalformedResidentException.class,
+                    () -> ParallelHouseholdBuilder.build(file, workers, false, new AddressCache(16), policy, 512));
+
+            assertEquals(485, mre.getLineNumber());
+            assertEquals(expectedQuarantine.toString(), quarantine.toString());
+        }
+    }
+
+    @Test
+    void malformedInput() {
+        assertThrows(InputMismatchException.class,
+                () -> ParallelHouseholdBuilder.build(Path.of(SAMPLE_MALFORMED_INPUT), 4, false,
+                        new AddressCache(16), 1));
+    }
+}
@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelReportRendererTest {
+    private static final String[] STATES = {"WA", "OR", "ID", "CA"};
+
+    private static HouseholdIndex households(int count) {
+        HouseholdIndex households = new HouseholdIndex(false);
+        for (int i = 0; i < count; i++) {
+            // Most households are in one state, which must be split to keep every thread busy
+            String state = STATES[i % 5 < 2 ? 0 : i % STATES.length];
+            Address address = new Address(i + " Main St.", "Seattle", state);
+            households.add(new Resident("Dave", "Smith", address, 40));
+            households.add(new Resident("Alice", "Jones", address, 10 + i % 30));
+        }
+        return households;
+    }
+
+    private static String render(ParallelReportRenderer renderer, List<Household> households) throws IOException {
+        StringWriter res = new StringWriter();
+        try (ReportWriter out = new ReportWriter(res)) {
+            renderer.render(households, Household::getAddress, Solution::writeHousehold, out);
+        }
+        return res.toString();
+    }
+
+    @Test
+    void matchesSerial() throws IOException {
+        HouseholdIndex households = households(5000);
+        String expected = Solution.getHouseholdsDisplay(households);
+
+        assertEquals(expected, render(new ParallelReportRenderer(1), households.getHouseholds()));
+        assertEquals(expected, render(new ParallelReportRenderer(4), households.getHouseholds()));
+        assertEquals("", render(new ParallelReportRenderer(4), List.of()));
+    }
+
+    @Test
+    void partitionsByState() {
+        List<Household> households = households(100).getHouseholds();
+        Function<Household, Address> addressOf = Household::getAddress;
+
+        int[] bounds = ParallelReportRenderer.partition(households, addressOf, households.size());
+        assertEquals(STATES.length + 1, bounds.length);
+        assertEquals(households.size(), bounds[STATES.length]);
+
+        // A state larger than the partition size is split, and no partition spans two states
+        bounds = ParallelReportRenderer.partition(households, addressOf, 10);
+        assertTrue(bounds.length > 10 + 1);
+        List<String> firstStates = new ArrayList<>();
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            assertTrue(bounds[i + 1] - bounds[i] <= 10);
+            String state = households.get(bounds[i]).getAddress().getState();
+            assertEquals(state, households.get(bounds[i + 1] - 1).getAddress().getState());
+            firstStates.add(state);
+        }
+        assertEquals(List.of("CA", "ID", "OR", "WA"), firstStates.stream().distinct().collect(Collectors.toList()));
+
+        assertArrayEquals(new int[] {0}, ParallelReportRenderer.partition(List.of(), addressOf, 1));
+    }
+
+    @Test
+    void formatterFails() {
+        List<Household> households = households(100).getHouseholds();
+        IOException ioe = assertThrows(IOException.class, () -> new ParallelReportRenderer(3).render(households,
+                Household::getAddress, (household, out) -> {
+                    throw new IOException("Unwritable");
+                }, new ReportWriter(new StringWriter())));
+
+        assertEquals("Unwritable", ioe.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new ParallelReportRenderer(0));
+    }
+}
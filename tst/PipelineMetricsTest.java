@@ -0,0 +1,135 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Scanner;
+import java.util.SortedMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineMetricsTest {
+    private static final String SAMPLE_INPUT = "tst/data/sample.txt";
+    private static final int SAMPLE_LINES = 10;
+    private static final int SAMPLE_HOUSEHOLDS = 5;
+
+    @Test
+    void measuresStages() throws IOException {
+        AddressCache cache = new AddressCache(16);
+        PipelineMetrics metrics = new PipelineMetrics(cache);
+        SortedMap<Address, List<Resident>> households;
+        try (Scanner scanner = new Scanner(new File(SAMPLE_INPUT))) {
+            households = Solution.read(scanner, cache, metrics);
+        }
+
+        assertAll(
+                () -> assertEquals(SAMPLE_HOUSEHOLDS, households.size()),
+                () -> assertEquals(SAMPLE_LINES, metrics.getRecords(PipelineMetrics.Stage.READ)),
+                () -> assertTrue(metrics.getBytes(PipelineMetrics.Stage.READ) > 0),
+                () -> assertEquals(SAMPLE_LINES, metrics.getRecords(PipelineMetrics.Stage.PARSE)),
+                () -> assertEquals(cache.getMisses(), metrics.getRecords(PipelineMetrics.Stage.NORMALIZE)),
+                () -> assertTrue(metrics.getNanos(PipelineMetrics.Stage.NORMALIZE) > 0),
+                () -> assertEquals(SAMPLE_LINES, metrics.getRecords(PipelineMetrics.Stage.GROUP)),
+                () -> assertEquals(SAMPLE_HOUSEHOLDS, metrics.getRecords(PipelineMetrics.Stage.SORT)),
+                () -> assertEquals(0, metrics.getRecords(PipelineMetrics.Stage.RENDER))
+        );
+        for (PipelineMetrics.Stage stage : PipelineMetrics.Stage.values()) {
+            assertTrue(metrics.getNanos(stage) >= 0);
+            assertTrue(metrics.getAllocatedBytes(stage) >= 0);
+        }
+    }
+
+    @Test
+    void spansAddUp() {
+        PipelineMetrics metrics = new PipelineMetrics(new AddressCache(16));
+        for (int i = 0; i < 3; i++) {
+            try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.RENDER)) {
+                span.addRecords(2);
+                span.addBytes(10);
+            }
+        }
+
+        assertEquals(6, metrics.getRecords(PipelineMetrics.Stage.RENDER));
+        assertEquals(30, metrics.getBytes(PipelineMetrics.Stage.RENDER));
+    }
+
+    @Test
+    void disabled() {
+        PipelineMetrics metrics = PipelineMetrics.DISABLED;
+        try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.PARSE)) {
+            span.addRecords(5);
+        }
+
+        assertFalse(metrics.isEnabled());
+        assertSame(metrics.start(PipelineMetrics.Stage.READ), metrics.start(PipelineMetrics.Stage.PARSE));
+        assertEquals(0, metrics.getRecords(PipelineMetrics.Stage.PARSE));
+        assertEquals(0, metrics.getNanos(PipelineMetrics.Stage.PARSE));
+    }
+
+    @Test
+    void writesJson() throws IOException {
+        AddressCache cache = new AddressCache(16);
+        cache.get("123 Main St", "Seattle", "WA");
+        cache.get("123 Main St", "Seattle", "WA");
+        PipelineMetrics metrics = new PipelineMetrics(cache);
+        try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.PARSE)) {
+            span.addRecords(2);
+        }
+        StringWriter out = new StringWriter();
+        metrics.writeJson(out);
+
+        String json = out.toString();
+        assertAll(
+                () -> assertTrue(json.startsWith("{")),
+                () -> assertTrue(json.contains("\"parse\": {\"wallNanos\": ")),
+                () -> assertTrue(json.contains("\"records\": 2,")),
+                () -> assertTrue(json.contains("\"addressCache\": {\"hits\": 1, \"misses\": 1, \"hitRate\": 0.5}"))
+        );
+    }
+
+    @Test
+    void writesPrometheus() throws IOException {
+        PipelineMetrics metrics = new PipelineMetrics(new AddressCache(16));
+        try (PipelineMetrics.Span span = metrics.start(PipelineMetrics.Stage.READ)) {
+            span.addBytes(1024);
+        }
+        StringWriter out = new StringWriter();
+        metrics.writePrometheus(out);
+
+        String text = out.toString();
+        assertAll(
+                () -> assertTrue(text.contains("# TYPE household_stage_seconds gauge\n")),
+                () -> assertTrue(text.contains("household_stage_read_bytes{stage=\"read\"} 1024\n")),
+                () -> assertTrue(text.contains("household_stage_records{stage=\"render\"} 0\n")),
+                () -> assertTrue(text.contains("household_address_cache_hit_ratio 0.0\n"))
+        );
+    }
+
+    @Test
+    void reportsQueueStats() throws IOException {
+        AddressCache cache = new AddressCache(16);
+        StagedPipeline pipeline = new StagedPipeline(2, cache);
+        pipeline.build(Path.of("tst/data/sample.txt"), MalformedLinePolicy.failFast());
+        PipelineMetrics metrics = new PipelineMetrics(cache);
+        metrics.addQueueStats(pipeline.getQueueStats());
+        PipelineMetrics.DISABLED.addQueueStats(pipeline.getQueueStats());
+
+        StringWriter json = new StringWriter();
+        metrics.writeJson(json);
+        StringWriter text = new StringWriter();
+        metrics.writePrometheus(text);
+        StringWriter none = new StringWriter();
+        new PipelineMetrics(cache).writeJson(none);
+        assertAll(
+                () -> assertEquals(2, metrics.getQueueStats().size()),
+                () -> assertTrue(PipelineMetrics.DISABLED.getQueueStats().isEmpty()),
+                () -> assertTrue(json.toString().contains("\"queues\": [\n    {\"name\": \"read -> parse\", ")),
+                () -> assertTrue(json.toString().contains("{\"name\": \"parse -> group\", ")),
+                () -> assertTrue(text.toString().contains("# TYPE household_queue_max_depth gauge\n")),
+                () -> assertTrue(text.toString().contains("household_queue_items{queue=\"read -> parse\"} ")),
+                () -> assertTrue(none.toString().endsWith("\"queues\": []\n}\n"))
+        );
+    }
+}
@@ -0,0 +1,50 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportWriterTest {
+    private static final Address ADDRESS = new Address("123 Gofer St Apt. 2", "Seattle", "WA");
+
+    @Test
+    void writeHousehold() throws IOException {
+        StringWriter res = new StringWriter();
+        try (ReportWriter out = new ReportWriter(res)) {
+            out.writeHousehold(ADDRESS, 1, List.of(new Resident("Bob", "Doe", ADDRESS, 45)));
+            out.writeHousehold(ADDRESS, 3, List.of(new Resident("Ann", "Doe", ADDRESS, 0),
+                    new Resident("Jane", "Doe", ADDRESS, -7)));
+            out.writeHousehold(ADDRESS, 10, List.of());
+        }
+
+        assertEquals("The household at 123 Gofer St Apt. 2, Seattle, WA has 1 occupant:\n"
+                + "    Bob Doe, 123 Gofer St Apt. 2, Seattle, WA, 45\n"
+                + "The household at 123 Gofer St Apt. 2, Seattle, WA has 3 occupants:\n"
+                + "    Ann Doe, 123 Gofer St Apt. 2, Seattle, WA, 0\n"
+                + "    Jane Doe, 123 Gofer St Apt. 2, Seattle, WA, -7\n"
+                + "The household at 123 Gofer St Apt. 2, Seattle, WA has 10 occupants:\n", res.toString());
+    }
+
+    @Test
+    void matchesResidentToStringPastBufferSize() throws IOException {
+        List<Resident> adults = new ArrayList<>();
+        StringBuilder expected = new StringBuilder("The household at " + ADDRESS + " has 5000 occupants:\n");
+        for (int i = 0; i < 5000; i++) {
+            Resident resident = new Resident("First" + i, "Last", ADDRESS, Integer.MAX_VALUE - i);
+            adults.add(resident);
+            expected.append("    ").append(resident).append("\n");
+        }
+        adults.add(new Resident("Min", "Last", ADDRESS, Integer.MIN_VALUE));
+        expected.append("    Min Last, ").append(ADDRESS).append(", ").append(Integer.MIN_VALUE).append("\n");
+
+        StringWriter res = new StringWriter();
+        try (ReportWriter out = new ReportWriter(res)) {
+            out.writeHousehold(ADDRESS, 5000, adults);
+            out.flush();
+            assertEquals(expected.toString(), res.toString());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResidentByteParserTest {
+    private static final String LINE_STD = "\"Dave\",\"Smith\",\"123 main st.\",\"seattle\",\"wa\",\"43\"";
+    private static final String LINE_DASHES = "\"Mary-Jane\",\"Smith-Jones\",\"12-B Main St.\",\"Winston-Salem\","
+            + "\"nc\",\"31\"";
+    private static final String LINE_FIVE_FIELDS = "\"Jane Smith\",\"123 Main St.\",\"Seattle\",\"WA\",\"13\"";
+    private static final String LINE_BAD_AGE = "\"Dave\",\"Smith\",\"123 main st.\",\"seattle\",\"wa\",\"4x\"";
+    private static final String LINE_UNQUOTED = "Dave,Smith,123 main st.,seattle,wa,43";
+
+    private static Resident parse(String line) {
+        return parse(new ResidentByteParser(new AddressCache(16)), line);
+    }
+
+    private static Resident parse(ResidentByteParser parser, String line) {
+        byte[] bytes = ("xx" + line + "yy").getBytes(StandardCharsets.UTF_8);
+        return parser.parse(ByteBuffer.wrap(bytes), 2, bytes.length - 2);
+    }
+
+    private static String error(String line) {
+        ResidentByteParser parser = new ResidentByteParser(new AddressCache(16));
+        assertNull(parse(parser, line));
+        return parser.getError();
+    }
+
+    @Test
+    void matchesConstructResident() {
+        assertAll(
+                () -> assertEquals(Solution.constructResident(LINE_STD), parse(LINE_STD)),
+                () -> assertEquals(Solution.constructResident(LINE_STD).toString(), parse(LINE_STD).toString())
+        );
+    }
+
+    @Test
+    void fieldsContainingDashes() {
+        Resident expected = new Resident("Mary-Jane", "Smith-Jones",
+                new Address("12-B Main St", "Winston-salem", "NC"), 31);
+
+        assertEquals(expected.toString(), parse(LINE_DASHES).toString());
+    }
+
+    @Test
+    void multiByteCharacters() {
+        String line = "\"Zo\u00eb\",\"N\u00fa\u00f1ez\",\"1 Elm St\",\"Seattle\",\"WA\",\"40\"";
+
+        assertEquals("Zo\u00eb N\u00fa\u00f1ez, 1 Elm St, Seattle, WA, 40", parse(line).toString());
+    }
+
+    @Test
+    void malformedLines() {
+        assertAll(
+                () -> assertNull(parse(LINE_FIVE_FIELDS)),
+                () -> assertNull(parse(LINE_BAD_AGE)),
+                () -> assertNull(parse(LINE_UNQUOTED)),
+                () -> assertNull(parse("")),
+                () -> assertNull(parse(LINE_STD + ",\"extra\""))
+        );
+    }
+
+    @Test
+    void malformedLineErrors() {
+        assertAll(
+                () -> assertEquals("Expected 6 fields but found 5", error(LINE_FIVE_FIELDS)),
+                () -> assertEquals("Expected 6 fields but found 7", error(LINE_STD + ",\"extra\"")),
+                () -> assertEquals("Age is not an integer: 4x", error(LINE_BAD_AGE)),
+                () -> assertEquals("Expected 6 fields but found 1", error(LINE_UNQUOTED)),
+                () -> assertEquals("Expected 6 fields but found 1", error(""))
+        );
+    }
+
+    @Test
+    void looseQuotingMatchesConstructResident() {
+        String[] lines = {
+                LINE_STD.substring(1, LINE_STD.length() - 1),
+                LINE_STD.substring(1),
+                LINE_STD.substring(0, LINE_STD.length() - 1),
+                "\"Da\"ve\",\"Smith\",\"123 main st.\",\"seattle\",\"wa\",\"4\"3\"",
+                "\"",
+                LINE_UNQUOTED,
+                LINE_FIVE_FIELDS.substring(1)
+        };
+        for (String line : lines) {
+            Resident expected = Solution.constructResident(line);
+            Resident resident = parse(line);
+            if (expected == null) {
+                assertNull(resident, line);
+                assertEquals(Solution.describeMalformed(line), error(line), line);
+            } else {
+                assertEquals(expected.toString(), resident.toString(), line);
+            }
+        }
+        assertEquals(parse(LINE_STD).toString(), parse(lines[0]).toString());
+    }
+}
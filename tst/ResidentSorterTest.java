@@ -0,0 +1,98 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResidentSorterTest {
+    private static final String[] FIRST_NAMES = {"Bob", "Jane", "Alice", "bob", "Zed"};
+    private static final String[] LAST_NAMES = {"Doe", "Smith", "Brown", "doe"};
+    private static final Address[] ADDRESSES = {
+            new Address("123 Gofer St", "Seattle", "WA"),
+            new Address("123 Gofer St Apt. 1", "Seattle", "WA"),
+            new Address("234 Gofer St", "Tacoma", "WA"),
+            new Address("9 Gofer St", "Miami", "FL")
+    };
+
+    private static List<Resident> randomResidents(Random random, int n, int maxAge) {
+        List<Resident> residents = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            residents.add(new Resident(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    ADDRESSES[random.nextInt(ADDRESSES.length)], random.nextInt(maxAge)));
+        }
+        return residents;
+    }
+
+    /**
+     * Sorts every row of a store holding the residents, in reverse row order and grouped by row modulo
+     * <code>groupCount</code>, and checks the order against sorting each group by <code>compareTo</code>.
+     */
+    private static void assertSortsLikeCompareTo(List<Resident> residents, int groupCount) {
+        ResidentStore store = new ResidentStore();
+        residents.forEach(store::add);
+        int[] rows = new int[residents.size()];
+        int[] groups = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = rows.length - 1 - i;
+            groups[i] = rows[i] % groupCount;
+        }
+
+        int[] sorted = ResidentSorter.sortRows(store, rows, groups);
+        List<Resident> expected = new ArrayList<>();
+        for (int group = 0; group < groupCount; group++) {
+            List<Resident> inGroup = new ArrayList<>();
+            // Rows are given in reverse, and equal residents keep the order they were given in
+            for (int row = residents.size() - 1; row >= 0; row--) {
+                if (row % groupCount == group) {
+                    inGroup.add(residents.get(row));
+                }
+            }
+            Collections.sort(inGroup);
+            expected.addAll(inGroup);
+        }
+        assertEquals(expected.size(), sorted.length);
+        for (int i = 0; i < sorted.length; i++) {
+            assertEquals(0, expected.get(i).compareTo(store.getResident(sorted[i])), "Position " + i);
+        }
+    }
+
+    @Test
+    void sortRowsMatchesCompareToWithinGroups() {
+        Random random = new Random(13);
+        for (int n : new int[]{0, 1, 2, 10, 500}) {
+            assertSortsLikeCompareTo(randomResidents(random, n, 100), 3);
+        }
+    }
+
+    @Test
+    void radixSortWhenKeysDoNotFitInALong() {
+        Random random = new Random(11);
+        List<Resident> residents = randomResidents(random, 3000, 100);
+        for (int i = 0; i < 60000; i++) {
+            residents.add(new Resident("First" + i, "Last" + (i % 3000), ADDRESSES[i % 4], i));
+        }
+
+        // Groups, names, sparse ages and row indexes together need more than 64 bits
+        assertSortsLikeCompareTo(residents, 1000);
+    }
+
+    @Test
+    void ambiguousAddressStrings() {
+        // Different addresses with the same string representation compare equal regardless of age
+        Address withApartment = new Address("1 Gofer St Apt. 5", "Seattle", "WA");
+        Address withoutApartment = new Address("1 Gofer St Apt. 5", "Seattle", "WA",
+                new AddressNormalizer(AddressNormalizer.STANDARD_STREET_SUFFIXES, Map.of(), "."));
+        List<Resident> residents = List.of(
+                new Resident("Bob", "Doe", withApartment, 50),
+                new Resident("Bob", "Doe", withoutApartment, 20),
+                new Resident("Ann", "Doe", withApartment, 30));
+
+        assertNotEquals(withApartment, withoutApartment);
+        assertSortsLikeCompareTo(residents, 1);
+    }
+}
@@ -0,0 +1,70 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResidentStoreTest {
+    private static final String SAMPLE_INPUT = "tst/data/sample.txt";
+    private static final Address ADDRESS_ONE = new Address("123 Gofer St", "Seattle", "WA");
+    private static final Address ADDRESS_TWO = new Address("234 Gofer St", "Seattle", "WA");
+
+    private static List<Resident> readSample() throws FileNotFoundException {
+        List<Resident> residents = new ArrayList<>();
+        Scanner scanner = new Scanner(new File(SAMPLE_INPUT));
+        for (String line : Solution.getDataFromFile(scanner)) {
+            residents.add(Solution.constructResident(line));
+        }
+        scanner.close();
+        return residents;
+    }
+
+    @Test
+    void rowsAndViews() {
+        ResidentStore store = new ResidentStore();
+        Resident bob = new Resident("Bob", "Doe", ADDRESS_ONE, 45);
+        Resident jane = new Resident("Jane", "Doe", ADDRESS_TWO, 12);
+        Resident bob2 = new Resident("Bob", "Doe", new Address("123 gofer st.", "seattle", "wa"), 20);
+        store.add(bob);
+        store.add(jane);
+        store.add(bob2);
+
+        assertAll(
+                () -> assertEquals(3, store.size()),
+                () -> assertEquals(2, store.householdCount()),
+                () -> assertEquals(bob, store.getResident(0)),
+                () -> assertEquals(jane, store.getResident(1)),
+                () -> assertEquals(bob2, store.getResident(2)),
+                () -> assertEquals(12, store.getAge(1)),
+                () -> assertEquals(store.getHouseholdId(0), store.getHouseholdId(2)),
+                () -> assertEquals(ADDRESS_TWO, store.getHouseholdAddress(store.getHouseholdId(1))),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> store.getResident(3))
+        );
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        ResidentStore store = new ResidentStore();
+        for (int i = 0; i < 5000; i++) {
+            store.add(new Resident("Bob", "Doe", ADDRESS_ONE, i));
+        }
+
+        assertEquals(5000, store.size());
+        assertEquals(4999, store.getAge(4999));
+    }
+
+    @Test
+    void householdsMatchObjectGrouping() throws FileNotFoundException {
+        List<Resident> residents = readSample();
+        ResidentStore store = new ResidentStore();
+        residents.forEach(store::add);
+
+        assertEquals(Solution.getHouseholds(residents), Solution.getHouseholds(store));
+        assertEquals(Solution.getHouseholdsDisplay(Solution.getHouseholds(residents)),
+                Solution.getHouseholdsDisplay(store));
+    }
+}
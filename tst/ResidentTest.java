@@ -1,5 +1,11 @@
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class ResidentTest {
@@ -20,6 +26,33 @@ class ResidentTest {
         assertEquals(resident.getAddress(), ADDRESS_ONE);
     }
 
+    @Test
+    void getNames() {
+        Resident resident = new Resident(FIRST_NAME_BOB, LAST_NAME_SMITH, ADDRESS_ONE, AGE_25);
+
+        assertEquals(FIRST_NAME_BOB, resident.getFirstName());
+        assertEquals(LAST_NAME_SMITH, resident.getLastName());
+    }
+
+    @Test
+    void writeAndRead() throws IOException {
+        Resident withApartment = new Resident(FIRST_NAME_JANE, LAST_NAME_DOE,
+                new Address("123 Gofer St Apt. 2", "Seattle", "WA"), AGE_45);
+        Resident withoutApartment = new Resident(FIRST_NAME_BOB, LAST_NAME_DOE, ADDRESS_ONE, AGE_25);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        withApartment.write(out);
+        withoutApartment.write(out);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Resident first = Resident.read(in);
+        Resident second = Resident.read(in);
+        assertEquals(withApartment, first);
+        assertEquals(withApartment.toString(), first.toString());
+        assertEquals(withoutApartment, second);
+        assertEquals(withoutApartment.toString(), second.toString());
+    }
+
     @Test
     void getAge() {
         Resident resident = new Resident(FIRST_NAME_BOB, LAST_NAME_SMITH, ADDRESS_ONE, AGE_25);
@@ -0,0 +1,194 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunOptionsTest {
+    private static final String INPUT = "tst/data/sample.txt";
+
+    @Test
+    void inputOnly() {
+        RunOptions options = RunOptions.parse(new String[]{INPUT});
+
+        assertEquals(INPUT, options.getInputPath());
+        assertFalse(options.isStreaming());
+        assertFalse(options.isMapped());
+        assertEquals(0, options.getWorkers());
+        assertEquals(AddressCache.DEFAULT_CAPACITY, options.getAddressCacheCapacity());
+        assertFalse(options.isCacheStatsShown());
+    }
+
+    @Test
+    void streaming() {
+        RunOptions options = RunOptions.parse(new String[]{"--stream", INPUT});
+
+        assertEquals(INPUT, options.getInputPath());
+        assertTrue(options.isStreaming());
+    }
+
+    @Test
+    void mapped() {
+        RunOptions options = RunOptions.parse(new String[]{"--mmap", INPUT});
+
+        assertTrue(options.isMapped());
+    }
+
+    @Test
+    void columnar() {
+        assertTrue(RunOptions.parse(new String[]{"--columnar", INPUT}).isColumnar());
+        assertFalse(RunOptions.parse(new String[]{INPUT}).isColumnar());
+    }
+
+    @Test
+    void parallel() {
+        assertEquals(6, RunOptions.parse(new String[]{"--parallel=6", INPUT}).getWorkers());
+        assertEquals(Runtime.getRuntime().availableProcessors(),
+                RunOptions.parse(new String[]{"--parallel", INPUT}).getWorkers());
+    }
+
+    @Test
+    void addressCache() {
+        RunOptions options = RunOptions.parse(new String[]{"--address-cache=0", "--cache-stats", INPUT});
+
+        assertEquals(0, options.getAddressCacheCapacity());
+        assertTrue(options.isCacheStatsShown());
+    }
+
+    @Test
+    void output() {
+        assertNull(RunOptions.parse(new String[]{INPUT}).getOutputPath());
+        assertEquals("report.txt", RunOptions.parse(new String[]{"--output=report.txt", INPUT}).getOutputPath());
+        assertThrows(IllegalArgumentException.class, () -> RunOptions.parse(new String[]{"--output", INPUT}));
+    }
+
+    @Test
+    void snapshot() {
+        RunOptions save = RunOptions.parse(new String[]{"--save-snapshot=households.snapshot", INPUT});
+
+        assertEquals("households.snapshot", save.getSnapshotSavePath());
+        assertFalse(save.isSnapshotLoaded());
+        assertTrue(RunOptions.parse(new String[]{"--load-snapshot", INPUT}).isSnapshotLoaded());
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--save-snapshot", INPUT}));
+    }
+
+    @Test
+    void metrics() {
+        assertNull(RunOptions.parse(new String[]{INPUT}).getMetricsPath());
+        assertEquals("run.json", RunOptions.parse(new String[]{"--metrics=run.json", INPUT}).getMetricsPath());
+        assertThrows(IllegalArgumentException.class, () -> RunOptions.parse(new String[]{"--metrics", INPUT}));
+    }
+
+    @Test
+    void serve() {
+        assertEquals(0, RunOptions.parse(new String[]{INPUT}).getServePort());
+        assertEquals(HouseholdServer.DEFAULT_PORT, RunOptions.parse(new String[]{"--serve", INPUT}).getServePort());
+        assertEquals(9000, RunOptions.parse(new String[]{"--serve=9000", INPUT}).getServePort());
+        assertThrows(IllegalArgumentException.class, () -> RunOptions.parse(new String[]{"--serve=0", INPUT}));
+    }
+
+    @Test
+    void batch() {
+        RunOptions merged = RunOptions.parse(new String[]{"--merged=all.txt", "--report-dir=out", "counties"});
+
+        assertEquals(0, RunOptions.parse(new String[]{INPUT}).getBatchParallelism());
+        assertEquals(3, RunOptions.parse(new String[]{"--batch=3", INPUT}).getBatchParallelism());
+        assertTrue(merged.getBatchParallelism() > 0);
+        assertEquals("all.txt", merged.getMergedReportPath());
+        assertEquals(Path.of("out"), merged.getReportDir());
+        assertThrows(IllegalArgumentException.class, () -> RunOptions.parse(new String[]{"--batch=0", INPUT}));
+    }
+
+    @Test
+    void fuzzy() {
+        assertEquals(0, RunOptions.parse(new String[]{INPUT}).getFuzzyThreshold());
+        assertEquals(FuzzyHouseholdMerger.DEFAULT_THRESHOLD,
+                RunOptions.parse(new String[]{"--fuzzy", INPUT}).getFuzzyThreshold());
+        assertEquals(0.9, RunOptions.parse(new String[]{"--fuzzy=0.9", INPUT}).getFuzzyThreshold());
+        assertThrows(IllegalArgumentException.class, () -> RunOptions.parse(new String[]{"--fuzzy=0", INPUT}));
+        assertThrows(IllegalArgumentException.class, () -> RunOptions.parse(new String[]{"--fuzzy=close", INPUT}));
+    }
+
+    @Test
+    void pipeline() {
+        assertEquals(0, RunOptions.parse(new String[]{INPUT}).getPipelineParsers());
+        assertTrue(RunOptions.parse(new String[]{"--pipeline", INPUT}).getPipelineParsers() > 0);
+        assertEquals(3, RunOptions.parse(new String[]{"--pipeline=3", INPUT}).getPipelineParsers());
+        assertThrows(IllegalArgumentException.class, () -> RunOptions.parse(new String[]{"--pipeline=0", INPUT}));
+    }
+
+    @Test
+    void renderThreads() {
+        assertEquals(0, RunOptions.parse(new String[]{INPUT}).getRenderThreads());
+        assertTrue(RunOptions.parse(new String[]{"--render-threads", INPUT}).getRenderThreads() > 0);
+        assertEquals(4, RunOptions.parse(new String[]{"--render-threads=4", INPUT}).getRenderThreads());
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--render-threads=-1", INPUT}));
+    }
+
+    @Test
+    void aggregate() {
+        assertEquals(0, RunOptions.parse(new String[]{INPUT}).getAggregateTop());
+        assertEquals(AggregateReport.DEFAULT_TOP,
+                RunOptions.parse(new String[]{"--aggregate", INPUT}).getAggregateTop());
+        assertEquals(5, RunOptions.parse(new String[]{"--aggregate=5", INPUT}).getAggregateTop());
+        assertThrows(IllegalArgumentException.class, () -> RunOptions.parse(new String[]{"--aggregate=0", INPUT}));
+    }
+
+    @Test
+    void malformedLines() {
+        RunOptions quarantined = RunOptions.parse(new String[]{"--quarantine=bad.tsv", INPUT});
+
+        assertEquals(1, RunOptions.parse(new String[]{INPUT}).getMaxErrors());
+        assertNull(RunOptions.parse(new String[]{INPUT}).getQuarantinePath());
+        assertEquals(MalformedLinePolicy.UNLIMITED,
+                RunOptions.parse(new String[]{"--skip-malformed", INPUT}).getMaxErrors());
+        assertEquals(MalformedLinePolicy.UNLIMITED, quarantined.getMaxErrors());
+        assertEquals(Path.of("bad.tsv"), quarantined.getQuarantinePath());
+        assertEquals(100, RunOptions.parse(new String[]{"--skip-malformed", "--max-errors=100", INPUT})
+                .getMaxErrors());
+        assertThrows(IllegalArgumentException.class, () -> RunOptions.parse(new String[]{"--max-errors=0", INPUT}));
+        assertThrows(IllegalArgumentException.class, () -> RunOptions.parse(new String[]{"--quarantine", INPUT}));
+    }
+
+    @Test
+    void external() {
+        RunOptions defaults = RunOptions.parse(new String[]{"--external", INPUT});
+        RunOptions sized = RunOptions.parse(new String[]{"--sort-memory=16m", "--tmpdir=/data/tmp", INPUT});
+
+        assertFalse(RunOptions.parse(new String[]{INPUT}).isExternal());
+        assertTrue(defaults.isExternal());
+        assertEquals(ExternalHouseholdSorter.DEFAULT_MEMORY_BUDGET, defaults.getSortMemory());
+        assertTrue(sized.isExternal());
+        assertEquals(16L << 20, sized.getSortMemory());
+        assertEquals(Path.of("/data/tmp"), sized.getTempDir());
+        assertEquals(4096, RunOptions.parse(new String[]{"--sort-memory=4096", INPUT}).getSortMemory());
+    }
+
+    @Test
+    void invalidArguments() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> RunOptions.parse(new String[]{})),
+                () -> assertThrows(IllegalArgumentException.class, () -> RunOptions.parse(new String[]{"--stream"})),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> RunOptions.parse(new String[]{"--bogus", INPUT})),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> RunOptions.parse(new String[]{INPUT, INPUT})),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> RunOptions.parse(new String[]{"--parallel=0", INPUT})),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> RunOptions.parse(new String[]{"--parallel=many", INPUT})),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> RunOptions.parse(new String[]{"--address-cache=-1", INPUT})),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> RunOptions.parse(new String[]{"--address-cache", INPUT})),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> RunOptions.parse(new String[]{"--sort-memory=0", INPUT})),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> RunOptions.parse(new String[]{"--sort-memory=lots", INPUT})),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> RunOptions.parse(new String[]{"--tmpdir", INPUT}))
+        );
+    }
+}
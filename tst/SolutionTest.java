@@ -1,14 +1,23 @@
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SolutionTest {
     private static final String SAMPLE_INPUT = "tst/data/sample.txt";
@@ -42,6 +51,102 @@ class SolutionTest {
         expectedScanner.close();
     }
 
+    @Test
+    void testStartStreaming() throws FileNotFoundException {
+        Scanner expectedScanner = new Scanner(new File(SAMPLE_INPUT));
+        String expected = Solution.start(expectedScanner);
+        expectedScanner.close();
+
+        Scanner inputScanner = new Scanner(new File(SAMPLE_INPUT));
+        assertEquals(expected, Solution.startStreaming(inputScanner, new AddressCache(16)));
+
+        // Scanner is empty. Test the "empty" condition for startStreaming().
+        assertEquals("", Solution.startStreaming(inputScanner, new AddressCache(16)));
+        inputScanner.close();
+    }
+
+    @Test
+    void testStartStreaming_malformedInput() throws FileNotFoundException {
+        Scanner inputScanner = new Scanner(new File(SAMPLE_MALFORMED_INPUT));
+        assertThrows(InputMismatchException.class, () -> Solution.startStreaming(inputScanner, new AddressCache(16)));
+        inputScanner.close();
+
+        Scanner inputScanner2 = new Scanner(new File(RANDOM_TXT_INPUT));
+        assertThrows(InputMismatchException.class, () -> Solution.startStreaming(inputScanner2, new AddressCache(16)));
+        inputScanner2.close();
+    }
+
+    @Test
+    void testStartMapped() throws IOException {
+        Scanner expectedScanner = new Scanner(new File(SAMPLE_INPUT));
+        String expected = Solution.start(expectedScanner);
+        expectedScanner.close();
+
+        assertEquals(expected, Solution.startMapped(Path.of(SAMPLE_INPUT), new AddressCache(16)));
+        assertThrows(InputMismatchException.class,
+                () -> Solution.startMapped(Path.of(SAMPLE_MALFORMED_INPUT), new AddressCache(16)));
+        assertThrows(InputMismatchException.class,
+                () -> Solution.startMapped(Path.of(RANDOM_TXT_INPUT), new AddressCache(16)));
+    }
+
+    @Test
+    void testStartParallel() throws IOException {
+        Scanner expectedScanner = new Scanner(new File(SAMPLE_INPUT));
+        String expected = Solution.start(expectedScanner);
+        expectedScanner.close();
+
+        assertEquals(expected, Solution.startParallel(Path.of(SAMPLE_INPUT), 4, new AddressCache(16)));
+    }
+
+    @Test
+    void testStartColumnar() throws IOException {
+        Scanner expectedScanner = new Scanner(new File(SAMPLE_INPUT));
+        String expected = Solution.start(expectedScanner);
+        expectedScanner.close();
+
+        assertEquals(expected, Solution.startColumnar(Path.of(SAMPLE_INPUT), new AddressCache(16)));
+    }
+
+    @Test
+    void testConstructResident() {
+        Resident resident = Solution.constructResident(
+                "\"Mary-Jane\",\"Smith-Jones\",\"12-B Main St.\",\"seattle\",\"wa\",\"31\"");
+
+        assertEquals("Mary-Jane Smith-Jones, 12-b Main St, Seattle, WA, 31", resident.toString());
+        assertNull(Solution.constructResident("\"Jane Smith\",\"123 Main St.\",\"Seattle\",\"WA\",\"13\""));
+    }
+
+    @Test
+    void testRead_skipsMalformedLines() throws IOException {
+        List<String> lines = Files.readAllLines(Path.of(SAMPLE_MALFORMED_INPUT));
+        String expected = Solution.start(new Scanner(String.join("\n", lines.subList(0, lines.size() - 1))));
+        StringWriter quarantine = new StringWriter();
+        MalformedLinePolicy policy = new MalformedLinePolicy(MalformedLinePolicy.UNLIMITED, quarantine);
+
+        try (Scanner inputScanner = new Scanner(new File(SAMPLE_MALFORMED_INPUT))) {
+            assertEquals(expected, Solution.getHouseholdsDisplay(
+                    Solution.read(inputScanner, new AddressCache(16), policy, PipelineMetrics.DISABLED)));
+        }
+        try (Scanner inputScanner = new Scanner(new File(SAMPLE_MALFORMED_INPUT))) {
+            assertEquals(expected, Solution.getHouseholdsDisplay(
+                    Solution.readStreaming(inputScanner, new AddressCache(16), policy)));
+        }
+        assertEquals(2, policy.getRejectedCount());
+        assertTrue(quarantine.toString().startsWith("10\tExpected 6 fields but found 5\t\"Jane Smith\""));
+    }
+
+    @Test
+    void testRead_malformedLineNumber() throws FileNotFoundException {
+        try (Scanner inputScanner = new Scanner(new File(SAMPLE_MALFORMED_INPUT))) {
+            MalformedResidentException mre = assertThrows(MalformedResidentException.class,
+                    () -> Solution.start(inputScanner));
+            assertEquals(10, mre.getLineNumber());
+        }
+        assertEquals("Age is not an integer: 4x",
+                Solution.describeMalformed("\"Dave\",\"Smith\",\"123 main st.\",\"seattle\",\"wa\",\"4x\""));
+        assertNull(Solution.constructResident("\"Dave\",\"Smith\",\"123 main st.\",\"seattle\",\"wa\",\"4x\""));
+    }
+
     @Test
     void testStart_malformedInput() throws FileNotFoundException {
         Scanner inputScanner = new Scanner(new File(SAMPLE_MALFORMED_INPUT));
@@ -52,4 +157,26 @@ class SolutionTest {
         assertThrows(InputMismatchException.class, () -> Solution.start(inputScanner2));
         inputScanner2.close();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRun_gzipInput(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("sample.txt.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            Files.copy(Path.of(SAMPLE_INPUT), out);
+        }
+
+        for (String mode : List.of("", "--stream", "--mmap", "--parallel=2", "--pipeline=2",
+                "--columnar", "--aggregate")) {
+            assertEquals(run(mode, SAMPLE_INPUT), run(mode, file.toString()), mode);
+        }
+    }
+
+    private static String run(String mode, String inputPath) throws IOException {
+        StringWriter report = new StringWriter();
+        ReportWriter out = new ReportWriter(report);
+        String[] args = mode.isEmpty() ? new String[] {inputPath} : new String[] {mode, inputPath};
+        Solution.run(RunOptions.parse(args), new AddressCache(16), out, PipelineMetrics.DISABLED);
+        out.flush();
+        return report.toString();
+    }
+}
@@ -0,0 +1,122 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StagedPipelineTest {
+    private static final Path SAMPLE_INPUT = Path.of("tst/data/sample.txt");
+    private static final Path SAMPLE_MALFORMED_INPUT = Path.of("tst/data/sampleMalformed.txt");
+    private static final String[] FIRST_NAMES = {"Alice", "Bob", "Carol", "Dave", "Eve"};
+    private static final String[] STREETS = {"123 main st.", "234 2nd Ave", "345 3rd Blvd., Apt. 200"};
+
+    @TempDir
+    Path tempDir;
+
+    private static String build(StagedPipeline pipeline, Path input) throws IOException {
+        return Solution.getHouseholdsDisplay(pipeline.build(input, MalformedLinePolicy.failFast()));
+    }
+
+    @Test
+    void matchesSerialOnSample() throws IOException {
+        String expected = Solution.startMapped(SAMPLE_INPUT, new AddressCache(0));
+
+        assertEquals(expected, build(new StagedPipeline(2, new AddressCache(16)), SAMPLE_INPUT));
+        // Chunks smaller than a line grow to hold it
+        assertEquals(expected, build(new StagedPipeline(3, new AddressCache(16), 8, 1), SAMPLE_INPUT));
+    }
+
+    @Test
+    void matchesSerialOnManyChunks() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            input.append(String.format("\"%s\",\"Smith\",\"%s\",\"Seattle\",\"WA\",\"%d\"%s",
+                    FIRST_NAMES[i % FIRST_NAMES.length], STREETS[i % STREETS.length], i % 90,
+                    i % 2 == 0 ? "\n" : "\r\n"));
+        }
+        Path file = this.tempDir.resolve("input.txt");
+        Files.writeString(file, input);
+        StagedPipeline pipeline = new StagedPipeline(4, new AddressCache(16), 1000, 2);
+
+        assertEquals(Solution.startMapped(file, new AddressCache(0)), build(pipeline, file));
+
+        List<StagedPipeline.QueueStats> stats = pipeline.getQueueStats();
+        assertAll(
+                () -> assertEquals("read -> parse", stats.get(0).getName()),
+                () -> assertEquals("parse -> group", stats.get(1).getName()),
+                () -> assertEquals(2, stats.get(0).getCapacity()),
+                () -> assertTrue(stats.get(0).getPuts() > 100),
+                () -> assertEquals(stats.get(0).getPuts(), stats.get(1).getPuts()),
+                () -> assertTrue(stats.get(0).getMaxDepth() <= 2),
+                () -> assertTrue(stats.get(0).getMeanDepth() <= 2),
+                () -> assertTrue(stats.get(1).toString().startsWith("parse -> group queue: "))
+        );
+    }
+
+    @Test
+    void skipsMalformedLinesInFileOrder() throws IOException {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expectedQuarantine = new StringBuilder();
+        for (int i = 1; i <= 1000; i++) {
+            if (i % 37 == 0) {
+                input.append("bad ").append(i).append('\n');
+                expectedQuarantine.append(i).append("\tExpected 6 fields but found 1\tbad ").append(i).append('\n');
+            } else {
+                input.append(String.format("\"%s\",\"Smith\",\"%s\",\"Seattle\",\"WA\",\"%d\"\n",
+                        FIRST_NAMES[i % FIRST_NAMES.length], STREETS[i % STREETS.length], i % 90));
+            }
+        }
+        Path file = this.tempDir.resolve("input.txt");
+        Files.writeString(file, input);
+
+        StringWriter quarantine = new StringWriter();
+        MalformedLinePolicy policy = new MalformedLinePolicy(MalformedLinePolicy.UNLIMITED, quarantine);
+        HouseholdIndex households = new StagedPipeline(4, new AddressCache(16), 500, 2).build(file, policy);
+
+        assertEquals(1000 - 1000 / 37, households.getResidentCount());
+        assertEquals(expectedQuarantine.toString(), quarantine.toString());
+    }
+
+    @Test
+    void gzipInput() throws IOException {
+        Path file = gzip(SAMPLE_INPUT);
+
+        assertEquals(Solution.startMapped(SAMPLE_INPUT, new AddressCache(0)),
+                build(new StagedPipeline(3, new AddressCache(16), 64, 1), file));
+
+        MalformedResidentException mre = assertThrows(MalformedResidentException.class,
+                () -> build(new StagedPipeline(2, new AddressCache(16), 64, 1), gzip(SAMPLE_MALFORMED_INPUT)));
+        assertEquals(10, mre.getLineNumber());
+    }
+
+    private Path gzip(Path input) throws IOException {
+        Path file = this.tempDir.resolve(input.getFileName() + ".gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            Files.copy(input, out);
+        }
+        return file;
+    }
+
+    @Test
+    void malformedInput() {
+        MalformedResidentException mre = assertThrows(MalformedResidentException.class,
+                () -> build(new StagedPipeline(2, new AddressCache(16), 64, 1), SAMPLE_MALFORMED_INPUT));
+
+        assertEquals(10, mre.getLineNumber());
+    }
+
+    @Test
+    void missingFile() {
+        assertThrows(NoSuchFileException.class,
+                () -> build(new StagedPipeline(2, new AddressCache(16)), this.tempDir.resolve("missing.txt")));
+        assertThrows(IllegalArgumentException.class, () -> new StagedPipeline(0, new AddressCache(16)));
+    }
+}
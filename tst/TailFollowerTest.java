@@ -0,0 +1,187 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TailFollowerTest {
+    private static final String SAMPLE_INPUT = "tst/data/sample.txt";
+    private static final String BOB = "\"Bob\",\"Doe\",\"1 Gofer St\",\"Seattle\",\"WA\",\"40\"\n";
+    private static final String JANE = "\"Jane\",\"Doe\",\"1 Gofer St\",\"Seattle\",\"WA\",\"12\"\n";
+    private static final String ANN = "\"Ann\",\"Roe\",\"2 Gofer St\",\"Tacoma\",\"WA\",\"30\"\n";
+
+    @TempDir
+    Path tempDir;
+
+    private Path input;
+
+    private void append(String text) throws IOException {
+        if (this.input == null) {
+            this.input = this.tempDir.resolve("input.txt");
+        }
+        Files.writeString(this.input, text, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void appliesOnlyAppendedLines() throws IOException {
+        append(BOB);
+        TailFollower follower = new TailFollower(this.input, new AddressCache(16));
+
+        assertEquals(1, follower.poll().size());
+        assertTrue(follower.poll().isEmpty());
+
+        // The incomplete line is left until it is terminated
+        append(ANN + JANE.substring(0, 10));
+        List<Household> changed = follower.poll();
+        assertEquals(1, changed.size());
+        assertEquals(new Address("2 Gofer St", "Tacoma", "WA"), changed.get(0).getAddress());
+        assertEquals(ANN.length() + BOB.length(), follower.getPosition());
+
+        append(JANE.substring(10));
+        changed = follower.poll();
+        assertEquals(1, changed.size());
+        assertEquals(2, changed.get(0).getOccupants());
+        assertEquals(2, follower.getHouseholds().size());
+    }
+
+    @Test
+    void malformedLinesAreNotApplied() throws IOException {
+        append(BOB);
+        TailFollower follower = new TailFollower(this.input, new AddressCache(16));
+        follower.poll();
+
+        append(ANN + "\"Jane\",\"Doe\"\n");
+        assertThrows(InputMismatchException.class, follower::poll);
+        assertEquals(1, follower.getHouseholds().size());
+        assertEquals(BOB.length(), follower.getPosition());
+    }
+
+    @Test
+    void skipsMalformedLinesAndKeepsFollowing() throws IOException {
+        append(BOB);
+        StringWriter quarantine = new StringWriter();
+        MalformedLinePolicy policy = new MalformedLinePolicy(MalformedLinePolicy.UNLIMITED, quarantine);
+        TailFollower follower = new TailFollower(this.input, new AddressCache(16), policy);
+        follower.poll();
+
+        append("\"Jane\",\"Doe\"\n");
+        assertTrue(follower.poll().isEmpty());
+        append(ANN);
+        List<Household> changed = follower.poll();
+        assertEquals(1, changed.size());
+        assertEquals(new Address("2 Gofer St", "Tacoma", "WA"), changed.get(0).getAddress());
+        assertEquals(1, policy.getRejectedCount());
+        assertEquals("2\tExpected 6 fields but found 2\t\"Jane\",\"Doe\"\n", quarantine.toString());
+
+        // Following continues past the malformed line, and its line numbers stay those of the file
+        append("bad\n" + JANE);
+        BlockingQueue<String> commands = new LinkedBlockingQueue<>(List.of("", TailFollower.QUIT_COMMAND));
+        StringWriter res = new StringWriter();
+        try (ReportWriter out = new ReportWriter(res)) {
+            follower.follow(out, 1, commands);
+        }
+        assertEquals(2, policy.getRejectedCount());
+        assertTrue(quarantine.toString().endsWith("4\tExpected 6 fields but found 1\tbad\n"));
+        assertEquals(2, follower.getHouseholds().getHousehold(new Address("1 Gofer St", "Seattle", "WA"))
+                .getOccupants());
+    }
+
+    @Test
+    void restartsWhenFileShrinks() throws IOException {
+        append(BOB + ANN);
+        TailFollower follower = new TailFollower(this.input, new AddressCache(16));
+        follower.poll();
+
+        Files.writeString(this.input, JANE, StandardCharsets.UTF_8);
+        List<Household> changed = follower.poll();
+        assertEquals(1, changed.size());
+        assertEquals(1, follower.getHouseholds().size());
+        assertTrue(changed.get(0).getAdults().isEmpty());
+    }
+
+    @Test
+    void followWritesReportThenUpdates() throws IOException {
+        String expected = Solution.startMapped(Path.of(SAMPLE_INPUT), new AddressCache(0));
+        BlockingQueue<String> commands = new LinkedBlockingQueue<>(List.of(TailFollower.REPORT_COMMAND,
+                TailFollower.QUIT_COMMAND));
+
+        // The sample's last line has no terminator, and is applied as the file is read from the start
+        StringWriter res = new StringWriter();
+        try (ReportWriter out = new ReportWriter(res)) {
+            new TailFollower(Path.of(SAMPLE_INPUT), new AddressCache(16)).follow(out, 1, commands);
+        }
+        assertEquals(expected + expected, res.toString());
+    }
+
+    @Test
+    void unterminatedLineIsAppliedOnce() throws IOException {
+        append(BOB);
+        TailFollower follower = new TailFollower(this.input, new AddressCache(16));
+        follower.poll();
+
+        // A line left without its terminator is taken as complete once the file stops growing
+        append(JANE.substring(0, JANE.length() - 1));
+        assertTrue(follower.poll().isEmpty());
+        assertEquals(1, follower.poll().size());
+        assertEquals(2, follower.getHouseholds().getResidentCount());
+
+        append("\n" + ANN);
+        List<Household> changed = follower.poll();
+        assertEquals(1, changed.size());
+        assertEquals(new Address("2 Gofer St", "Tacoma", "WA"), changed.get(0).getAddress());
+        assertEquals(3, follower.getHouseholds().getResidentCount());
+        assertEquals(BOB.length() + JANE.length() + ANN.length(), follower.getPosition());
+    }
+
+    @Test
+    void restartsWhenUnterminatedLineIsContinued() throws IOException {
+        append(BOB + "\"Jane\",\"Doe\",\"1 Gofer St\",\"Seattle\",\"WA\"");
+        MalformedLinePolicy policy = new MalformedLinePolicy(MalformedLinePolicy.UNLIMITED, null);
+        TailFollower follower = new TailFollower(this.input, new AddressCache(16), policy);
+        follower.poll();
+        assertEquals(1, policy.getRejectedCount());
+
+        // The line skipped as malformed was only partly written, so the file is read again once it is complete
+        append(",\"40\"\n");
+        assertEquals(1, follower.poll().size());
+        assertEquals(2, follower.getHouseholds().getHousehold(new Address("1 Gofer St", "Seattle", "WA"))
+                .getAdults().size());
+        assertEquals(2, follower.getHouseholds().getResidentCount());
+    }
+
+    @Test
+    void restartsWhenFileIsReplaced() throws IOException {
+        append(BOB + ANN);
+        TailFollower follower = new TailFollower(this.input, new AddressCache(16));
+        follower.poll();
+
+        // Rewritten in place with the same size
+        Files.writeString(this.input, BOB + ANN.replace("Ann", "Amy"), StandardCharsets.UTF_8);
+        follower.poll();
+        assertEquals("Amy", follower.getHouseholds().getHousehold(new Address("2 Gofer St", "Tacoma", "WA"))
+                .getAdults().get(0).getFirstName());
+        assertEquals(2, follower.getHouseholds().getResidentCount());
+
+        // Replaced by a larger file
+        Path replacement = this.tempDir.resolve("replacement.txt");
+        Files.writeString(replacement, ANN + JANE + BOB, StandardCharsets.UTF_8);
+        Files.move(replacement, this.input, StandardCopyOption.REPLACE_EXISTING);
+        List<Household> changed = follower.poll();
+        assertEquals(2, changed.size());
+        assertEquals("Ann", follower.getHouseholds().getHousehold(new Address("2 Gofer St", "Tacoma", "WA"))
+                .getAdults().get(0).getFirstName());
+        assertEquals(3, follower.getHouseholds().getResidentCount());
+    }
+}
@@ -0,0 +1,52 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKCounterTest {
+    @Test
+    void exactWithinCapacity() {
+        TopKCounter<String> counter = new TopKCounter<>(10);
+        for (String item : new String[]{"a", "b", "a", "c", "a", "b"}) {
+            counter.add(item);
+        }
+        List<TopKCounter.Counter<String>> top = counter.getTop(2);
+
+        assertAll(
+                () -> assertEquals(2, top.size()),
+                () -> assertEquals("a", top.get(0).getItem()),
+                () -> assertEquals(3, top.get(0).getCount()),
+                () -> assertEquals(0, top.get(0).getError()),
+                () -> assertEquals("b", top.get(1).getItem()),
+                () -> assertEquals(2, top.get(1).getCount()),
+                () -> assertEquals(3, counter.getTop(5).size())
+        );
+    }
+
+    @Test
+    void findsHeavyHittersBeyondCapacity() {
+        TopKCounter<Integer> counter = new TopKCounter<>(20);
+        Random random = new Random(7);
+        int total = 0;
+        for (int i = 0; i < 20_000; i++) {
+            // Items 0 to 2 are frequent; the rest are spread over many rare items
+            counter.add(i % 4 == 0 ? random.nextInt(3) : 3 + random.nextInt(10_000));
+            total++;
+        }
+        List<TopKCounter.Counter<Integer>> top = counter.getTop(3);
+
+        for (TopKCounter.Counter<Integer> heavy : top) {
+            assertTrue(heavy.getItem() < 3, "Expected a frequent item, not " + heavy.getItem());
+            assertTrue(heavy.getError() <= total / 20);
+            assertTrue(heavy.getCount() - heavy.getError() <= 20_000 / 12 + 200);
+            assertTrue(heavy.getCount() >= 20_000 / 12 - 200);
+        }
+    }
+
+    @Test
+    void invalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TopKCounter<String>(0));
+    }
+}
@@ -0,0 +1,33 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueDictionaryTest {
+    @Test
+    void encodeAndDecode() {
+        ValueDictionary<String> dictionary = new ValueDictionary<>();
+
+        assertAll(
+                () -> assertEquals(0, dictionary.encode("Smith")),
+                () -> assertEquals(1, dictionary.encode("Jones")),
+                () -> assertEquals(0, dictionary.encode("Smith")),
+                () -> assertEquals(2, dictionary.size()),
+                () -> assertEquals("Jones", dictionary.decode(1)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> dictionary.decode(2))
+        );
+    }
+
+    @Test
+    void ranks() {
+        ValueDictionary<String> dictionary = new ValueDictionary<>();
+        dictionary.encode("Smith");
+        dictionary.encode("jones");
+        dictionary.encode("Jones");
+        dictionary.encode("Adams");
+
+        assertArrayEquals(new int[]{2, 3, 1, 0}, dictionary.ranks(Comparator.naturalOrder()));
+        assertArrayEquals(new int[]{2, 1, 1, 0}, dictionary.ranks(String.CASE_INSENSITIVE_ORDER));
+    }
+}